@@ -0,0 +1,125 @@
+package edu.chalmers.blockster.core;
+
+/**
+ * Runs a model at a fixed tick rate, no matter how long the frames take to
+ * render. The time of each frame is added to an accumulator, and the model is
+ * updated with a constant delta time for every whole tick in it. What is left
+ * over can be used by the view to interpolate between the last two ticks.
+ */
+public class FixedStepSimulator {
+
+	public static final int DEFAULT_TICK_RATE = 60;
+	public static final int DEFAULT_MAX_STEPS = 5;
+
+	private final float stepTime;
+	private final int maxSteps;
+
+	private float accumulator;
+	private long ticks;
+	private TickListener tickListener;
+
+	public FixedStepSimulator() {
+		this(DEFAULT_TICK_RATE, DEFAULT_MAX_STEPS);
+	}
+
+	/**
+	 * @param tickRate
+	 *            Number of model updates per second.
+	 * @param maxSteps
+	 *            Most number of updates to catch up with in a single frame.
+	 *            Time beyond that is dropped, so that a slow frame does not
+	 *            make the following frames even slower.
+	 */
+	public FixedStepSimulator(int tickRate, int maxSteps) {
+		if (tickRate <= 0) {
+			throw new IllegalArgumentException("Tick rate is " + tickRate
+					+ ". Must be positive.");
+		}
+		if (maxSteps <= 0) {
+			throw new IllegalArgumentException("Max steps is " + maxSteps
+					+ ". Must be positive.");
+		}
+		this.stepTime = 1f / tickRate;
+		this.maxSteps = maxSteps;
+	}
+
+	/**
+	 * Add the time of a frame and update the model once for every whole tick
+	 * that has passed.
+	 *
+	 * @param model
+	 *            The model to update
+	 * @param frameTime
+	 *            Time since the last frame, in seconds
+	 * @return The number of updates that were made
+	 */
+	public int advance(Model model, float frameTime) {
+		if (frameTime < 0) {
+			throw new IllegalArgumentException("Frame time is " + frameTime
+					+ ". Must not be negative.");
+		}
+
+		accumulator += frameTime;
+
+		int steps = 0;
+		while (accumulator >= stepTime && steps < maxSteps) {
+			if (tickListener != null) {
+				tickListener.beforeTick(model);
+			}
+			model.update(stepTime);
+			if (tickListener != null) {
+				tickListener.afterTick(model);
+			}
+			/* The listener may have reset the simulator */
+			accumulator = Math.max(accumulator - stepTime, 0);
+			steps++;
+			ticks++;
+		}
+
+		/* Drop the time we could not catch up with */
+		if (accumulator >= stepTime) {
+			accumulator %= stepTime;
+		}
+		return steps;
+	}
+
+	/**
+	 * Set the listener to call around every tick, or null for none.
+	 */
+	public void setTickListener(TickListener tickListener) {
+		this.tickListener = tickListener;
+	}
+
+	/**
+	 * Get how far the simulation has come towards the next tick.
+	 *
+	 * @return A value in [0, 1) to interpolate between the previous and the
+	 *         current tick with.
+	 */
+	public float getAlpha() {
+		return Math.min(accumulator / stepTime, 1f);
+	}
+
+	public float getStepTime() {
+		return stepTime;
+	}
+
+	public int getMaxSteps() {
+		return maxSteps;
+	}
+
+	/**
+	 * Get the number of ticks the simulator has run.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Forget the time that has not been simulated yet, e.g. when the stage
+	 * is changed or restarted.
+	 */
+	public void reset() {
+		accumulator = 0;
+	}
+}
@@ -0,0 +1,12 @@
+package edu.chalmers.blockster.core;
+
+/**
+ * The keys that can be used to control a stage, independent of which
+ * framework the input comes from.
+ */
+
+public enum InputKey {
+
+	LEFT, RIGHT, GRAB, CLIMB, SWITCH_CHARACTER, RESTART, MENU, UNDO, REDO;
+
+}
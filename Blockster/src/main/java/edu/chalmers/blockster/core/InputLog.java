@@ -0,0 +1,208 @@
+package edu.chalmers.blockster.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The key flags of every tick of a recorded game, and state hashes at some of
+ * the ticks to check a replay against.
+ *
+ * Since the flags rarely change from one tick to the next, they are stored as
+ * runs of ticks with the same flags. In the binary format every run is written
+ * as two variable length integers, so a recording of a few minutes is usually
+ * a few kilobytes.
+ */
+public class InputLog {
+
+	private static final int MAGIC = 0x424C4B52; // "BLKR"
+	/* Version 2 hashes the checkpoints with StateHash on the Zobrist hash */
+	private static final int VERSION = 2;
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final String stageName;
+	private final float stepTime;
+
+	/* Run i covers the ticks from runEnds[i - 1] up to runEnds[i] */
+	private int[] runFlags;
+	private long[] runEnds;
+	private int runs;
+
+	private final SortedMap<Long, Long> checkpoints;
+
+	public InputLog(String stageName, float stepTime) {
+		if (stepTime <= 0) {
+			throw new IllegalArgumentException("Step time is " + stepTime
+					+ ". Must be positive.");
+		}
+		this.stageName = stageName;
+		this.stepTime = stepTime;
+		runFlags = new int[INITIAL_CAPACITY];
+		runEnds = new long[INITIAL_CAPACITY];
+		checkpoints = new TreeMap<Long, Long>();
+	}
+
+	public String getStageName() {
+		return stageName;
+	}
+
+	public float getStepTime() {
+		return stepTime;
+	}
+
+	/**
+	 * Add the key flags of the next tick.
+	 */
+	public void record(int flags) {
+		if (runs > 0 && runFlags[runs - 1] == flags) {
+			runEnds[runs - 1]++;
+			return;
+		}
+
+		if (runs == runFlags.length) {
+			runFlags = Arrays.copyOf(runFlags, runs * 2);
+			runEnds = Arrays.copyOf(runEnds, runs * 2);
+		}
+		runFlags[runs] = flags;
+		runEnds[runs] = getTickCount() + 1;
+		runs++;
+	}
+
+	/**
+	 * Get the number of recorded ticks.
+	 */
+	public long getTickCount() {
+		return runs == 0 ? 0 : runEnds[runs - 1];
+	}
+
+	/**
+	 * Get the key flags of the given tick.
+	 */
+	public int getFlags(long tick) {
+		if (tick < 0 || tick >= getTickCount()) {
+			throw new IndexOutOfBoundsException("Tick: " + tick + ", Ticks: "
+					+ getTickCount());
+		}
+
+		/* Find the first run that ends after the tick */
+		int low = 0;
+		int high = runs - 1;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (runEnds[mid] <= tick) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return runFlags[low];
+	}
+
+	/**
+	 * Get the number of runs of equal flags, i.e. how many times the input
+	 * changed.
+	 */
+	public int getRunCount() {
+		return runs;
+	}
+
+	/**
+	 * Store the state hash of the model after the given tick was simulated.
+	 */
+	public void addCheckpoint(long tick, long hash) {
+		checkpoints.put(tick, hash);
+	}
+
+	/**
+	 * Get the state hashes, by the tick after which they were taken.
+	 */
+	public SortedMap<Long, Long> getCheckpoints() {
+		return Collections.unmodifiableSortedMap(checkpoints);
+	}
+
+	public void write(OutputStream out) throws IOException {
+		final DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeByte(VERSION);
+		data.writeUTF(stageName == null ? "" : stageName);
+		data.writeFloat(stepTime);
+
+		writeVarLong(data, runs);
+		long start = 0;
+		for (int i = 0; i < runs; i++) {
+			writeVarLong(data, runEnds[i] - start);
+			writeVarLong(data, runFlags[i] & 0xFFFFFFFFL);
+			start = runEnds[i];
+		}
+
+		writeVarLong(data, checkpoints.size());
+		long previous = 0;
+		for (final Map.Entry<Long, Long> checkpoint : checkpoints.entrySet()) {
+			writeVarLong(data, checkpoint.getKey() - previous);
+			data.writeLong(checkpoint.getValue());
+			previous = checkpoint.getKey();
+		}
+		data.flush();
+	}
+
+	public static InputLog read(InputStream in) throws IOException {
+		final DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC) {
+			throw new IOException("Not an input log");
+		}
+		final int version = data.readUnsignedByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported input log version: " + version);
+		}
+
+		final InputLog log = new InputLog(data.readUTF(), data.readFloat());
+
+		final long runs = readVarLong(data);
+		for (long i = 0; i < runs; i++) {
+			final long length = readVarLong(data);
+			final int flags = (int) readVarLong(data);
+			if (length <= 0) {
+				throw new IOException("Input log has an empty run");
+			}
+			log.record(flags);
+			log.runEnds[log.runs - 1] += length - 1;
+		}
+
+		final long checkpoints = readVarLong(data);
+		long tick = 0;
+		for (long i = 0; i < checkpoints; i++) {
+			tick += readVarLong(data);
+			log.addCheckpoint(tick, data.readLong());
+		}
+		return log;
+	}
+
+	private static void writeVarLong(DataOutputStream out, long value)
+			throws IOException {
+		long rest = value;
+		while ((rest & ~0x7FL) != 0) {
+			out.writeByte((int) (rest & 0x7F) | 0x80);
+			rest >>>= 7;
+		}
+		out.writeByte((int) rest);
+	}
+
+	private static long readVarLong(DataInputStream in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed number in input log");
+	}
+}
@@ -0,0 +1,56 @@
+package edu.chalmers.blockster.core;
+
+/**
+ * Records the key flags of every tick into an InputLog, together with the
+ * state hash of the model at regular intervals.
+ */
+public class InputRecorder {
+
+	private final InputLog log;
+	private final int checkpointInterval;
+	private long tick;
+
+	/**
+	 * @param checkpointInterval
+	 *            Number of ticks between state hashes.
+	 */
+	public InputRecorder(String stageName, float stepTime, int checkpointInterval) {
+		if (checkpointInterval <= 0) {
+			throw new IllegalArgumentException("Checkpoint interval is "
+					+ checkpointInterval + ". Must be positive.");
+		}
+		this.log = new InputLog(stageName, stepTime);
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	/**
+	 * Record the flags that are applied to the model in the coming tick.
+	 */
+	public void beforeTick(int keyFlags) {
+		log.record(keyFlags);
+	}
+
+	/**
+	 * Called when the tick has been simulated.
+	 */
+	public void afterTick(Model model) {
+		tick++;
+		if (tick % checkpointInterval == 0) {
+			log.addCheckpoint(tick - 1, StateHash.of(model));
+		}
+	}
+
+	/**
+	 * Stop recording and get the log, with a checkpoint at the last tick.
+	 */
+	public InputLog finish(Model model) {
+		if (tick > 0) {
+			log.addCheckpoint(tick - 1, StateHash.of(model));
+		}
+		return log;
+	}
+
+	public InputLog getLog() {
+		return log;
+	}
+}
@@ -0,0 +1,193 @@
+package edu.chalmers.blockster.core;
+
+import static edu.chalmers.blockster.core.objects.movement.Direction.LEFT;
+import static edu.chalmers.blockster.core.objects.movement.Direction.NONE;
+import static edu.chalmers.blockster.core.objects.movement.Direction.RIGHT;
+
+import edu.chalmers.blockster.core.objects.Player;
+
+/**
+ * The keys currently held down or released, stored as bit flags, and how they
+ * are applied to a model. Flags for released keys are cleared once they have
+ * been applied.
+ */
+public class InputState {
+
+	public static final int LEFT_BUTTON_DOWN_FLAG = 1 << 0;
+	public static final int RIGHT_BUTTON_DOWN_FLAG = 1 << 1;
+	public static final int GRAB_BUTTON_DOWN_FLAG = 1 << 2;
+	public static final int GRAB_BUTTON_UP_FLAG = 1 << 3;
+	public static final int MENU_BUTTON_UP_FLAG = 1 << 4;
+	public static final int SWITCH_CHARACTER_BUTTON_UP_FLAG = 1 << 5;
+	public static final int RESTART_STAGE_BUTTON_R_FLAG = 1 << 6;
+	public static final int LEFT_BUTTON_UP_FLAG = 1 << 7;
+	public static final int RIGHT_BUTTON_UP_FLAG = 1 << 8;
+	public static final int CLIMB_BUTTON_DOWN_FLAG = 1 << 9;
+	public static final int CLIMB_BUTTON_UP_FLAG = 1 << 10;
+	public static final int UNDO_BUTTON_UP_FLAG = 1 << 11;
+	public static final int REDO_BUTTON_UP_FLAG = 1 << 12;
+
+	private volatile int keyFlags;
+
+	/**
+	 * Called when a key has been pressed.
+	 */
+	public void keyDown(InputKey key) {
+		switch (key) {
+		case LEFT:
+			// Override rightwards movement. Can only move one direction at a
+			// time
+			keyFlags = (keyFlags & ~RIGHT_BUTTON_DOWN_FLAG) | LEFT_BUTTON_DOWN_FLAG;
+			break;
+		case RIGHT:
+			keyFlags = (keyFlags & ~LEFT_BUTTON_DOWN_FLAG) | RIGHT_BUTTON_DOWN_FLAG;
+			break;
+		case GRAB:
+			keyFlags |= GRAB_BUTTON_DOWN_FLAG;
+			break;
+		case RESTART:
+			keyFlags |= RESTART_STAGE_BUTTON_R_FLAG;
+			break;
+		case CLIMB:
+			keyFlags |= CLIMB_BUTTON_DOWN_FLAG;
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Called when a key has been released.
+	 */
+	public void keyUp(InputKey key) {
+		switch (key) {
+		case LEFT:
+			keyFlags = (keyFlags & ~LEFT_BUTTON_DOWN_FLAG) | LEFT_BUTTON_UP_FLAG;
+			break;
+		case RIGHT:
+			keyFlags = (keyFlags & ~RIGHT_BUTTON_DOWN_FLAG) | RIGHT_BUTTON_UP_FLAG;
+			break;
+		case GRAB:
+			// If block is grabbed and no other keys are pushed down, lift the
+			// block.
+			keyFlags = (keyFlags & ~GRAB_BUTTON_DOWN_FLAG) | GRAB_BUTTON_UP_FLAG;
+			break;
+		case MENU:
+			keyFlags |= MENU_BUTTON_UP_FLAG;
+			break;
+		case SWITCH_CHARACTER:
+			keyFlags |= SWITCH_CHARACTER_BUTTON_UP_FLAG;
+			break;
+		case CLIMB:
+			keyFlags = (keyFlags & ~CLIMB_BUTTON_DOWN_FLAG) | CLIMB_BUTTON_UP_FLAG;
+			break;
+		case UNDO:
+			keyFlags |= UNDO_BUTTON_UP_FLAG;
+			break;
+		case REDO:
+			keyFlags |= REDO_BUTTON_UP_FLAG;
+			break;
+		default:
+			break;
+		}
+	}
+
+	public int getKeyFlags() {
+		return keyFlags;
+	}
+
+	public void setKeyFlags(int keyFlags) {
+		this.keyFlags = keyFlags;
+	}
+
+	/**
+	 * Apply the input to the model.
+	 *
+	 * @return true if the stage was restarted.
+	 */
+	public boolean apply(Model model) {
+		handleMovement(model.getActivePlayer());
+		handleInteractions(model.getActivePlayer());
+		return handleGameConditions(model);
+	}
+
+	private boolean handleGameConditions(Model model) {
+		if ((keyFlags & MENU_BUTTON_UP_FLAG) != 0) {
+			// Opening the level menu
+			keyFlags &= ~MENU_BUTTON_UP_FLAG;
+		}
+
+		if ((keyFlags & SWITCH_CHARACTER_BUTTON_UP_FLAG) != 0) {
+			// Switching active character
+			keyFlags &= ~SWITCH_CHARACTER_BUTTON_UP_FLAG;
+
+			model.nextPlayer();
+		}
+
+		if ((keyFlags & UNDO_BUTTON_UP_FLAG) != 0) {
+			keyFlags &= ~UNDO_BUTTON_UP_FLAG;
+			model.undo();
+		}
+
+		if ((keyFlags & REDO_BUTTON_UP_FLAG) != 0) {
+			keyFlags &= ~REDO_BUTTON_UP_FLAG;
+			model.redo();
+		}
+
+		if ((keyFlags & RESTART_STAGE_BUTTON_R_FLAG) != 0) {
+			// Restart stage
+			keyFlags &= ~RESTART_STAGE_BUTTON_R_FLAG;
+			model.restart();
+			return true;
+		}
+		return false;
+	}
+
+	private void handleInteractions(Player activePlayer) {
+		if ((keyFlags & GRAB_BUTTON_DOWN_FLAG) != 0) {
+			// Try to grab the adjacent block if possible and there is one.
+			activePlayer.startInteraction();
+		}
+
+		if ((keyFlags & GRAB_BUTTON_UP_FLAG) != 0) {
+			// Grab button was released
+			if (activePlayer.hasMovedBlock() || activePlayer.isLiftingBlock()) {
+				activePlayer.endInteraction();
+			} else {
+				activePlayer.liftBlock();
+			}
+			keyFlags &= ~GRAB_BUTTON_UP_FLAG;
+		}
+	}
+
+	private void handleMovement(Player activePlayer) {
+		if ((keyFlags & LEFT_BUTTON_DOWN_FLAG) != 0) {
+			// Character is moving left
+			activePlayer.setDirection(LEFT);
+			activePlayer.interact();
+		}
+
+		if ((keyFlags & LEFT_BUTTON_UP_FLAG) != 0) {
+			activePlayer.setDefaultVelocity(NONE);
+			keyFlags &= ~LEFT_BUTTON_UP_FLAG;
+		}
+
+		if ((keyFlags & RIGHT_BUTTON_UP_FLAG) != 0) {
+			activePlayer.setDefaultVelocity(NONE);
+			keyFlags &= ~RIGHT_BUTTON_UP_FLAG;
+		}
+
+		if ((keyFlags & RIGHT_BUTTON_DOWN_FLAG) != 0) {
+			// Character is moving right
+			activePlayer.setDirection(RIGHT);
+			activePlayer.interact();
+		}
+
+		if ((keyFlags & CLIMB_BUTTON_DOWN_FLAG) != 0) {
+			if (!activePlayer.isGrabbingBlock()) {
+				activePlayer.climbBlock();
+			}
+			keyFlags &= ~CLIMB_BUTTON_DOWN_FLAG;
+		}
+	}
+}
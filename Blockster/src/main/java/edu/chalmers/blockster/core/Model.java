@@ -14,6 +14,7 @@ import edu.chalmers.blockster.core.objects.Player;
 import edu.chalmers.blockster.core.objects.World;
 import edu.chalmers.blockster.core.objects.movement.AnimationState;
 import edu.chalmers.blockster.core.objects.movement.Movement;
+import edu.chalmers.blockster.core.util.Zobrist;
 
 /**
  * A class to represent a stage.
@@ -30,6 +31,9 @@ public class Model implements Comparable<Model>, GameEventListener {
 	private final String name;
 	private GameState gameState = GameState.GAME_RUNNING;
 	private boolean activePlayerEnteringTeleporter;
+	private StageSnapshot snapshot;
+	private UndoHistory history;
+	private int undoDepth = UndoHistory.DEFAULT_DEPTH;
 
 	public Model(Factory factory, String name) {
 		this.factory = factory;
@@ -48,6 +52,33 @@ public class Model implements Comparable<Model>, GameEventListener {
 		for(final Player player : players){
 			player.addGameEventListener(this);
 		}
+		if (snapshot != null) {
+			snapshot.detach();
+		}
+		snapshot = new StageSnapshot(map, players);
+		snapshot.attach();
+		createHistory();
+	}
+
+	private void createHistory() {
+		if (history != null) {
+			history.detach();
+		}
+		history = new UndoHistory(map, players, undoDepth);
+		history.attach();
+	}
+
+	/**
+	 * Put the stage back the way it was loaded, reusing the map, the blocks
+	 * and the players instead of loading the stage again as init() does.
+	 */
+	public void restart() {
+		snapshot.restore(players);
+		history.clear();
+		activeBlocks.clear();
+		activePlayer = players.get(0);
+		activePlayerEnteringTeleporter = false;
+		gameState = GameState.GAME_RUNNING;
 	}
 
 	@Override
@@ -94,6 +125,72 @@ public class Model implements Comparable<Model>, GameEventListener {
 		return name;
 	}
 
+	/**
+	 * Undo the last move made on the stage.
+	 *
+	 * @return false if there was nothing to undo, or the stage is still
+	 *         moving.
+	 */
+	public boolean undo() {
+		return history.undo();
+	}
+
+	/**
+	 * Redo the last undone move.
+	 *
+	 * @return false if there was nothing to redo, or the stage is still
+	 *         moving.
+	 */
+	public boolean redo() {
+		return history.redo();
+	}
+
+	public UndoHistory getUndoHistory() {
+		return history;
+	}
+
+	/**
+	 * Set how many moves can be undone. Forgets the moves made so far.
+	 */
+	public void setUndoDepth(int undoDepth) {
+		if (undoDepth <= 0) {
+			throw new IllegalArgumentException("Undo depth is " + undoDepth
+					+ ". Must be positive.");
+		}
+		this.undoDepth = undoDepth;
+		createHistory();
+	}
+
+	/**
+	 * Get a Zobrist hash of the stage, i.e. of the blocks in the grid, the
+	 * cells the players are in and which player is controlled. The hash of
+	 * the grid is kept up to date by the map, so this only takes time in
+	 * proportion to the number of players.
+	 */
+	public long getZobristHash() {
+		return map.getZobristHash() ^ hashPlayers();
+	}
+
+	/**
+	 * Compute the Zobrist hash of the stage from scratch, to verify the one
+	 * kept up to date.
+	 */
+	public long computeZobristHash() {
+		return map.computeZobristHash() ^ hashPlayers();
+	}
+
+	private long hashPlayers() {
+		long hash = Zobrist.stateKey(gameState.ordinal(),
+				players.indexOf(activePlayer));
+		for (int i = 0; i < players.size(); i++) {
+			final Player player = players.get(i);
+			hash ^= Zobrist.playerKey(i,
+					(int) (player.getOriginX() / player.getScaleX()),
+					(int) (player.getOriginY() / player.getScaleY()));
+		}
+		return hash;
+	}
+
 	public List<Player> getPlayers() {
 		return players;
 	}
@@ -140,9 +237,11 @@ public class Model implements Comparable<Model>, GameEventListener {
 		}
 		
 
+		capturePreviousPositions();
 		updateBlocks(deltaTime);
 		updatePlayers(deltaTime);
 		checkGoals();
+		history.update();
 	}
 	
 	private void checkGoals() {
@@ -157,6 +256,9 @@ public class Model implements Comparable<Model>, GameEventListener {
 			if (!previousActivePlayer.equals(activePlayer)) {
 				players.remove(previousActivePlayer);
 				activePlayerEnteringTeleporter = false;
+
+				/* A player can not leave the teleporter again */
+				history.clear();
 			}
 		}
 	}
@@ -168,12 +270,27 @@ public class Model implements Comparable<Model>, GameEventListener {
 		return activePlayerMovementDone && lastPlayerToPortal;
 	}
 
+	/**
+	 * Remember where the players and the moving blocks are before they are
+	 * updated, so that the view can draw them between the two updates.
+	 */
+	private void capturePreviousPositions() {
+		/* Index loops, since this runs every tick and iterators allocate */
+		for (int i = 0; i < players.size(); i++) {
+			players.get(i).capturePreviousPosition();
+		}
+		for (int i = 0; i < map.getActiveBlockCount(); i++) {
+			map.getActiveBlock(i).capturePreviousPosition();
+		}
+	}
+
 	private void updateBlocks(float deltaTime) {
 		map.updateActiveBlocks(deltaTime);
 	}
 	
 	private void updatePlayers(float deltaTime) {
-		for (final Player player : players) {
+		for (int i = 0; i < players.size(); i++) {
+			final Player player = players.get(i);
 			player.updatePosition(deltaTime);
 			if (player.getAnimationState() != AnimationState.NONE 
 					&& player.getAnimationState().isDone()) {
@@ -0,0 +1,288 @@
+package edu.chalmers.blockster.core;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.chalmers.blockster.core.objects.ActiveBlockListener;
+import edu.chalmers.blockster.core.objects.Block;
+import edu.chalmers.blockster.core.objects.BlockMap;
+import edu.chalmers.blockster.core.objects.BlockMapListener;
+import edu.chalmers.blockster.core.objects.EmptyBlock;
+import edu.chalmers.blockster.core.objects.Player;
+
+/**
+ * The state of a stage as it was loaded, i.e. where every block and player
+ * was and which properties the blocks had. Restoring it puts the very same
+ * objects back in place, so a stage can be restarted without parsing the map
+ * again or creating new blocks, players and views.
+ *
+ * While attached, the snapshot follows the map and remembers every cell that
+ * a block has left or entered, so restoring only looks at those cells and
+ * costs as much as the number of cells changed rather than the size of the
+ * map. Property changes are not announced by the map, so if the hash of the
+ * grid still differs afterwards, every cell is looked at.
+ *
+ * Blocks that the map stores without a Block object are kept as properties
+ * only. A Block object made for such a block after the snapshot was taken is
+ * thrown away on restoring once it has been moved, and the map makes a new
+ * one when asked.
+ */
+public final class StageSnapshot implements BlockMapListener,
+		ActiveBlockListener {
+
+	private final BlockMap map;
+	private final long zobristHash;
+
+	/* The occupied cells as y * width + x, in increasing order */
+	private final int width;
+	private final int[] cells;
+	private final long[] properties;
+
+	/* The Block object of every cell, or null if it had none */
+	private final Block[] blocks;
+
+	private final Player[] players;
+	private final Point[] startPositions;
+
+	/* Cells changed since the snapshot was taken or last restored, as
+	 * y * width + x. A cell may be in it more than once. */
+	private int[] touchedCells;
+	private int touchedCount;
+	private boolean restoring;
+
+	/**
+	 * Take a snapshot of the blocks in the grid of the map and of the
+	 * players, which must be at their starting positions.
+	 */
+	public StageSnapshot(BlockMap map, List<Player> players) {
+		if (!map.getActiveBlocks().isEmpty()) {
+			throw new IllegalArgumentException("Map has "
+					+ map.getActiveBlocks().size() + " active blocks. Must "
+					+ "have none.");
+		}
+
+		this.map = map;
+		zobristHash = map.getZobristHash();
+		width = map.getWidth();
+		int count = 0;
+		for (int y = 0; y < map.getHeight(); y++) {
+			for (int x = 0; x < width; x++) {
+				if (map.hasBlock(x, y)) {
+					count++;
+				}
+			}
+		}
+
+		cells = new int[count];
+		properties = new long[count];
+		blocks = new Block[count];
+		int i = 0;
+		for (int y = 0; y < map.getHeight(); y++) {
+			for (int x = 0; x < width; x++) {
+				if (map.hasBlock(x, y)) {
+					cells[i] = y * width + x;
+					properties[i] = map.getCellProperties(x, y);
+					if (map.hasBlockObject(x, y)) {
+						blocks[i] = map.getBlock(x, y);
+					}
+					i++;
+				}
+			}
+		}
+
+		this.players = players.toArray(new Player[players.size()]);
+		final List<Point> positions = map.getPlayerStartingPositions();
+		startPositions = positions.toArray(new Point[positions.size()]);
+		touchedCells = new int[16];
+	}
+
+	/**
+	 * Start following the changes of the map.
+	 */
+	public void attach() {
+		map.addListener(this);
+		map.addActiveBlockListener(this);
+	}
+
+	/**
+	 * Stop following the changes of the map.
+	 */
+	public void detach() {
+		map.removeListener(this);
+		map.removeActiveBlockListener(this);
+	}
+
+	@Override
+	public void blockInserted(Block block) {
+		touch(block);
+	}
+
+	@Override
+	public void blockRemoved(Block block) {
+		touch(block);
+	}
+
+	@Override
+	public void blockActivated(Block block) {
+		/* The block may still be in the grid, and is moved away from there */
+		touch(block);
+	}
+
+	@Override
+	public void blockDeactivated(Block block) {
+		/* The block is inserted into the grid or falls on, so there is
+		 * nothing to remember */
+	}
+
+	/**
+	 * Remember the cell a block is in.
+	 */
+	private void touch(Block block) {
+		final int x = Math.round(block.getX());
+		final int y = Math.round(block.getY());
+		if (restoring || x < 0 || x >= width || y < 0
+				|| y >= map.getHeight()) {
+			return;
+		}
+
+		if (touchedCount == touchedCells.length) {
+			removeDuplicateCells();
+			if (touchedCount > touchedCells.length / 2) {
+				touchedCells = Arrays.copyOf(touchedCells,
+						touchedCells.length * 2);
+			}
+		}
+		touchedCells[touchedCount++] = y * width + x;
+	}
+
+	/**
+	 * Sort the touched cells and leave each of them in only once.
+	 */
+	private void removeDuplicateCells() {
+		Arrays.sort(touchedCells, 0, touchedCount);
+		int count = 0;
+		for (int i = 0; i < touchedCount; i++) {
+			if (count == 0 || touchedCells[count - 1] != touchedCells[i]) {
+				touchedCells[count++] = touchedCells[i];
+			}
+		}
+		touchedCount = count;
+	}
+
+	/**
+	 * Put every block and player back where it was when the snapshot was
+	 * taken. Blocks that have to be moved are removed from and inserted into
+	 * the map, so that its listeners follow along.
+	 *
+	 * @param players
+	 *            The list of players of the stage, which is filled with the
+	 *            players of the snapshot again
+	 */
+	public void restore(List<Player> players) {
+		restoring = true;
+		try {
+			map.clearActiveBlocks();
+			releaseHeldBlocks();
+
+			removeDuplicateCells();
+			/* Make room first, so no block is inserted on top of another */
+			for (int i = 0; i < touchedCount; i++) {
+				final int x = touchedCells[i] % width;
+				final int y = touchedCells[i] / width;
+				if (map.hasBlock(x, y)) {
+					clearIfChanged(x, y);
+				}
+			}
+			for (int i = 0; i < touchedCount; i++) {
+				final int cell = Arrays.binarySearch(cells, touchedCells[i]);
+				if (cell >= 0) {
+					restoreCell(cell);
+				}
+			}
+			touchedCount = 0;
+
+			if (map.getZobristHash() != zobristHash) {
+				restoreAll();
+			}
+		} finally {
+			restoring = false;
+		}
+
+		players.clear();
+		for (int i = 0; i < this.players.length; i++) {
+			final Player player = this.players[i];
+			player.reset(startPositions[i].x, startPositions[i].y);
+			players.add(player);
+		}
+	}
+
+	/**
+	 * Let go of the blocks the players are holding, which may not have been
+	 * moved from their cells.
+	 */
+	private void releaseHeldBlocks() {
+		for (final Player player : players) {
+			final Block block = player.getProcessedBlock();
+			block.reset(Math.round(block.getX()), Math.round(block.getY()));
+		}
+	}
+
+	/**
+	 * Look at every cell of the map, for changes that were not announced to
+	 * the listeners of the map.
+	 */
+	private void restoreAll() {
+		for (int y = 0; y < map.getHeight(); y++) {
+			for (int x = 0; x < width; x++) {
+				if (map.hasBlock(x, y)) {
+					clearIfChanged(x, y);
+				}
+			}
+		}
+		for (int i = 0; i < cells.length; i++) {
+			restoreCell(i);
+		}
+	}
+
+	/**
+	 * Put the block of a cell of the snapshot back, if it is not in place.
+	 */
+	private void restoreCell(int i) {
+		final int x = cells[i] % width;
+		final int y = cells[i] / width;
+		final Block block = blocks[i];
+		if (block == null) {
+			if (!map.hasBlock(x, y)) {
+				map.placeBlock(x, y, properties[i]);
+			}
+			return;
+		}
+
+		final boolean inPlace = map.hasBlock(x, y);
+		block.reset(x, y);
+		if (block.getProperties() != properties[i]) {
+			block.setProperties(properties[i]);
+		}
+		if (!inPlace) {
+			map.insertBlock(block);
+		}
+	}
+
+	/**
+	 * Empty the cell unless it holds what it held when the snapshot was
+	 * taken. A block stored without a Block object cannot have changed, so
+	 * it only has to be in a cell that had one.
+	 */
+	private void clearIfChanged(int x, int y) {
+		final int i = Arrays.binarySearch(cells, y * width + x);
+		if (map.hasBlockObject(x, y)) {
+			final Block block = map.getBlock(x, y);
+			if (i < 0 || blocks[i] != block) {
+				map.removeBlock(block);
+			}
+		} else if (i < 0 || blocks[i] != null) {
+			map.setBlock(x, y, EmptyBlock.getInstance());
+		}
+	}
+}
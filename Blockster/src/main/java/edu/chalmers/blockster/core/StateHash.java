@@ -0,0 +1,91 @@
+package edu.chalmers.blockster.core;
+
+import edu.chalmers.blockster.core.objects.AbstractBlocksterObject;
+import edu.chalmers.blockster.core.objects.Block;
+import edu.chalmers.blockster.core.objects.BlockMap;
+import edu.chalmers.blockster.core.objects.Player;
+import edu.chalmers.blockster.core.objects.movement.AnimationState;
+import edu.chalmers.blockster.core.objects.movement.Direction;
+
+/**
+ * Computes a 64 bit hash of everything in a model that affects how it is
+ * simulated: the game state, the players, the blocks in the grid and the
+ * active blocks. Two models that have been run with the same input from the
+ * same map have the same hash, so the hash can be used to check that a
+ * simulation is deterministic.
+ *
+ * The cells of the grid and of the players are taken from the Zobrist hash
+ * of the model, which is kept up to date as it changes. Only the positions
+ * and movement of the players and of the blocks that are not at rest are
+ * added, so a checkpoint does not have to look at every cell.
+ */
+public final class StateHash {
+
+	private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	private StateHash() {
+		//This prevents instantiation via reflection.
+		throw new UnsupportedOperationException("Instantiation of StateHash "
+				+ "class is not allowed");
+	}
+
+	public static long of(Model model) {
+		long hash = mix(17, model.getZobristHash());
+
+		for (final Player player : model.getPlayers()) {
+			hash = mix(hash, hashObject(player));
+			hash = mix(hash, player.getWorld().ordinal());
+		}
+
+		/* A block at rest is covered by the Zobrist hash whether the map has
+		 * a Block object for it or not, so that maps storing blocks without
+		 * them hash the same. Summed, since the set has no order. */
+		final BlockMap map = model.getMap();
+		long moved = 0;
+		for (final Block block : map.getBlockObjects()) {
+			if (!isAtRest(block)) {
+				moved += hashBlock(block);
+			}
+		}
+		hash = mix(hash, moved);
+
+		/* Summed, so the order the blocks were activated in does not matter */
+		long active = 0;
+		for (final Block block : map.getActiveBlocks()) {
+			active += hashBlock(block);
+		}
+		return mix(hash, active);
+	}
+
+	/**
+	 * Check whether the block is as it was when the map was loaded, apart
+	 * from its cell and properties.
+	 */
+	private static boolean isAtRest(Block block) {
+		return block.getAnimationState() == AnimationState.NONE
+				&& block.getVelocity().x == 0 && block.getVelocity().y == 0
+				&& block.getDirection() == Direction.NONE && !block.isLifted();
+	}
+
+	private static long hashBlock(Block block) {
+		long hash = mix(hashObject(block), block.getProperties());
+		return mix(hash, block.isLifted() ? 1 : 0);
+	}
+
+	private static long hashObject(AbstractBlocksterObject object) {
+		long hash = mix(0, Float.floatToIntBits(object.getOriginX()));
+		hash = mix(hash, Float.floatToIntBits(object.getOriginY()));
+		hash = mix(hash, Float.floatToIntBits(object.getVelocity().x));
+		hash = mix(hash, Float.floatToIntBits(object.getVelocity().y));
+		hash = mix(hash, object.getDirection().ordinal());
+		hash = mix(hash, object.getAnimationState().getMovement().ordinal());
+		return mix(hash, Float.floatToIntBits(object.getAnimationState()
+				.getElapsedTime()));
+	}
+
+	private static long mix(long hash, long value) {
+		long h = (hash ^ value) * MULTIPLIER;
+		h ^= h >>> 29;
+		return h;
+	}
+}
@@ -0,0 +1,13 @@
+package edu.chalmers.blockster.core;
+
+/**
+ * Listens to the ticks of a FixedStepSimulator, e.g. to apply input once per
+ * tick.
+ */
+public interface TickListener {
+
+	void beforeTick(Model model);
+
+	void afterTick(Model model);
+
+}
@@ -0,0 +1,441 @@
+package edu.chalmers.blockster.core;
+
+import java.util.List;
+
+import edu.chalmers.blockster.core.objects.ActiveBlockListener;
+import edu.chalmers.blockster.core.objects.Block;
+import edu.chalmers.blockster.core.objects.BlockMap;
+import edu.chalmers.blockster.core.objects.BlockMapListener;
+import edu.chalmers.blockster.core.objects.Player;
+import edu.chalmers.blockster.core.objects.interactions.AbstractPlayerInteraction;
+import edu.chalmers.blockster.core.objects.movement.AnimationState;
+
+/**
+ * The moves made on a stage, so that they can be undone and redone. A move
+ * starts when a block leaves or enters the grid and ends when the stage has
+ * settled again, i.e. when no block is moving and no player is animated.
+ *
+ * Each move is stored as deltas: for every block it touched the cell it was
+ * in before and after it, and for every player that moved or took or let go
+ * of a block the position and the interaction with the held block before and
+ * after it. A player can still hold a block when the stage has settled, e.g.
+ * after pushing it, so the interaction is part of the state. The deltas are
+ * kept in a ring buffer that holds at most a given number of moves, dropping
+ * the oldest ones, so undoing a move only costs as much as the number of
+ * blocks and players it changed.
+ */
+public class UndoHistory implements BlockMapListener, ActiveBlockListener {
+
+	public static final int DEFAULT_DEPTH = 64;
+
+	private static final int ENTRIES_PER_MOVE = 4;
+	private static final long OUT_OF_GRID = Long.MIN_VALUE;
+
+	private final BlockMap map;
+	private final List<Player> players;
+	private final Player[] allPlayers;
+	private final long[] playerStart;
+	private final AbstractPlayerInteraction[] playerStartHeld;
+
+	/* Ring of deltas: the changed object with its state before and after */
+	private Object[] objects;
+	private long[] from;
+	private long[] to;
+
+	/* The interaction of a player before and after, null for a block */
+	private AbstractPlayerInteraction[] fromHeld;
+	private AbstractPlayerInteraction[] toHeld;
+	private int entryStart;
+	private int undoEntries;
+	private int redoEntries;
+	private int pendingEntries;
+
+	/* Ring of moves, the oldest first */
+	private final int[] moveSizes;
+	private int firstMove;
+	private int undoMoves;
+	private int redoMoves;
+
+	private boolean recording;
+	private boolean applying;
+
+	/**
+	 * @param map
+	 *            The map to record the changes of. The history must also be
+	 *            added as a listener to it.
+	 * @param players
+	 *            The live list of players of the stage
+	 * @param depth
+	 *            Most number of moves to remember
+	 */
+	public UndoHistory(BlockMap map, List<Player> players, int depth) {
+		if (depth <= 0) {
+			throw new IllegalArgumentException("Undo depth is " + depth
+					+ ". Must be positive.");
+		}
+		this.map = map;
+		this.players = players;
+		allPlayers = players.toArray(new Player[players.size()]);
+		playerStart = new long[allPlayers.length];
+		playerStartHeld = new AbstractPlayerInteraction[allPlayers.length];
+		rememberHeld();
+
+		final int capacity = depth * ENTRIES_PER_MOVE;
+		objects = new Object[capacity];
+		from = new long[capacity];
+		to = new long[capacity];
+		fromHeld = new AbstractPlayerInteraction[capacity];
+		toHeld = new AbstractPlayerInteraction[capacity];
+		moveSizes = new int[depth];
+	}
+
+	/**
+	 * Start listening to the map.
+	 */
+	public void attach() {
+		map.addListener(this);
+		map.addActiveBlockListener(this);
+	}
+
+	/**
+	 * Stop listening to the map.
+	 */
+	public void detach() {
+		map.removeListener(this);
+		map.removeActiveBlockListener(this);
+	}
+
+	/**
+	 * Forget every move, including the one being made.
+	 */
+	public void clear() {
+		entryStart = 0;
+		undoEntries = 0;
+		redoEntries = 0;
+		pendingEntries = 0;
+		firstMove = 0;
+		undoMoves = 0;
+		redoMoves = 0;
+		recording = false;
+		rememberHeld();
+	}
+
+	/**
+	 * End the move being made if the stage has settled. Called once every
+	 * update of the stage.
+	 */
+	public void update() {
+		if (recording && isSettled()) {
+			commit();
+		}
+		if (!recording) {
+			rememberHeld();
+		}
+	}
+
+	public boolean canUndo() {
+		return undoMoves > 0 || recording && isSettled();
+	}
+
+	public boolean canRedo() {
+		return redoMoves > 0 && !recording;
+	}
+
+	/**
+	 * Undo the last move. Players are put back where they were when the move
+	 * started, holding the block they held then.
+	 *
+	 * @return false if there was no move to undo or the stage is still
+	 *         moving.
+	 */
+	public boolean undo() {
+		if (!isSettled()) {
+			return false;
+		}
+		if (recording) {
+			commit();
+		}
+		if (undoMoves == 0) {
+			return false;
+		}
+
+		final int size = moveSizes[(firstMove + undoMoves - 1)
+				% moveSizes.length];
+		undoEntries -= size;
+		apply(undoEntries, size, true);
+		undoMoves--;
+		redoMoves++;
+		redoEntries += size;
+		return true;
+	}
+
+	/**
+	 * Redo the last undone move.
+	 *
+	 * @return false if there was no move to redo or a new move has been
+	 *         started since it was undone.
+	 */
+	public boolean redo() {
+		if (!canRedo() || !isSettled()) {
+			return false;
+		}
+
+		final int size = moveSizes[(firstMove + undoMoves) % moveSizes.length];
+		apply(undoEntries, size, false);
+		redoEntries -= size;
+		redoMoves--;
+		undoMoves++;
+		undoEntries += size;
+		return true;
+	}
+
+	/**
+	 * Get the number of moves that can be undone.
+	 */
+	public int getUndoMoves() {
+		return undoMoves;
+	}
+
+	/**
+	 * Get the number of moves that can be redone.
+	 */
+	public int getRedoMoves() {
+		return redoMoves;
+	}
+
+	@Override
+	public void blockInserted(Block block) {
+		record(block, OUT_OF_GRID);
+	}
+
+	@Override
+	public void blockRemoved(Block block) {
+		record(block, cellOf(block));
+	}
+
+	@Override
+	public void blockActivated(Block block) {
+		record(block, isInGrid(block) ? cellOf(block) : OUT_OF_GRID);
+	}
+
+	@Override
+	public void blockDeactivated(Block block) {
+		/* The block is inserted into the grid or falls on, so there is
+		 * nothing to record */
+	}
+
+	private boolean isSettled() {
+		if (!map.getActiveBlocks().isEmpty()) {
+			return false;
+		}
+		for (final Player player : players) {
+			if (player.getAnimationState() != AnimationState.NONE) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Record the state of a block before the move, the first time it is
+	 * changed by it.
+	 */
+	private void record(Block block, long before) {
+		if (applying) {
+			return;
+		}
+		if (!recording) {
+			begin();
+		}
+
+		for (int i = 0; i < pendingEntries; i++) {
+			if (objects[index(undoEntries + i)] == block) {
+				return;
+			}
+		}
+		add(block, before, before, null, null);
+	}
+
+	private void begin() {
+		/* A new move makes the undone ones impossible to redo */
+		redoEntries = 0;
+		redoMoves = 0;
+		pendingEntries = 0;
+		recording = true;
+
+		for (int i = 0; i < allPlayers.length; i++) {
+			playerStart[i] = positionOf(allPlayers[i]);
+		}
+	}
+
+	/**
+	 * Remember what the players hold while no move is being made. A player
+	 * takes or lets go of a block before the block is moved, so it is too
+	 * late to look when the move starts.
+	 */
+	private void rememberHeld() {
+		for (int i = 0; i < allPlayers.length; i++) {
+			playerStartHeld[i] = allPlayers[i].getInteraction();
+		}
+	}
+
+	private void commit() {
+		for (int i = 0; i < pendingEntries; i++) {
+			final int index = index(undoEntries + i);
+			final Block block = (Block) objects[index];
+			to[index] = isInGrid(block) ? cellOf(block) : OUT_OF_GRID;
+		}
+
+		for (int i = 0; i < allPlayers.length; i++) {
+			final long position = positionOf(allPlayers[i]);
+			final AbstractPlayerInteraction held = allPlayers[i].getInteraction();
+			if (position != playerStart[i] || held != playerStartHeld[i]) {
+				add(allPlayers[i], playerStart[i], position, playerStartHeld[i],
+						held);
+			}
+		}
+
+		if (undoMoves == moveSizes.length) {
+			dropOldestMove();
+		}
+		moveSizes[(firstMove + undoMoves) % moveSizes.length] = pendingEntries;
+		undoMoves++;
+		undoEntries += pendingEntries;
+		pendingEntries = 0;
+		recording = false;
+	}
+
+	private void add(Object object, long before, long after,
+			AbstractPlayerInteraction heldBefore,
+			AbstractPlayerInteraction heldAfter) {
+		while (undoEntries + pendingEntries == objects.length
+				&& undoMoves > 0) {
+			dropOldestMove();
+		}
+		if (undoEntries + pendingEntries == objects.length) {
+			/* A single move changed more than there is room for */
+			grow();
+		}
+
+		final int index = index(undoEntries + pendingEntries);
+		objects[index] = object;
+		from[index] = before;
+		to[index] = after;
+		fromHeld[index] = heldBefore;
+		toHeld[index] = heldAfter;
+		pendingEntries++;
+	}
+
+	private void dropOldestMove() {
+		final int size = moveSizes[firstMove];
+		entryStart = (entryStart + size) % objects.length;
+		undoEntries -= size;
+		firstMove = (firstMove + 1) % moveSizes.length;
+		undoMoves--;
+	}
+
+	private void grow() {
+		final int used = undoEntries + pendingEntries;
+		final Object[] newObjects = new Object[objects.length * 2];
+		final long[] newFrom = new long[newObjects.length];
+		final long[] newTo = new long[newObjects.length];
+		final AbstractPlayerInteraction[] newFromHeld =
+				new AbstractPlayerInteraction[newObjects.length];
+		final AbstractPlayerInteraction[] newToHeld =
+				new AbstractPlayerInteraction[newObjects.length];
+		for (int i = 0; i < used; i++) {
+			final int index = index(i);
+			newObjects[i] = objects[index];
+			newFrom[i] = from[index];
+			newTo[i] = to[index];
+			newFromHeld[i] = fromHeld[index];
+			newToHeld[i] = toHeld[index];
+		}
+		objects = newObjects;
+		from = newFrom;
+		to = newTo;
+		fromHeld = newFromHeld;
+		toHeld = newToHeld;
+		entryStart = 0;
+	}
+
+	/**
+	 * Put the objects of a move in the state they had before or after it.
+	 */
+	private void apply(int first, int size, boolean undo) {
+		applying = true;
+		try {
+			/* Make room first, so no block is inserted on top of another */
+			for (int i = 0; i < size; i++) {
+				final Object object = objects[index(first + i)];
+				if (object instanceof Block && isInGrid((Block) object)) {
+					map.removeBlock((Block) object);
+				}
+			}
+
+			for (int i = 0; i < size; i++) {
+				final int index = index(first + i);
+				final long state = undo ? from[index] : to[index];
+				if (objects[index] instanceof Block && state != OUT_OF_GRID) {
+					final Block block = (Block) objects[index];
+					block.reset(high(state), low(state));
+					map.insertBlock(block);
+				}
+			}
+
+			/* The players last, since resetting a block lets go of it */
+			for (int i = 0; i < size; i++) {
+				final int index = index(first + i);
+				if (objects[index] instanceof Player) {
+					final long state = undo ? from[index] : to[index];
+					final Player player = (Player) objects[index];
+					player.reset(0, 0);
+					player.setX(Float.intBitsToFloat(high(state)));
+					player.setY(Float.intBitsToFloat(low(state)));
+					player.capturePreviousPosition();
+					player.holdBlock(undo ? fromHeld[index] : toHeld[index]);
+				}
+			}
+			rememberHeld();
+		} finally {
+			applying = false;
+		}
+	}
+
+	private int index(int entry) {
+		return (entryStart + entry) % objects.length;
+	}
+
+	/**
+	 * Check whether the block is in the cell it stands on. Only that cell is
+	 * looked at, so no Block objects are made for the other blocks of a map
+	 * that stores them without.
+	 */
+	private boolean isInGrid(Block block) {
+		final int x = Math.round(block.getOriginX());
+		final int y = Math.round(block.getOriginY());
+		return map.hasBlockObject(x, y) && map.getBlock(x, y) == block;
+	}
+
+	private static long cellOf(Block block) {
+		return pack(Math.round(block.getOriginX()),
+				Math.round(block.getOriginY()));
+	}
+
+	private static long positionOf(Player player) {
+		return pack(Float.floatToIntBits(player.getOriginX()),
+				Float.floatToIntBits(player.getOriginY()));
+	}
+
+	private static long pack(int high, int low) {
+		return (long) high << 32 | (low & 0xFFFFFFFFL);
+	}
+
+	private static int high(long packed) {
+		return (int) (packed >> 32);
+	}
+
+	private static int low(long packed) {
+		return (int) packed;
+	}
+}
@@ -0,0 +1,462 @@
+package edu.chalmers.blockster.core.objects;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.chalmers.blockster.core.objects.movement.AnimationState;
+import edu.chalmers.blockster.core.objects.movement.Movement;
+import edu.chalmers.blockster.core.util.CollisionBitmap;
+import edu.chalmers.blockster.core.util.Zobrist;
+
+/**
+ * The storage independent parts of a BlockMap, i.e. listeners, active blocks,
+ * player starting positions, a bitmap of the solid cells and a Zobrist hash of
+ * the grid. Subclasses decide how the grid is stored.
+ */
+public abstract class AbstractBlockMap implements BlockMap {
+
+	private final List<Point> playerStartingPositions;
+	private final float blockWidth, blockHeight;
+
+	private final Set<Block> blocks;
+	private final Set<Block> blocksView;
+	private final ActiveBlockList activeBlocks;
+	private final List<BlockMapListener> listeners;
+	private final List<ActiveBlockListener> activeBlockListeners;
+	private final CollisionBitmap solidCells;
+	private long zobristHash;
+	private int revision;
+
+	/* Cells emptied since the last update, as x and y pairs */
+	private int[] emptiedCells;
+	private int emptiedCellsSize;
+	private final List<Block> releasedBlocks;
+
+	public AbstractBlockMap(int width, int height, float blockWidth,
+			float blockHeight, List<Point> playerStartingPositions) {
+		verifyMapMeasurements(width, height, blockWidth, blockHeight);
+		verifyPlayerStartingPositions(playerStartingPositions, width, height);
+
+		this.listeners = new ArrayList<BlockMapListener>();
+		this.activeBlockListeners = new ArrayList<ActiveBlockListener>();
+		this.blockWidth = blockWidth;
+		this.blockHeight = blockHeight;
+		this.playerStartingPositions = playerStartingPositions;
+
+		blocks = new HashSet<Block>();
+		blocksView = Collections.unmodifiableSet(blocks);
+		activeBlocks = new ActiveBlockList();
+		solidCells = new CollisionBitmap(width, height);
+		emptiedCells = new int[16];
+		releasedBlocks = new ArrayList<Block>();
+	}
+
+	/**
+	 * Keeps the index of blocks in the grid, the bitmap of solid cells and the
+	 * hash up to date. Subclasses must call this whenever a cell is set, also
+	 * when it is set to the block already in it.
+	 *
+	 * @param previous
+	 *            The block that was in the cell, or EmptyBlock.
+	 * @param block
+	 *            The block now in the cell, or EmptyBlock.
+	 */
+	protected final void cellChanged(int x, int y, Block previous, Block block) {
+		final boolean empty = block instanceof EmptyBlock;
+		solidCells.set(x, y, !empty && block.isSolid());
+
+		/* The block may have been hashed with properties it no longer has */
+		if (!(previous instanceof EmptyBlock)) {
+			zobristHash ^= Zobrist.cellKey(x, y, previous.hashedProperties);
+		}
+		if (!empty) {
+			block.hashedProperties = block.getProperties();
+			zobristHash ^= Zobrist.cellKey(x, y, block.hashedProperties);
+		}
+
+		if (previous == block) {
+			return;
+		}
+		if (!(previous instanceof EmptyBlock)) {
+			blocks.remove(previous);
+		}
+		if (!empty) {
+			blocks.add(block);
+		}
+	}
+
+	/**
+	 * Marks a cell as solid or not, for subclasses that store blocks without
+	 * a Block object.
+	 */
+	protected final void setSolid(int x, int y, boolean solid) {
+		solidCells.set(x, y, solid);
+	}
+
+	/**
+	 * Adds or removes a block that is stored without a Block object to or from
+	 * the hash, for subclasses that store blocks that way.
+	 */
+	protected final void toggleHash(int x, int y, long properties) {
+		zobristHash ^= Zobrist.cellKey(x, y, properties);
+	}
+
+	/**
+	 * Every block is a Block object, unless a subclass says otherwise.
+	 */
+	@Override
+	public boolean hasBlockObject(int x, int y) {
+		return hasBlock(x, y);
+	}
+
+	@Override
+	public long getCellProperties(int x, int y) {
+		return getBlock(x, y).getProperties();
+	}
+
+	/**
+	 * Get the Zobrist hash of the blocks in the grid, i.e. the XOR of the
+	 * keys of the properties of every block in its cell. It is updated with
+	 * every change of a cell, so this takes constant time.
+	 */
+	@Override
+	public long getZobristHash() {
+		return zobristHash;
+	}
+
+	/**
+	 * Compute the Zobrist hash of the grid from scratch, to verify the one
+	 * kept up to date.
+	 */
+	@Override
+	public long computeZobristHash() {
+		long hash = 0;
+		for (int x = 0; x < getWidth(); x++) {
+			for (int y = 0; y < getHeight(); y++) {
+				if (hasBlock(x, y)) {
+					hash ^= Zobrist.cellKey(x, y, getCellProperties(x, y));
+				}
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Re-reads the properties of the block if it is in the grid. Called by
+	 * the block when its properties change.
+	 */
+	@Override
+	public void refreshBlock(Block block) {
+		if (!blocks.contains(block)) {
+			return;
+		}
+
+		final int x = Math.round(block.getX());
+		final int y = Math.round(block.getY());
+		if (hasBlock(x, y) && getBlock(x, y) == block) {
+			setBlock(x, y, block);
+			revision++;
+		}
+	}
+
+	@Override
+	public int getRevision() {
+		return revision;
+	}
+
+	@Override
+	public void addActiveBlockListener(ActiveBlockListener listener) {
+		activeBlockListeners.add(listener);
+	}
+
+	@Override
+	public List<ActiveBlockListener> getActiveBlockListener(){
+		return activeBlockListeners;
+	}
+
+	@Override
+	public void removeActiveBlockListener(ActiveBlockListener listener) {
+		activeBlockListeners.remove(listener);
+	}
+
+	@Override
+	public void addListener(BlockMapListener listener) {
+		listeners.add(listener);
+	}
+
+	@Override
+	public List<BlockMapListener> getListeners(){
+		return listeners;
+	}
+
+	@Override
+	public void removeListener(BlockMapListener listener) {
+		listeners.remove(listener);
+	}
+
+	@Override
+	public void removeBlock(Block block) {
+		if (block == null ) {
+			throw new IllegalArgumentException("Block does not exist, cannot be removed.");
+		}
+
+		final int x = Math.round(block.getX());
+		final int y = Math.round(block.getY());
+		clearCell(x, y, block);
+
+		if (emptiedCellsSize == emptiedCells.length) {
+			emptiedCells = Arrays.copyOf(emptiedCells, emptiedCells.length * 2);
+		}
+		emptiedCells[emptiedCellsSize++] = x;
+		emptiedCells[emptiedCellsSize++] = y;
+	}
+
+	private void clearCell(int x, int y, Block block) {
+		setBlock(x, y, EmptyBlock.getInstance());
+		revision++;
+
+		for (final BlockMapListener listener : listeners) {
+			listener.blockRemoved(block);
+		}
+	}
+
+	/**
+	 * Let the blocks that rested on the cells emptied since the last update
+	 * fall. Only the columns above those cells are looked at, and the support
+	 * is checked first, so a cell that has been filled again, e.g. by
+	 * restoring the stage, lets nothing fall.
+	 */
+	private void releaseUnsupportedBlocks() {
+		for (int i = 0; i < emptiedCellsSize; i += 2) {
+			final int x = emptiedCells[i];
+			final int y = emptiedCells[i + 1];
+			if (hasBlock(x, y) && getBlock(x, y).isSolid()) {
+				continue;
+			}
+
+			/* The whole stack above the cell falls at once */
+			for (int stackY = y + 1; stackY < getHeight()
+					&& hasBlock(x, stackY); stackY++) {
+				final Block block = getBlock(x, stackY);
+				if (!block.hasWeight()) {
+					break;
+				}
+				releasedBlocks.add(block);
+			}
+			for (final Block block : releasedBlocks) {
+				block.startAnimation(Movement.FALL_DOWN);
+				clearCell(Math.round(block.getOriginX()),
+						Math.round(block.getOriginY()), block);
+			}
+			releasedBlocks.clear();
+		}
+		emptiedCellsSize = 0;
+	}
+
+	/**
+	 * Place a new Block object with the given properties in the cell.
+	 * Subclasses that can store a block without an object override this.
+	 */
+	@Override
+	public void placeBlock(int x, int y, long properties) {
+		final Block block = new Block(x, y, this);
+		block.setProperties(properties);
+		insertBlock(block);
+	}
+
+	@Override
+	public void insertBlock(Block block) {
+		if (block == null ) {
+			throw new IllegalArgumentException("Block does not exist, cannot be inserted.");
+		}
+
+		final int x = Math.round(block.getX());
+		final int y = Math.round(block.getY());
+		setBlock(x, y, block);
+		revision++;
+
+		for (final BlockMapListener listener : listeners) {
+			listener.blockInserted(block);
+		}
+	}
+
+	@Override
+	public float getBlockWidth() {
+		return blockWidth;
+	}
+
+	@Override
+	public float getBlockHeight() {
+		return blockHeight;
+	}
+
+	@Override
+	public boolean collisionAt(int x, int y) {
+		if (x < 0 || x >= getWidth()) {
+			return true;
+		}
+		if (y < 0 || y >= getHeight()) {
+			return true;
+		}
+
+		return solidCells.get(x, y);
+	}
+
+	/**
+	 * Check if there is a solid block in the given rectangle of cells. Both
+	 * corners are inclusive, and cells outside of the map are not solid.
+	 */
+	@Override
+	public boolean hasSolidBlockIn(int minX, int minY, int maxX, int maxY) {
+		return solidCells.anyInRect(minX, minY, maxX, maxY);
+	}
+
+	/**
+	 * Get the blocks currently in the grid. The set is a live, unmodifiable
+	 * view that is kept up to date as blocks are inserted and removed, so it
+	 * must be copied if the map is changed while iterating over it.
+	 */
+	@Override
+	public Set<Block> getBlocks() {
+		return blocksView;
+	}
+
+	@Override
+	public Set<Block> getBlockObjects() {
+		return blocksView;
+	}
+
+	/**
+	 * Get the blocks that are currently out of the grid and moving. The set is
+	 * a live, unmodifiable view.
+	 */
+	@Override
+	public Set<Block> getActiveBlocks() {
+		return activeBlocks;
+	}
+
+	@Override
+	public int getActiveBlockCount() {
+		return activeBlocks.size();
+	}
+
+	@Override
+	public Block getActiveBlock(int index) {
+		return activeBlocks.get(index);
+	}
+
+	@Override
+	public List<Point> getPlayerStartingPositions() {
+		return new ArrayList<Point>(playerStartingPositions);
+	}
+
+	@Override
+	public void updateActiveBlocks(float deltaTime) {
+		releaseUnsupportedBlocks();
+
+		/* Blocks activated or deactivated during the loop are applied after it */
+		activeBlocks.beginUpdate();
+		try {
+			for (int i = 0; i < activeBlocks.size(); i++) {
+				final Block block = activeBlocks.get(i);
+				final AnimationState anim = block.getAnimationState();
+				anim.updatePosition(deltaTime);
+				if (anim.isDone()) {
+					block.moveToNextPosition();
+					insertFinishedBlock(block);
+				}
+			}
+		} finally {
+			activeBlocks.endUpdate();
+		}
+	}
+
+	@Override
+	public void clearActiveBlocks() {
+		while (!activeBlocks.isEmpty()) {
+			final Block block = activeBlocks.get(activeBlocks.size() - 1);
+			activeBlocks.deactivate(block);
+
+			for (final ActiveBlockListener listener : activeBlockListeners) {
+				listener.blockDeactivated(block);
+			}
+		}
+	}
+
+	private void insertFinishedBlock(Block block) {
+		block.setAnimationState(AnimationState.NONE);
+		if (hasBlock((int) block.getX(), (int) (block.getY() - 1))) {
+			insertBlock(block);
+			activeBlocks.deactivate(block);
+
+			/* It stays put until it is activated again */
+			block.capturePreviousPosition();
+
+			for (final ActiveBlockListener listener : activeBlockListeners) {
+				listener.blockDeactivated(block);
+			}
+		} else {
+			block.fallDown();
+		}
+	}
+
+	private void verifyMapMeasurements(int width, int height, float blockWidth,
+			float blockHeight) {
+
+		final String posi = ". Must be positive.";
+
+		if (width <= 0) {
+			throw new IllegalArgumentException("Width of map is " + width +
+					posi);
+		}
+
+		if (height <= 0) {
+			throw new IllegalArgumentException("Height of map is "  + height +
+					posi);
+		}
+
+		if (blockWidth <= 0) {
+			throw new IllegalArgumentException("Width of blocks is " + blockWidth
+					+ posi);
+		}
+
+		if (blockHeight <= 0) {
+			throw new IllegalArgumentException("Height of blocks is " + blockHeight
+					+ posi);
+		}
+	}
+
+	private void verifyPlayerStartingPositions(List<Point> playerStartingPositions,
+			int mapWidth, int mapHeight) {
+
+		if (playerStartingPositions.isEmpty()) {
+			throw new IllegalArgumentException("There must be at least one player on the map");
+		}
+
+		for (final Point p : playerStartingPositions) {
+			if (p.x < 0 || p.x >= mapWidth) {
+				throw new IllegalArgumentException("Player is not on map (x-axis): "+p.x);
+			}
+			if (p.y < 0 || p.y >= mapHeight) {
+				throw new IllegalArgumentException("Player is not on map (y-axis): "+p.y);
+			}
+		}
+	}
+
+	@Override
+	public void addActiveBlock(Block block) {
+		if (block instanceof EmptyBlock) {
+			return;
+		}
+		activeBlocks.activate(block);
+
+		for (final ActiveBlockListener listener : activeBlockListeners) {
+			listener.blockActivated(block);
+		}
+	}
+}
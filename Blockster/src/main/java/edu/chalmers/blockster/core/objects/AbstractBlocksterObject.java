@@ -4,6 +4,7 @@ import javax.vecmath.Vector2f;
 
 import edu.chalmers.blockster.core.objects.movement.AnimationState;
 import edu.chalmers.blockster.core.objects.movement.Direction;
+import edu.chalmers.blockster.core.objects.movement.Movement;
 
 public abstract class AbstractBlocksterObject extends ScaledObject {
 
@@ -12,15 +13,23 @@ public abstract class AbstractBlocksterObject extends ScaledObject {
 	protected Vector2f defaultVelocity;
 	private Direction dir = Direction.NONE;
 	protected AnimationState anim;
+	/* Reused for every animation the object starts itself */
+	private final AnimationState animation;
 	protected BlockMap blockMap;
 	protected boolean directionChanged;
+	/* Where the object was drawn before the last update */
+	private float previousX;
+	private float previousY;
 
 	public AbstractBlocksterObject(float startX, float startY, BlockMap blockMap,
 			float scaleX, float scaleY) {
 		super(startX, startY, scaleX, scaleY);
 		this.blockMap = blockMap;
 		anim = AnimationState.NONE;
+		animation = new AnimationState(Movement.NONE);
 		velocity = new Vector2f(0, 0);
+		previousX = getOriginX();
+		previousY = getOriginY();
 	}
 
 	/**
@@ -54,6 +63,32 @@ public abstract class AbstractBlocksterObject extends ScaledObject {
 		return super.getY();
 	}
 
+	/**
+	 * Get the x coordinate the object had when its previous position was
+	 * captured.
+	 */
+	public float getPreviousX() {
+		return previousX;
+	}
+
+	public float getPreviousY() {
+		return previousY;
+	}
+
+	/**
+	 * Get the x coordinate between the previous and the current position.
+	 * 
+	 * @param alpha
+	 *            How far to go from the previous position, in [0, 1]
+	 */
+	public float getInterpolatedX(float alpha) {
+		return previousX + (getX() - previousX) * alpha;
+	}
+
+	public float getInterpolatedY(float alpha) {
+		return previousY + (getY() - previousY) * alpha;
+	}
+
 	public Vector2f getVelocity() {
 		return velocity;
 	}
@@ -62,14 +97,14 @@ public abstract class AbstractBlocksterObject extends ScaledObject {
 		// If there is an animation currently running then
 		// we want to return the relative position
 		if (anim != AnimationState.NONE) {
-			return getOriginX() + anim.getRelativePosition().x * getScaleX();
+			return getOriginX() + anim.getRelativeX() * getScaleX();
 		}
 		return getOriginX();
 	}
 
 	public float getY() {
 		if (anim != AnimationState.NONE) {
-			return getOriginY() + anim.getRelativePosition().y * getScaleY();
+			return getOriginY() + anim.getRelativeY() * getScaleY();
 		}
 		return getOriginY();
 	}
@@ -87,6 +122,36 @@ public abstract class AbstractBlocksterObject extends ScaledObject {
 										direction.getDeltaY() * scaleY);
 	}
 
+	/**
+	 * Put the object at the given position, standing still and without an
+	 * animation, as if it had just been created there.
+	 *
+	 * @param x
+	 *            X coordinate in blocks
+	 * @param y
+	 *            Y coordinate in blocks
+	 */
+	public void reset(float x, float y) {
+		setX(x * getScaleX());
+		setY(y * getScaleY());
+		anim = AnimationState.NONE;
+		velocity.set(0, 0);
+		totalTime = 0;
+		dir = Direction.NONE;
+		directionChanged = false;
+		capturePreviousPosition();
+	}
+
+	/**
+	 * Remember the current position, including the animation, as the
+	 * previous one. Called before every update of the model, so that the
+	 * object can be drawn between the last two updates.
+	 */
+	public void capturePreviousPosition() {
+		previousX = getX();
+		previousY = getY();
+	}
+
 	public void resetGravity() {
 		totalTime = 0;
 	}
@@ -97,6 +162,21 @@ public abstract class AbstractBlocksterObject extends ScaledObject {
 		}
 	}
 
+	/**
+	 * Start animating the given movement, unless an animation is already
+	 * running. The object reuses the same animation state every time instead
+	 * of creating a new one.
+	 * 
+	 * @param movement
+	 *            Movement to animate
+	 */
+	public void startAnimation(Movement movement) {
+		if (anim.isDone()) {
+			animation.restart(movement);
+			setAnimationState(animation);
+		}
+	}
+
 	public void setDefaultVelocity(Direction dir) {
 		final Vector2f vel = getVelocity();
 		setVelocityX(vel.x + dir.getDeltaX() * defaultVelocity.x);
@@ -0,0 +1,153 @@
+package edu.chalmers.blockster.core.objects;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An array backed set of the active blocks of a map. While the blocks are
+ * being updated, activations and deactivations are queued and applied when
+ * the update ends, so the array never has to be copied to be iterated over.
+ * Apart from growing the arrays, nothing is allocated.
+ *
+ * The set itself can't be modified through the Set methods, it is meant to be
+ * handed out as a read only view.
+ */
+final class ActiveBlockList extends AbstractSet<Block> {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private Block[] blocks;
+	private int size;
+	private Block[] pending;
+	private int pendingSize;
+	private boolean updating;
+
+	public ActiveBlockList() {
+		blocks = new Block[INITIAL_CAPACITY];
+		pending = new Block[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Make the block active. If the blocks are being updated, this takes
+	 * effect when the update ends.
+	 */
+	public void activate(Block block) {
+		block.activeWanted = true;
+		request(block);
+	}
+
+	/**
+	 * Make the block inactive. If the blocks are being updated, this takes
+	 * effect when the update ends.
+	 */
+	public void deactivate(Block block) {
+		block.activeWanted = false;
+		request(block);
+	}
+
+	/**
+	 * Start an update. Until endUpdate() is called, get(int) and size()
+	 * are not affected by activations and deactivations.
+	 */
+	public void beginUpdate() {
+		updating = true;
+	}
+
+	/**
+	 * End an update and apply the queued activations and deactivations.
+	 */
+	public void endUpdate() {
+		updating = false;
+		for (int i = 0; i < pendingSize; i++) {
+			final Block block = pending[i];
+			pending[i] = null;
+			block.activeQueued = false;
+			apply(block);
+		}
+		pendingSize = 0;
+	}
+
+	public Block get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return blocks[index];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (!(o instanceof Block)) {
+			return false;
+		}
+		final int index = ((Block) o).activeIndex;
+		return index >= 0 && index < size && blocks[index] == o;
+	}
+
+	@Override
+	public Iterator<Block> iterator() {
+		return new Iterator<Block>() {
+			private int next;
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public Block next() {
+				if (next >= size) {
+					throw new NoSuchElementException();
+				}
+				return blocks[next++];
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("The active blocks "
+						+ "can only be changed through the map");
+			}
+		};
+	}
+
+	private void request(Block block) {
+		if (!updating) {
+			apply(block);
+		} else if (!block.activeQueued) {
+			if (pendingSize == pending.length) {
+				pending = grow(pending);
+			}
+			pending[pendingSize++] = block;
+			block.activeQueued = true;
+		}
+	}
+
+	private void apply(Block block) {
+		final boolean active = contains(block);
+		if (block.activeWanted && !active) {
+			if (size == blocks.length) {
+				blocks = grow(blocks);
+			}
+			block.activeIndex = size;
+			blocks[size++] = block;
+		} else if (!block.activeWanted && active) {
+			final int index = block.activeIndex;
+			final Block last = blocks[--size];
+			blocks[index] = last;
+			last.activeIndex = index;
+			blocks[size] = null;
+			block.activeIndex = -1;
+		}
+	}
+
+	private static Block[] grow(Block[] array) {
+		final Block[] grown = new Block[array.length * 2];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+}
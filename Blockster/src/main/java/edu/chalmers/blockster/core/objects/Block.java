@@ -1,9 +1,5 @@
 package edu.chalmers.blockster.core.objects;
 
-import java.util.Locale;
-import java.util.Set;
-import java.util.TreeSet;
-
 import edu.chalmers.blockster.core.objects.interactions.AbstractPlayerInteraction;
 import edu.chalmers.blockster.core.objects.interactions.Interactable;
 import edu.chalmers.blockster.core.objects.interactions.Interactor;
@@ -15,15 +11,22 @@ import edu.chalmers.blockster.core.util.GridObject;
 public class Block extends AbstractBlocksterObject implements GridObject,
 		Interactable {
 
-	private final Set<String> properties;
+	private long properties;
 
 	private AbstractPlayerInteraction interaction;
 
 	private boolean lifted;
 
+	/* Bookkeeping for the ActiveBlockList of the map */
+	int activeIndex = -1;
+	boolean activeWanted;
+	boolean activeQueued;
+
+	/* The properties the block was added to the hash of the map with */
+	long hashedProperties;
+
 	public Block(float startX, float startY, BlockMap blockLayer) {
 		super(startX, startY, blockLayer, 1, 1);
-		properties = new TreeSet<String>();
 		lifted = false;
 	}
 
@@ -61,12 +64,11 @@ public class Block extends AbstractBlocksterObject implements GridObject,
 			if (isLifted()) {
 				final Interactor interactor = getInteraction().getInteractor();
 				if (!interactor.collisionBeneathNext(Direction.NONE)) {
-					interactor.setAnimationState(new AnimationState(
-							Movement.FALL_DOWN));
-					setAnimationState(new AnimationState(Movement.FALL_DOWN));
+					interactor.startAnimation(Movement.FALL_DOWN);
+					startAnimation(Movement.FALL_DOWN);
 				}
 			} else {
-				setAnimationState(new AnimationState(Movement.FALL_DOWN));
+				startAnimation(Movement.FALL_DOWN);
 			}
 		}
 	}
@@ -77,12 +79,12 @@ public class Block extends AbstractBlocksterObject implements GridObject,
 
 	@Override
 	public boolean hasWeight() {
-		return properties.contains("weight");
+		return (properties & BlockProperties.WEIGHT) != 0;
 	}
 
 	@Override
 	public boolean isLiftable() {
-		return properties.contains("liftable");
+		return (properties & BlockProperties.LIFTABLE) != 0;
 	}
 
 	public boolean isLifted() {
@@ -91,16 +93,23 @@ public class Block extends AbstractBlocksterObject implements GridObject,
 
 	@Override
 	public boolean isMovable() {
-		return properties.contains("movable");
+		return (properties & BlockProperties.MOVABLE) != 0;
 	}
 
 	@Override
 	public boolean isSolid() {
-		return properties.contains("solid");
+		return (properties & BlockProperties.SOLID) != 0;
 	}
 
 	public boolean isTeleporter() {
-		return properties.contains("teleporter");
+		return (properties & BlockProperties.TELEPORTER) != 0;
+	}
+
+	@Override
+	public void reset(float x, float y) {
+		super.reset(x, y);
+		lifted = false;
+		interaction = null;
 	}
 
 	public void removeFromGrid() {
@@ -108,7 +117,11 @@ public class Block extends AbstractBlocksterObject implements GridObject,
 	}
 
 	public boolean removeProperty(String string) {
-		return properties.remove(string.toLowerCase(Locale.ENGLISH));
+		final long bit = BlockProperties.bitOf(string);
+		final boolean hadProperty = (properties & bit) != 0;
+		properties &= ~bit;
+		propertiesChanged();
+		return hadProperty;
 	}
 
 	@Override
@@ -127,8 +140,40 @@ public class Block extends AbstractBlocksterObject implements GridObject,
 		this.lifted = lifted;
 	}
 
+	/**
+	 * Replace all properties of the block.
+	 *
+	 * @param mask
+	 *            A mask of BlockProperties bits
+	 */
+	public void setProperties(long mask) {
+		if (properties != mask) {
+			properties = mask;
+			propertiesChanged();
+		}
+	}
+
 	public void setProperty(String property) {
-		properties.add(property.toLowerCase(Locale.ENGLISH));
+		properties |= BlockProperties.bitOf(property);
+		propertiesChanged();
+	}
+
+	/**
+	 * Get the properties of the block as a mask of BlockProperties bits.
+	 * @return A long mask
+	 */
+	public long getProperties() {
+		return properties;
+	}
+
+	void addProperties(long mask) {
+		properties |= mask;
+	}
+
+	private void propertiesChanged() {
+		if (blockMap != null) {
+			blockMap.refreshBlock(this);
+		}
 	}
 
 	public boolean canBeLifted() {
@@ -23,6 +23,8 @@ public interface BlockMap extends GridMap{
 	/**
 	 * Replaces the specific block with an empty block in the block map, i.e.
 	 * removes a block. Alerts the listeners that a block has been removed.
+	 * The weighted blocks resting on it start to fall on the next update of
+	 * the active blocks, unless the cell has been filled again by then.
 	 * 
 	 * @param block
 	 *            The block that is to be removed.
@@ -38,6 +40,21 @@ public interface BlockMap extends GridMap{
 	 */
 	void insertBlock(Block block);
 
+	/**
+	 * Place a block with the given properties at the given coordinates, for
+	 * filling the map when it is created. Maps that can store a block
+	 * without a Block object do so until the cell is asked for, and do not
+	 * alert the listeners then.
+	 * 
+	 * @param x
+	 *            X coordinate
+	 * @param y
+	 *            Y coordinate
+	 * @param properties
+	 *            A mask of BlockProperties bits
+	 */
+	void placeBlock(int x, int y, long properties);
+
 	/**
 	 * Get the width of the block in pixels.
 	 * 
@@ -99,10 +116,65 @@ public interface BlockMap extends GridMap{
 	 */
 	boolean hasBlock(int x, int y);
 
+	/**
+	 * Check to see if the block at the given coordinates is a Block object
+	 * already, so that getBlock does not have to create one for it.
+	 * 
+	 * @param x
+	 *            X coordinate to check
+	 * @param y
+	 *            Y coordinate to check
+	 * @return True if there is a Block object at (x,y), otherwise false.
+	 */
+	boolean hasBlockObject(int x, int y);
+
+	/**
+	 * Get the properties of the block at the given coordinates without
+	 * creating a Block object for it.
+	 * 
+	 * @param x
+	 *            X coordinate
+	 * @param y
+	 *            Y coordinate
+	 * @return A mask of BlockProperties bits, 0 if there is no block.
+	 */
+	long getCellProperties(int x, int y);
+
+	/**
+	 * Get the blocks currently in the grid, i.e. not the empty cells.
+	 * 
+	 * @return An unmodifiable set that follows changes to the map.
+	 */
 	Set<Block> getBlocks();
 
+	/**
+	 * Get the Block objects currently in the grid. Unlike getBlocks, blocks
+	 * that the map stores without a Block object are left out.
+	 * 
+	 * @return An unmodifiable set that follows changes to the map.
+	 */
+	Set<Block> getBlockObjects();
+
 	Set<Block> getActiveBlocks();
 
+	/**
+	 * Get the number of active blocks. Together with getActiveBlock, this
+	 * lets the active blocks be looped over without creating an iterator.
+	 * 
+	 * @return The size of getActiveBlocks()
+	 */
+	int getActiveBlockCount();
+
+	/**
+	 * Get an active block by its index. The index of a block changes when
+	 * other blocks are deactivated.
+	 * 
+	 * @param index
+	 *            In [0, getActiveBlockCount())
+	 * @return An active block
+	 */
+	Block getActiveBlock(int index);
+
 	/**
 	 * Get a float array of the player starting positions in the map. They are
 	 * structured as such: float[playerNo][n] where n:0 = X coordinate, n:1 = Y
@@ -116,6 +188,30 @@ public interface BlockMap extends GridMap{
 
 	void addActiveBlock(Block block);
 
+	/**
+	 * Make every active block inactive without putting it back in the grid.
+	 * Alerts the active block listeners for every block.
+	 */
+	void clearActiveBlocks();
+
 	boolean collisionAt(int checkX, int checkY);
 
+	/**
+	 * Update the map after the properties of a block have changed. Does
+	 * nothing if the block is not in the grid.
+	 */
+	void refreshBlock(Block block);
+
+	/**
+	 * Get the Zobrist hash of the blocks in the grid. It is kept up to date as
+	 * the grid changes.
+	 */
+	long getZobristHash();
+
+	/**
+	 * Compute the Zobrist hash of the grid from scratch. Should always be
+	 * equal to getZobristHash().
+	 */
+	long computeZobristHash();
+
 }
\ No newline at end of file
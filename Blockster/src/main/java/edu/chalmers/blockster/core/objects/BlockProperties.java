@@ -0,0 +1,56 @@
+package edu.chalmers.blockster.core.objects;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The block property names found in the TMX files, as bits in a long mask.
+ * Only the properties the game itself cares about have a bit, and it is
+ * always the same one, so masks and the hashes made from them never depend
+ * on which names were seen first. Any other name is ignored.
+ *
+ * Property names are case insensitive, as they were when blocks kept them
+ * as lowercased strings, since the maps spell them both ways.
+ */
+public final class BlockProperties {
+
+	public static final long SOLID = 1L << 0;
+	public static final long WEIGHT = 1L << 1;
+	public static final long MOVABLE = 1L << 2;
+	public static final long LIFTABLE = 1L << 3;
+	public static final long TELEPORTER = 1L << 4;
+
+	private static final Map<String, Long> BITS;
+
+	static {
+		final Map<String, Long> bits = new HashMap<String, Long>();
+		bits.put("solid", SOLID);
+		bits.put("weight", WEIGHT);
+		bits.put("movable", MOVABLE);
+		bits.put("liftable", LIFTABLE);
+		bits.put("teleporter", TELEPORTER);
+		BITS = Collections.unmodifiableMap(bits);
+	}
+
+	private BlockProperties() {
+		//This prevents instantiation via reflection.
+		throw new UnsupportedOperationException("Instantiation of BlockProperties "
+				+ "class is not allowed");
+	}
+
+	/**
+	 * Get the bit of the given property. The name is only looked up, so any
+	 * number of unknown names can be asked for.
+	 *
+	 * @param property
+	 *            A property name
+	 * @return A long with exactly one bit set, or 0 if the property is not
+	 *         one the game knows.
+	 */
+	public static long bitOf(String property) {
+		final Long bit = BITS.get(property.toLowerCase(Locale.ENGLISH));
+		return bit == null ? 0 : bit;
+	}
+}
@@ -0,0 +1,132 @@
+package edu.chalmers.blockster.core.objects;
+
+import java.awt.Point;
+import java.util.List;
+
+/**
+ * A BlockMap dividing the grid into square chunks that are only allocated
+ * when a block is written to them. All empty chunks are represented by the
+ * same null entry, so memory use follows the occupied area of the map rather
+ * than its size.
+ */
+public class ChunkedBlockMap extends AbstractBlockMap {
+
+	/* Chunks are CHUNK_SIZE x CHUNK_SIZE cells */
+	private static final int CHUNK_SHIFT = 5;
+	public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private final int width;
+	private final int height;
+	private final int chunksWide;
+	private final Chunk[] chunks;
+	private int allocatedChunks;
+
+	private static final class Chunk {
+		private final Block[] blocks = new Block[CHUNK_SIZE * CHUNK_SIZE];
+		private int count;
+	}
+
+	public ChunkedBlockMap(int width, int height, float blockWidth,
+			float blockHeight, List<Point> playerStartingPositions) {
+		super(width, height, blockWidth, blockHeight, playerStartingPositions);
+
+		this.width = width;
+		this.height = height;
+		chunksWide = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+		final int chunksHigh = (height + CHUNK_MASK) >> CHUNK_SHIFT;
+		chunks = new Chunk[chunksWide * chunksHigh];
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	private boolean isInside(int x, int y) {
+		return x >= 0 && x < width && y >= 0 && y < height;
+	}
+
+	private int chunkIndex(int x, int y) {
+		return (y >> CHUNK_SHIFT) * chunksWide + (x >> CHUNK_SHIFT);
+	}
+
+	private static int cellIndex(int x, int y) {
+		return ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+	}
+
+	@Override
+	public void setBlock(int x, int y, Block block) {
+		if (!isInside(x, y)) {
+			return;
+		}
+
+		final int chunkIndex = chunkIndex(x, y);
+		final int cellIndex = cellIndex(x, y);
+		Chunk chunk = chunks[chunkIndex];
+
+		if (block instanceof EmptyBlock) {
+			if (chunk != null && chunk.blocks[cellIndex] != null) {
+				cellChanged(x, y, chunk.blocks[cellIndex], block);
+				chunk.blocks[cellIndex] = null;
+				chunk.count--;
+				if (chunk.count == 0) {
+					chunks[chunkIndex] = null;
+					allocatedChunks--;
+				}
+			}
+			return;
+		}
+
+		if (chunk == null) {
+			chunk = new Chunk();
+			chunks[chunkIndex] = chunk;
+			allocatedChunks++;
+		}
+		final Block previous = chunk.blocks[cellIndex];
+		if (previous == null) {
+			chunk.count++;
+			cellChanged(x, y, EmptyBlock.getInstance(), block);
+		} else {
+			cellChanged(x, y, previous, block);
+		}
+		chunk.blocks[cellIndex] = block;
+	}
+
+	@Override
+	public Block getBlock(int x, int y) {
+		if (!isInside(x, y)) {
+			return EmptyBlock.getInstance();
+		}
+
+		final Chunk chunk = chunks[chunkIndex(x, y)];
+		if (chunk == null) {
+			return EmptyBlock.getInstance();
+		}
+
+		final Block block = chunk.blocks[cellIndex(x, y)];
+		return block == null ? EmptyBlock.getInstance() : block;
+	}
+
+	@Override
+	public boolean hasBlock(int x, int y) {
+		if (!isInside(x, y)) {
+			return false;
+		}
+
+		final Chunk chunk = chunks[chunkIndex(x, y)];
+		return chunk != null && chunk.blocks[cellIndex(x, y)] != null;
+	}
+
+	/**
+	 * Get the number of chunks that currently hold at least one block.
+	 */
+	public int getAllocatedChunks() {
+		return allocatedChunks;
+	}
+}
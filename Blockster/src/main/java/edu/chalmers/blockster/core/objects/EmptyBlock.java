@@ -1,7 +1,17 @@
 package edu.chalmers.blockster.core.objects;
 
+import javax.vecmath.Vector2f;
+
+import edu.chalmers.blockster.core.objects.interactions.AbstractPlayerInteraction;
 import edu.chalmers.blockster.core.objects.movement.AnimationState;
+import edu.chalmers.blockster.core.objects.movement.Direction;
+import edu.chalmers.blockster.core.objects.movement.Movement;
 
+/**
+ * The block in every empty cell. There is only one instance, shared by all
+ * maps, so it must never change. Every method that would change it does
+ * nothing.
+ */
 public final class EmptyBlock extends Block {
 	private static volatile EmptyBlock instance;
 	
@@ -27,4 +37,114 @@ public final class EmptyBlock extends Block {
 	public void setAnimationState(AnimationState state) {
 		//DO NOTHING!!
 	}
-}
\ No newline at end of file
+
+	@Override
+	public void startAnimation(Movement movement) {
+		//DO NOTHING!!
+	}
+
+	@Override
+	public void capturePreviousPosition() {
+		// DO NOTHING!
+	}
+
+	@Override
+	public void fallDown() {
+		// DO NOTHING!
+	}
+
+	@Override
+	public Vector2f getVelocity() {
+		return new Vector2f(0, 0);
+	}
+
+	@Override
+	public void increaseGravity(float deltaTime) {
+		// DO NOTHING!
+	}
+
+	@Override
+	public void moveToNextPosition() {
+		// DO NOTHING!
+	}
+
+	@Override
+	public void resetGravity() {
+		// DO NOTHING!
+	}
+
+	@Override
+	public boolean removeProperty(String string) {
+		return false;
+	}
+
+	@Override
+	public void setDefaultVelocity(Direction dir) {
+		// DO NOTHING!
+	}
+
+	@Override
+	public void setDirection(Direction dir) {
+		// DO NOTHING!
+	}
+
+	@Override
+	public void setHeight(float height) {
+		// DO NOTHING!
+	}
+
+	@Override
+	public void setInteraction(AbstractPlayerInteraction interaction) {
+		// DO NOTHING!
+	}
+
+	@Override
+	public void setLifted(boolean lifted) {
+		// DO NOTHING!
+	}
+
+	@Override
+	public void setProperty(String property) {
+		// DO NOTHING!
+	}
+
+	@Override
+	public void setProperties(long mask) {
+		// DO NOTHING!
+	}
+
+	@Override
+	void addProperties(long mask) {
+		// DO NOTHING!
+	}
+
+	@Override
+	public void reset(float x, float y) {
+		// DO NOTHING!
+	}
+
+	@Override
+	public void setVelocityX(float velocityX) {
+		// DO NOTHING!
+	}
+
+	@Override
+	public void setVelocityY(float velocityY) {
+		// DO NOTHING!
+	}
+
+	@Override
+	public void setWidth(float width) {
+		// DO NOTHING!
+	}
+
+	@Override
+	public void setX(float posX) {
+		// DO NOTHING!
+	}
+
+	@Override
+	public void setY(float posY) {
+		// DO NOTHING!
+	}
+}
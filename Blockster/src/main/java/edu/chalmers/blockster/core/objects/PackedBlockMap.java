@@ -0,0 +1,268 @@
+package edu.chalmers.blockster.core.objects;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A BlockMap storing the grid as a single row-major int array. Each cell holds
+ * the low BlockProperties bits of its block and, once the block has been asked
+ * for, the index of the materialised Block object. Cells that are never
+ * touched by an interaction never get a Block object of their own.
+ *
+ * The HeadlessFactory fills its maps this way. The GdxFactory does not, since
+ * every tile has a view that needs a Block object anyway.
+ */
+public class PackedBlockMap extends AbstractBlockMap {
+
+	private static final int PROPERTY_MASK = 0x7F;
+	private static final int OCCUPIED = 1 << 7;
+	private static final int INDEX_SHIFT = 8;
+	private static final int MAX_INDEX = (1 << (32 - INDEX_SHIFT)) - 1;
+
+	private final int width;
+	private final int height;
+	private final int[] cells;
+
+	/* Index 0 in the cells is reserved for "not materialised". The index of a
+	 * block is freed, and the block let go of, once no cell holds it, so that
+	 * blocks moving around never use up the indices. */
+	private final List<Block> materialised;
+	private final Map<Block, Integer> indices;
+	private int[] cellCounts;
+	private int[] freeIndices;
+	private int freeCount;
+	private int unmaterialisedCount;
+
+	public PackedBlockMap(int width, int height, float blockWidth,
+			float blockHeight, List<Point> playerStartingPositions) {
+		super(width, height, blockWidth, blockHeight, playerStartingPositions);
+
+		this.width = width;
+		this.height = height;
+		cells = new int[width * height];
+		materialised = new ArrayList<Block>();
+		indices = new HashMap<Block, Integer>();
+		cellCounts = new int[16];
+		freeIndices = new int[16];
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	private boolean isInside(int x, int y) {
+		return x >= 0 && x < width && y >= 0 && y < height;
+	}
+
+	/**
+	 * Place a block described only by its property bits at the given
+	 * coordinates. No Block object is created until the cell is asked for,
+	 * unless the properties do not fit in a cell.
+	 *
+	 * @param x
+	 *            X coordinate
+	 * @param y
+	 *            Y coordinate
+	 * @param properties
+	 *            A mask of BlockProperties bits. Only the first seven bits
+	 *            can be stored without a Block object.
+	 */
+	@Override
+	public void placeBlock(int x, int y, long properties) {
+		if ((properties & ~PROPERTY_MASK) != 0) {
+			super.placeBlock(x, y, properties);
+		} else if (isInside(x, y)) {
+			final Block previous = clearCell(y * width + x);
+			cellChanged(x, y, previous, EmptyBlock.getInstance());
+			cells[y * width + x] = (int) properties | OCCUPIED;
+			setSolid(x, y, (properties & BlockProperties.SOLID) != 0);
+			toggleHash(x, y, properties);
+			unmaterialisedCount++;
+		}
+	}
+
+	/**
+	 * Get the properties of the block at the given coordinates.
+	 *
+	 * @return A mask of BlockProperties bits, or 0 if there is no block.
+	 */
+	public long getProperties(int x, int y) {
+		if (!isInside(x, y)) {
+			return 0;
+		}
+		final int cell = cells[y * width + x];
+		final int index = cell >>> INDEX_SHIFT;
+		if (index != 0) {
+			return materialised.get(index - 1).getProperties();
+		}
+		return cell & PROPERTY_MASK;
+	}
+
+	@Override
+	public void setBlock(int x, int y, Block block) {
+		if (!isInside(x, y)) {
+			return;
+		}
+
+		final int i = y * width + x;
+		final int index = cells[i] >>> INDEX_SHIFT;
+		if (index != 0 && materialised.get(index - 1) == block) {
+			/* Only the properties of the block can have changed */
+			cells[i] = (index << INDEX_SHIFT)
+					| ((int) block.getProperties() & PROPERTY_MASK) | OCCUPIED;
+			cellChanged(x, y, block, block);
+			return;
+		}
+
+		final Block previous = clearCell(i);
+		if (!(block instanceof EmptyBlock)) {
+			cells[i] = (acquireIndex(block) << INDEX_SHIFT)
+					| ((int) block.getProperties() & PROPERTY_MASK) | OCCUPIED;
+		}
+		cellChanged(x, y, previous, block);
+	}
+
+	/**
+	 * Empties the cell at the given index.
+	 *
+	 * @return The materialised block that was in the cell, or EmptyBlock.
+	 */
+	private Block clearCell(int i) {
+		final int cell = cells[i];
+		cells[i] = 0;
+
+		final int index = cell >>> INDEX_SHIFT;
+		if (index != 0) {
+			final Block block = materialised.get(index - 1);
+			releaseIndex(index);
+			return block;
+		}
+		if (cell != 0) {
+			unmaterialisedCount--;
+			toggleHash(i % width, i / width, cell & PROPERTY_MASK);
+		}
+		return EmptyBlock.getInstance();
+	}
+
+	@Override
+	public long getCellProperties(int x, int y) {
+		return getProperties(x, y);
+	}
+
+	@Override
+	public boolean hasBlockObject(int x, int y) {
+		return isInside(x, y) && cells[y * width + x] >>> INDEX_SHIFT != 0;
+	}
+
+	@Override
+	public Block getBlock(int x, int y) {
+		if (!isInside(x, y)) {
+			return EmptyBlock.getInstance();
+		}
+
+		final int cell = cells[y * width + x];
+		if (cell == 0) {
+			return EmptyBlock.getInstance();
+		}
+
+		final int index = cell >>> INDEX_SHIFT;
+		if (index == 0) {
+			return materialise(x, y, cell);
+		}
+		return materialised.get(index - 1);
+	}
+
+	@Override
+	public boolean hasBlock(int x, int y) {
+		return isInside(x, y) && cells[y * width + x] != 0;
+	}
+
+	/**
+	 * Get all blocks in the map. Note that if some cells have not been
+	 * materialised yet, they are all materialised by this call, which undoes
+	 * the packing. Look at the cells with hasBlock and getBlock instead
+	 * wherever that matters.
+	 */
+	@Override
+	public Set<Block> getBlocks() {
+		for (int i = 0; i < cells.length && unmaterialisedCount > 0; i++) {
+			if (cells[i] != 0 && cells[i] >>> INDEX_SHIFT == 0) {
+				materialise(i % width, i / width, cells[i]);
+			}
+		}
+		return super.getBlocks();
+	}
+
+	/**
+	 * Get the number of Block objects held by the cells.
+	 */
+	public int getMaterialisedCount() {
+		return materialised.size() - freeCount;
+	}
+
+	private Block materialise(int x, int y, int cell) {
+		final Block block = new Block(x, y, this);
+		block.addProperties(cell & PROPERTY_MASK);
+		cells[y * width + x] = (acquireIndex(block) << INDEX_SHIFT) | cell;
+		unmaterialisedCount--;
+		/* The block takes over the key of the cell in the hash */
+		toggleHash(x, y, cell & PROPERTY_MASK);
+		cellChanged(x, y, EmptyBlock.getInstance(), block);
+		return block;
+	}
+
+	/**
+	 * Get the index of a block that is put in a cell, giving it one if it
+	 * has none.
+	 */
+	private int acquireIndex(Block block) {
+		Integer index = indices.get(block);
+		if (index == null) {
+			if (freeCount > 0) {
+				index = freeIndices[--freeCount];
+				materialised.set(index - 1, block);
+			} else {
+				if (materialised.size() >= MAX_INDEX) {
+					throw new IllegalStateException("Too many materialised blocks: "
+							+ materialised.size());
+				}
+				materialised.add(block);
+				index = materialised.size();
+				if (index > cellCounts.length) {
+					cellCounts = Arrays.copyOf(cellCounts, cellCounts.length * 2);
+				}
+			}
+			indices.put(block, index);
+		}
+		cellCounts[index - 1]++;
+		return index;
+	}
+
+	/**
+	 * Forget the index of a block that is taken out of a cell, if no other
+	 * cell holds it.
+	 */
+	private void releaseIndex(int index) {
+		cellCounts[index - 1]--;
+		if (cellCounts[index - 1] > 0) {
+			return;
+		}
+
+		indices.remove(materialised.set(index - 1, null));
+		if (freeCount == freeIndices.length) {
+			freeIndices = Arrays.copyOf(freeIndices, freeIndices.length * 2);
+		}
+		freeIndices[freeCount++] = index;
+	}
+}
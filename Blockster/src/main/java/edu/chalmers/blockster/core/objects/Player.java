@@ -2,7 +2,6 @@ package edu.chalmers.blockster.core.objects;
 
 import static edu.chalmers.blockster.core.util.Calculations.collisionEitherCorner;
 
-import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -35,6 +34,9 @@ public class Player extends AbstractBlocksterObject implements Interactor {
 	private boolean switchFromMe, moving;
 	private Movement lastMovement;
 
+	/* Reused by every update, so that moving allocates nothing */
+	private final Vector2f distance = new Vector2f();
+
 	public Player(float startX, float startY, BlockMap blockMap, World world) {
 		super(startX, startY, blockMap, blockMap.getBlockWidth(), blockMap
 				.getBlockHeight());
@@ -96,15 +98,13 @@ public class Player extends AbstractBlocksterObject implements Interactor {
 				final Movement state = getDirection() == Direction.LEFT ? Movement.LIFTING_CLIMB_LEFT
 						: Movement.LIFTING_CLIMB_RIGHT;
 
-				setAnimationState(new AnimationState(state));
+				startAnimation(state);
 
-				processedBlock.setAnimationState(new AnimationState(state));
+				processedBlock.startAnimation(state);
 			} else {
-				setAnimationState(new AnimationState(
-						Movement.getClimbMovement(dir)));
+				startAnimation(Movement.getClimbMovement(dir));
 				processedBlock.removeFromGrid();
-				processedBlock.setAnimationState(new AnimationState(Movement
-						.getClimbMovement(dir)));
+				processedBlock.startAnimation(Movement.getClimbMovement(dir));
 			}
 		}
 	}
@@ -125,6 +125,35 @@ public class Player extends AbstractBlocksterObject implements Interactor {
 		return processedBlock;
 	}
 
+	/**
+	 * Get the interaction with the block the player holds, or
+	 * AbstractPlayerInteraction.NONE if it holds none.
+	 */
+	public AbstractPlayerInteraction getInteraction() {
+		return interaction;
+	}
+
+	/**
+	 * Put the player back in an interaction it was in before, holding the
+	 * block of it the way it did then, without playing the animation of
+	 * grabbing or lifting it. Used to undo and redo moves.
+	 *
+	 * @param held
+	 *            An interaction of this player, or
+	 *            AbstractPlayerInteraction.NONE to hold no block
+	 */
+	public void holdBlock(AbstractPlayerInteraction held) {
+		processedBlock.setLifted(false);
+		setInteraction(AbstractPlayerInteraction.NONE);
+
+		grabbingBlock = held instanceof BlockGrabbedInteraction;
+		liftingBlock = held instanceof BlockLiftedInteraction;
+		processedBlock = held == AbstractPlayerInteraction.NONE ? none
+				: (Block) held.getInteracted();
+		processedBlock.setLifted(liftingBlock);
+		setInteraction(held);
+	}
+
 	public void startInteraction() {
 		final Block block = getAdjacentBlock();
 		if (block.isTeleporter()) {
@@ -227,12 +256,13 @@ public class Player extends AbstractBlocksterObject implements Interactor {
 	}
 
 	public void move(Vector2f distance) {
-		final Point2D.Float previousPosition = new Point2D.Float(getX(), getY());
+		final float previousX = getX();
+		final float previousY = getY();
 
 		if (Math.abs(distance.x) > 0) {
 			setX(getX() + distance.x);
 			if (collisionEitherCorner(this, getBlockMap())) {
-				setX(previousPosition.x);
+				setX(previousX);
 				horizontalCollision = true;
 			} else {
 				horizontalCollision = false;
@@ -243,7 +273,7 @@ public class Player extends AbstractBlocksterObject implements Interactor {
 		if (Math.abs(distance.y) > 0) {
 			setY(getY() + distance.y);
 			if (collisionEitherCorner(this, getBlockMap())) {
-				setY(previousPosition.y);
+				setY(previousY);
 				if (distance.y < 0) {
 					setY(((int) getY() / getBlockMap().getBlockHeight())
 							* getBlockMap().getBlockHeight());
@@ -261,7 +291,7 @@ public class Player extends AbstractBlocksterObject implements Interactor {
 		if (b) {
 			final Movement move = getDirection() == Direction.LEFT ? Movement.GRAB_LEFT
 					: Movement.GRAB_RIGHT;
-			setAnimationState(new AnimationState(move));
+			startAnimation(move);
 		} else {
 			setAnimationState(AnimationState.NONE);
 			setInteraction(AbstractPlayerInteraction.NONE);
@@ -276,13 +306,11 @@ public class Player extends AbstractBlocksterObject implements Interactor {
 	public void setLifting(boolean lift) {
 		liftingBlock = lift;
 		if (lift) {
-			setAnimationState(getDirection() == Direction.LEFT ? new AnimationState(
-					Movement.PLAYER_LIFT_LEFT) : new AnimationState(
-					Movement.PLAYER_LIFT_RIGHT));
+			startAnimation(getDirection() == Direction.LEFT ? Movement.PLAYER_LIFT_LEFT
+					: Movement.PLAYER_LIFT_RIGHT);
 		} else {
-			setAnimationState(getDirection() == Direction.LEFT ? new AnimationState(
-					Movement.PLAYER_PLACE_LEFT) : new AnimationState(
-					Movement.PLAYER_PLACE_RIGHT));
+			startAnimation(getDirection() == Direction.LEFT ? Movement.PLAYER_PLACE_LEFT
+					: Movement.PLAYER_PLACE_RIGHT);
 			setInteraction(AbstractPlayerInteraction.NONE);
 			movedBlock = false;
 			processedBlock = none;
@@ -302,8 +330,7 @@ public class Player extends AbstractBlocksterObject implements Interactor {
 		final AnimationState anim = getAnimationState();
 		if (anim == AnimationState.NONE) {
 			final Vector2f velocity = getVelocity();
-			final Vector2f distance = new Vector2f(velocity.x * deltaTime,
-					velocity.y * deltaTime);
+			distance.set(velocity.x * deltaTime, velocity.y * deltaTime);
 			if (Math.abs(Math.hypot(distance.x, distance.y)) > 0) {
 				move(distance);
 			}
@@ -328,9 +355,9 @@ public class Player extends AbstractBlocksterObject implements Interactor {
 
 	public void enterTeleport() {
 		if (getDirection() == Direction.LEFT) {
-			setAnimationState(new AnimationState(Movement.MOVE_LEFT));
+			startAnimation(Movement.MOVE_LEFT);
 		} else {
-			setAnimationState(new AnimationState(Movement.MOVE_RIGHT));
+			startAnimation(Movement.MOVE_RIGHT);
 		}
 
 		for (final GameEventListener listener : listeners) {
@@ -338,6 +365,29 @@ public class Player extends AbstractBlocksterObject implements Interactor {
 		}
 	}
 
+	/**
+	 * Put the player at the given position, not interacting with any block,
+	 * as if it had just been created there. A block it held is let go of.
+	 * Its world and listeners are kept.
+	 */
+	@Override
+	public void reset(float x, float y) {
+		super.reset(x, y);
+		processedBlock.setLifted(false);
+		processedBlock.setInteraction(AbstractPlayerInteraction.NONE);
+		processedBlock = none;
+		grabbingBlock = false;
+		liftingBlock = false;
+		interaction = AbstractPlayerInteraction.NONE;
+		horizontalCollision = false;
+		verticalCollision = false;
+		wait = 0;
+		movedBlock = false;
+		switchFromMe = false;
+		moving = false;
+		lastMovement = null;
+	}
+
 	public boolean isMoving() {
 		return moving;
 	}
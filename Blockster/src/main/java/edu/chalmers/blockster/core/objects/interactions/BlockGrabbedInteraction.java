@@ -3,10 +3,10 @@ package edu.chalmers.blockster.core.objects.interactions;
 import java.util.ArrayList;
 import java.util.List;
 
-import edu.chalmers.blockster.core.objects.movement.AnimationState;
 import edu.chalmers.blockster.core.objects.movement.Direction;
 import edu.chalmers.blockster.core.objects.movement.Movement;
 import edu.chalmers.blockster.core.util.GridMap;
+import edu.chalmers.blockster.core.util.GridObject;
 
 public class BlockGrabbedInteraction extends AbstractPlayerInteraction {
 	
@@ -14,12 +14,20 @@ public class BlockGrabbedInteraction extends AbstractPlayerInteraction {
 	private final Interactable interacted;
 	private final Interactor interactor;
 
+	/* The blocks that the last push would move, kept until the grid changes */
+	private final List<Interactable> pushChain;
+	private Direction chainDirection;
+	private int chainRevision;
+	private int chainX;
+	private int chainY;
+
 	public BlockGrabbedInteraction(Interactor interactor,
 			Interactable interacted, GridMap blockLayer) {
 		super(interactor, interacted);
 		this.interacted = interacted;
 		this.interactor = interactor;
 		this.blockLayer = blockLayer;
+		pushChain = new ArrayList<Interactable>();
 	}
 
 	@Override
@@ -27,28 +35,46 @@ public class BlockGrabbedInteraction extends AbstractPlayerInteraction {
 		interactor.setGrabbing(false);
 	}
 
+	/**
+	 * Get the row of blocks that a push in the given direction would move, or
+	 * an empty list if it is blocked. The row is only walked again when the
+	 * grid, the direction or the grabbed block has changed, so holding the
+	 * push key against a row that can not be moved is cheap no matter how
+	 * long the row is.
+	 */
 	private List<Interactable> getMoveableInteractables(Direction dir) {
-		final List<Interactable> movingBlocks = new ArrayList<Interactable>();
+		final int revision = blockLayer.getRevision();
+		final int origX = (int) interacted.getX();
 		final int origY = (int) interacted.getY();
-		
-		int checkX = (int) interacted.getX();
+		if (dir != chainDirection || revision != chainRevision
+				|| origX != chainX || origY != chainY) {
+			findPushChain(dir, origX, origY);
+			chainDirection = dir;
+			chainRevision = revision;
+			chainX = origX;
+			chainY = origY;
+		}
+		return pushChain;
+	}
+
+	private void findPushChain(Direction dir, int origX, int origY) {
+		pushChain.clear();
+		int checkX = origX;
 		
 		while (blockLayer.hasBlock(checkX, origY)) {
-			final boolean noBlockAbove = !blockLayer.hasBlock(checkX, origY + 1);
-			final boolean noWeightAbove = !blockLayer.getBlock(checkX, origY + 1).hasWeight();
-			final boolean isMovable = blockLayer.getBlock(checkX, origY).isMovable();
+			final boolean weightAbove = blockLayer.hasBlock(checkX, origY + 1)
+					&& blockLayer.getBlock(checkX, origY + 1).hasWeight();
+			final GridObject block = blockLayer.getBlock(checkX, origY);
 			final boolean notCrossingBounds = checkX > 0  && checkX < blockLayer.getWidth() - 1;
 			
-			if ((noBlockAbove || noWeightAbove) && isMovable && notCrossingBounds) {
-				movingBlocks.add((Interactable) blockLayer.getBlock(checkX, origY));
+			if (!weightAbove && block.isMovable() && notCrossingBounds) {
+				pushChain.add((Interactable) block);
 				checkX += dir.getDeltaX();
 			} else {
-				movingBlocks.clear();
-				return movingBlocks;
+				pushChain.clear();
+				return;
 			}
 		}
-
-		return movingBlocks;
 	}
 
 	@Override
@@ -79,8 +105,8 @@ public class BlockGrabbedInteraction extends AbstractPlayerInteraction {
 	private void pullBlock(Direction dir) {
 		final Movement movement = Movement.getPullMovement(dir);
 		if (canPerformMove(dir)) {
-			interacted.setAnimationState(new AnimationState(movement));
-			interactor.setAnimationState(new AnimationState(movement));
+			interacted.startAnimation(movement);
+			interactor.startAnimation(movement);
 			interacted.removeFromGrid();
 		}
 	}
@@ -92,10 +118,10 @@ public class BlockGrabbedInteraction extends AbstractPlayerInteraction {
 
 		if (!moveableInteractables.isEmpty()) {
 			for (final Interactable interactable : moveableInteractables) {
-				interactable.setAnimationState(new AnimationState(movement));
+				interactable.startAnimation(movement);
 				interactable.removeFromGrid();
 			}
-			interactor.setAnimationState(new AnimationState(movement));
+			interactor.startAnimation(movement);
 		}
 	}
 	
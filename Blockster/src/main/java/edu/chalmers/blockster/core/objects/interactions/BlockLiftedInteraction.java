@@ -1,6 +1,5 @@
 package edu.chalmers.blockster.core.objects.interactions;
 
-import edu.chalmers.blockster.core.objects.movement.AnimationState;
 import edu.chalmers.blockster.core.objects.movement.Direction;
 import edu.chalmers.blockster.core.objects.movement.Movement;
 import edu.chalmers.blockster.core.util.GridMap;
@@ -37,8 +36,8 @@ public class BlockLiftedInteraction extends AbstractPlayerInteraction {
 			default: return;
 		}
 
-		interactor.setAnimationState(new AnimationState(move));
-		interacted.setAnimationState(new AnimationState(move));
+		interactor.startAnimation(move);
+		interacted.startAnimation(move);
 		interacted.removeFromGrid();
 	}
 
@@ -46,20 +45,18 @@ public class BlockLiftedInteraction extends AbstractPlayerInteraction {
 	public void endInteraction() {
 		final Direction dir = interactor.getDirection();
 		final Movement placeMovement = Movement.getPlaceMovement(dir);
-		final AnimationState placeDown = new AnimationState(placeMovement);
 		boolean done = false;
 		
 		if (interacted.canMove(placeMovement.getDirection())) {
-			interacted.setAnimationState(placeDown);
+			interacted.startAnimation(placeMovement);
 			done = true;
 		} else if (interacted.canMove(dir)) {
-			interacted.setAnimationState(new AnimationState(Movement.getMoveMovement(dir)));
+			interacted.startAnimation(Movement.getMoveMovement(dir));
 			done = true;
 		}
 		
 		if (done) {
-			interactor.setAnimationState(new AnimationState(
-					Movement.getPlayerPlaceMovement(dir)));
+			interactor.startAnimation(Movement.getPlayerPlaceMovement(dir));
 			interactor.setLifting(false);
 			interacted.setLifted(false);
 			interacted.removeFromGrid();
@@ -72,13 +69,13 @@ public class BlockLiftedInteraction extends AbstractPlayerInteraction {
 		final float interactedX = interacted.getX();
 		final Direction dir = Direction.getDirection(interactorX, interactedX
 				* blockMap.getBlockWidth());
-		final AnimationState anim = new AnimationState(Movement.getLiftMovement(dir));
+		final Movement lift = Movement.getLiftMovement(dir);
 		
-		if (interacted.canMove(anim.getMovement().getDirection())
+		if (interacted.canMove(lift.getDirection())
 				&& !blockMap.hasBlock((int) interactedX,
 						(int) interacted.getY() + 1)) {
 			interactor.setLifting(true);
-			interacted.setAnimationState(anim);
+			interacted.startAnimation(lift);
 			interacted.setLifted(true);
 			interacted.removeFromGrid();
 		}
@@ -2,6 +2,7 @@ package edu.chalmers.blockster.core.objects.interactions;
 
 import edu.chalmers.blockster.core.objects.movement.AnimationState;
 import edu.chalmers.blockster.core.objects.movement.Direction;
+import edu.chalmers.blockster.core.objects.movement.Movement;
 import edu.chalmers.blockster.core.util.GridObject;
 import edu.chalmers.blockster.core.util.PhysicalObject;
 
@@ -9,6 +10,8 @@ public interface Interactable extends PhysicalObject, GridObject {
 
 	void setAnimationState(AnimationState anim);
 
+	void startAnimation(Movement movement);
+
 	void removeFromGrid();
 	
 	void setLifted(boolean lifted);
@@ -2,6 +2,7 @@ package edu.chalmers.blockster.core.objects.interactions;
 
 import edu.chalmers.blockster.core.objects.movement.AnimationState;
 import edu.chalmers.blockster.core.objects.movement.Direction;
+import edu.chalmers.blockster.core.objects.movement.Movement;
 import edu.chalmers.blockster.core.util.PhysicalObject;
 
 public interface Interactor extends PhysicalObject {
@@ -13,6 +14,8 @@ public interface Interactor extends PhysicalObject {
 	boolean canMove(Direction dir);
 	
 	void setAnimationState(AnimationState anim);
+
+	void startAnimation(Movement movement);
 	
 	void setLifting(boolean b);
 
@@ -17,6 +17,11 @@ public class AnimationState {
 	private Movement move;
 	private String name;
 
+	/* The relative position at evaluatedTime, so that reading x and y
+	 * evaluates the spline once */
+	private final Vector2f relativePosition = new Vector2f();
+	private float evaluatedTime = -1;
+
 	/**
 	 * Create an animation with the given movement.
 	 * @param move	Movement to animate.
@@ -31,6 +36,20 @@ public class AnimationState {
 		this.name = name;
 	}
 	
+	/**
+	 * Start the animation over with the given movement, so that an object can
+	 * reuse one instance for all of its animations.
+	 * @param move	Movement to animate.
+	 */
+	public void restart(Movement move) {
+		if (this == NONE) {
+			throw new UnsupportedOperationException("NONE can not be restarted.");
+		}
+		elapsedTime = 0f;
+		this.move = move;
+		evaluatedTime = -1;
+	}
+
 	public Movement getMovement() {
 		return move;
 	}
@@ -44,10 +63,46 @@ public class AnimationState {
 	 * @return a Vector2f with the current relative position
 	 */
 	public Vector2f getRelativePosition() {
-		if(move.getDuration() == 0) {
-			return new Vector2f(0, 0);
+		return getRelativePosition(new Vector2f());
+	}
+
+	/**
+	 * Writes the current relative position into the given vector.
+	 * @param result	The vector to write the position to
+	 * @return the result vector
+	 */
+	public Vector2f getRelativePosition(Vector2f result) {
+		result.set(evaluate());
+		return result;
+	}
+
+	/**
+	 * Returns the x coordinate of the current relative position, without
+	 * creating any objects.
+	 */
+	public float getRelativeX() {
+		return evaluate().x;
+	}
+
+	/**
+	 * Returns the y coordinate of the current relative position, without
+	 * creating any objects.
+	 */
+	public float getRelativeY() {
+		return evaluate().y;
+	}
+
+	private Vector2f evaluate() {
+		/* NONE is shared between threads, but its position never changes */
+		if (move.getDuration() == 0) {
+			return relativePosition;
+		}
+		if (evaluatedTime != elapsedTime) {
+			move.getBakedSpline().getPosition(
+					elapsedTime / move.getDuration() * 100f, relativePosition);
+			evaluatedTime = elapsedTime;
 		}
-		return move.getSpline().getPosition(elapsedTime / move.getDuration() * 100f);
+		return relativePosition;
 	}
 	
 	/**
@@ -71,6 +126,10 @@ public class AnimationState {
 	 * @param deltaTime	a float time
 	 */
 	public void updatePosition(float deltaTime) {
+		/* Nothing to update, and NONE is shared between all objects */
+		if (move.getDuration() == 0) {
+			return;
+		}
 		elapsedTime = Math.min(elapsedTime+deltaTime, move.getDuration());
 	}
 }
@@ -29,12 +29,19 @@ public class BezierSpline implements Spline {
 	
 	@Override
 	public Vector2f getPosition(float percent) {
+		return getPosition(percent, new Vector2f());
+	}
+
+	@Override
+	public Vector2f getPosition(float percent, Vector2f result) {
 		if (percent <= 0) {
-			return new Vector2f(0,0);
+			result.set(0, 0);
+			return result;
 		}
 		
 		if (percent >= 100) {
-			return new Vector2f(dir.getDeltaX(), dir.getDeltaY());
+			result.set(dir.getDeltaX(), dir.getDeltaY());
+			return result;
 		}
 		float offsetX;
 		float offsetY;
@@ -51,7 +58,8 @@ public class BezierSpline implements Spline {
 		final int y2 = deltaY;
 		offsetY = (float) (2 * t * (1 - t) * y1 + Math.pow((double)(1 - t), 2) * y2);
 		
-		return new Vector2f(offsetX, offsetY);
+		result.set(offsetX, offsetY);
+		return result;
 	}
 
 	@Override
@@ -10,49 +10,48 @@ public class CompositeSpline implements Spline {
 	private final List<LinearSpline> partialSplines;
 	private final Direction[] directions;
 	
+	/* The offset at the start of each partial spline */
+	private final int[] startX;
+	private final int[] startY;
+	
 	public CompositeSpline(Direction... directions) {
 		partialSplines = new ArrayList<LinearSpline>();
 		this.directions = directions;
+		startX = new int[directions.length + 1];
+		startY = new int[directions.length + 1];
 		
-		for(final Direction dir : directions) {
+		for (int i = 0; i < directions.length; i++) {
+			final Direction dir = directions[i];
 			partialSplines.add(new LinearSpline(dir));
+			startX[i + 1] = startX[i] + dir.getDeltaX();
+			startY[i + 1] = startY[i] + dir.getDeltaY();
 		}
 	}
 	
-	/**
-	 * Returns the sum of all the spline directions up to and including the one
-	 * with the index in the parameter.
-	 * @param highestIndex
-	 * @return
-	 */
-	private Vector2f sumOfSplines(int highestIndex) {
-		final Vector2f splineOffset = new Vector2f();
-		
-		for (int i = 0; i <= Math.min(directions.length, highestIndex); i++) {
-			final Direction dir = directions[i];
-			splineOffset.add(new Vector2f(dir.getDeltaX(), dir.getDeltaY()));
-		}
-		
-		return splineOffset;
+	@Override
+	public Vector2f getPosition(float percent) {
+		return getPosition(percent, new Vector2f());
 	}
 	
 	@Override
-	public Vector2f getPosition(float percent) {
+	public Vector2f getPosition(float percent, Vector2f result) {
 		final int nbrOfSplines = partialSplines.size();
 		final int currentSplineIndex = (int)((percent * nbrOfSplines ) / 100);
 		
-		if (currentSplineIndex == nbrOfSplines) {
-			return sumOfSplines(currentSplineIndex - 1);
+		if (currentSplineIndex >= nbrOfSplines) {
+			result.set(startX[nbrOfSplines], startY[nbrOfSplines]);
+			return result;
 		}
 		
-		final Vector2f currentOffset = partialSplines.get(currentSplineIndex)
-				.getPosition((percent * nbrOfSplines) % 100);
+		partialSplines.get(currentSplineIndex).getPosition(
+				(percent * nbrOfSplines) % 100, result);
 		
 		if (currentSplineIndex > 0) {
-			currentOffset.add(sumOfSplines(currentSplineIndex - 1));
+			result.x += startX[currentSplineIndex];
+			result.y += startY[currentSplineIndex];
 		}
 		
-		return currentOffset;
+		return result;
 	}
 
 	public Direction[] getDirections() {
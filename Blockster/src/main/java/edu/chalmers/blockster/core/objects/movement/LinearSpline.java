@@ -20,13 +20,20 @@ public class LinearSpline implements Spline {
 	
 	@Override
 	public Vector2f getPosition(float percent) {
+		return getPosition(percent, new Vector2f());
+	}
+
+	@Override
+	public Vector2f getPosition(float percent, Vector2f result) {
 		
 		if (percent <= 0) {
-			return new Vector2f(0, 0);
+			result.set(0, 0);
+			return result;
 		}
 		
 		if (percent >= 100) {
-			return new Vector2f(dir.getDeltaX(), dir.getDeltaY());
+			result.set(dir.getDeltaX(), dir.getDeltaY());
+			return result;
 		}
 		
 		float offsetX;
@@ -35,7 +42,8 @@ public class LinearSpline implements Spline {
 		offsetX = percent * dir.getDeltaX() / 100f;
 		offsetY = percent * dir.getDeltaY() / 100f;
 		
-		return new Vector2f(offsetX, offsetY);
+		result.set(offsetX, offsetY);
+		return result;
 	}
 
 	@Override
@@ -40,6 +40,7 @@ public enum Movement {
 	private final Direction direction;
 	private final float duration;
 	private final Spline spline;
+	private final Spline bakedSpline;
 	private boolean pullMovement;
 	
 	private Movement(float duration) {
@@ -53,6 +54,9 @@ public enum Movement {
 	private Movement(Direction dir, float duration, Spline spline, 
 			boolean pullMovement) {
 		this.spline = spline;
+		/* A table is only faster than evaluating curved splines */
+		bakedSpline = spline instanceof LinearSpline ? spline
+				: new SplineTable(spline);
 		direction = dir;
 		this.duration = duration;
 		this.pullMovement = pullMovement;
@@ -149,6 +153,15 @@ public enum Movement {
 		return spline;
 	}
 
+	/**
+	 * Return the spline of the movement in the form that is fastest to get
+	 * positions from, i.e. sampled into a table unless it is linear.
+	 * @return	A Spline with the same trajectory as getSpline()
+	 */
+	public Spline getBakedSpline() {
+		return bakedSpline;
+	}
+
 	public static Movement getClimbDownMovement(Direction dir) {
 		if (dir == Direction.LEFT || dir == Direction.RIGHT) {
 			return dir == Direction.LEFT ? CLIMB_DOWN_LEFT : CLIMB_DOWN_RIGHT;
@@ -20,6 +20,15 @@ public interface Spline {
 	 * 			be (0, 0).
 	 */
 	Vector2f getPosition(float percent);
+
+	/**
+	 * Write the relative position at the given percent of the movement into
+	 * the given vector instead of creating a new one.
+	 * @param percent
+	 * @param result	The vector to write the offset to
+	 * @return The result vector.
+	 */
+	Vector2f getPosition(float percent, Vector2f result);
 	
 	Direction getDirection();
 }
@@ -0,0 +1,91 @@
+package edu.chalmers.blockster.core.objects.movement;
+
+import javax.vecmath.Vector2f;
+
+/**
+ * A spline sampled into a table once, so that getting a position only takes
+ * a linear interpolation between two samples instead of evaluating the
+ * spline.
+ */
+public final class SplineTable implements Spline {
+
+	public static final int DEFAULT_RESOLUTION = 64;
+
+	private final Spline spline;
+	private final float[] offsetsX;
+	private final float[] offsetsY;
+	private final float samplesPerPercent;
+
+	/**
+	 * Create a table of the spline with the default resolution.
+	 */
+	public SplineTable(Spline spline) {
+		this(spline, DEFAULT_RESOLUTION);
+	}
+
+	/**
+	 * @param spline
+	 *            The spline to sample
+	 * @param resolution
+	 *            Number of intervals to divide the movement into
+	 */
+	public SplineTable(Spline spline, int resolution) {
+		if (resolution <= 0) {
+			throw new IllegalArgumentException("Resolution is " + resolution
+					+ ". Must be positive.");
+		}
+		this.spline = spline;
+		offsetsX = new float[resolution + 1];
+		offsetsY = new float[resolution + 1];
+		samplesPerPercent = resolution / 100f;
+
+		for (int i = 0; i <= resolution; i++) {
+			final Vector2f position = spline.getPosition(100f * i / resolution);
+			offsetsX[i] = position.x;
+			offsetsY[i] = position.y;
+		}
+	}
+
+	@Override
+	public Vector2f getPosition(float percent) {
+		return getPosition(percent, new Vector2f());
+	}
+
+	@Override
+	public Vector2f getPosition(float percent, Vector2f result) {
+		if (percent <= 0) {
+			result.set(0, 0);
+			return result;
+		}
+
+		final int last = offsetsX.length - 1;
+		if (percent >= 100) {
+			result.set(offsetsX[last], offsetsY[last]);
+			return result;
+		}
+
+		final float sample = percent * samplesPerPercent;
+		final int index = Math.min((int) sample, last - 1);
+		final float fraction = sample - index;
+		result.set(
+				offsetsX[index] + (offsetsX[index + 1] - offsetsX[index]) * fraction,
+				offsetsY[index] + (offsetsY[index + 1] - offsetsY[index]) * fraction);
+		return result;
+	}
+
+	@Override
+	public Direction getDirection() {
+		return spline.getDirection();
+	}
+
+	/**
+	 * Get the spline the table was sampled from.
+	 */
+	public Spline getSpline() {
+		return spline;
+	}
+
+	public int getResolution() {
+		return offsetsX.length - 1;
+	}
+}
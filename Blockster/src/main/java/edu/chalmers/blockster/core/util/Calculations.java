@@ -14,52 +14,17 @@ public final class Calculations {
 	}
 	
 	public static boolean collisionEitherCorner(PhysicalObject player, GridMap blockLayer) {
-		return collisionUpperLeft(player, blockLayer) ||
-				collisionUpperRight(player, blockLayer) ||
-				collisionLowerLeft(player, blockLayer) ||
-				collisionLowerRight(player, blockLayer);
-	}
-
-	private static boolean collisionLowerLeft(PhysicalObject player, 
-			GridMap blockLayer) {
 		final float tileWidth = blockLayer.getBlockWidth();
 		final float tileHeight = blockLayer.getBlockHeight();
-		
-		return isSolid(blockLayer, (int) (player.getX() / tileWidth),
-				(int) (player.getY() / tileHeight));
-	}
 
-	private static boolean collisionLowerRight(PhysicalObject player, 
-			GridMap blockLayer) {
-		final float tileWidth = blockLayer.getBlockWidth();
-		final float tileHeight = blockLayer.getBlockHeight();
-		
-		return isSolid(blockLayer, (int) ((player.getX() + player.getWidth()) / tileWidth),
-				(int) (player.getY() / tileHeight));
-	}
-	
-	private static boolean collisionUpperLeft(PhysicalObject player, 
-			GridMap blockLayer) {
-		final float tileWidth = blockLayer.getBlockWidth();
-		final float tileHeight = blockLayer.getBlockHeight();
-		
-		return isSolid(blockLayer, (int) (player.getX() / tileWidth),
-				(int) ((player.getY() + player.getHeight()) / tileHeight));
-	}
-	
-	private static boolean collisionUpperRight(PhysicalObject player, 
-			GridMap blockLayer) {
-		final float tileWidth = blockLayer.getBlockWidth();
-		final float tileHeight = blockLayer.getBlockHeight();
-		
-		return isSolid(blockLayer, (int) ((player.getX() + player.getWidth()) / tileWidth),
-				(int) ((player.getY() + player.getHeight()) / tileHeight));
-	}
-	
-	private static boolean isSolid(GridMap blockLayer, int x, int y) {
-		return blockLayer.hasBlock(x, y) && blockLayer.getBlock(x,y).isSolid();
+		final int minX = (int) (player.getX() / tileWidth);
+		final int minY = (int) (player.getY() / tileHeight);
+		final int maxX = (int) ((player.getX() + player.getWidth()) / tileWidth);
+		final int maxY = (int) ((player.getY() + player.getHeight()) / tileHeight);
+
+		return blockLayer.hasSolidBlockIn(minX, minY, maxX, maxY);
 	}
-	
+
 	public static int getClosestNumber(int target, int maxDif, int defaultVal, int[] compareTo) {
 		int result = defaultVal;
 		int dif = maxDif;
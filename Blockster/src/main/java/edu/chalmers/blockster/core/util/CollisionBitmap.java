@@ -0,0 +1,163 @@
+package edu.chalmers.blockster.core.util;
+
+/**
+ * A grid of bits packed into longs, used to keep track of which cells are
+ * solid so that whole rectangles of cells can be checked 64 cells at a time.
+ *
+ * The grid is divided into tiles of 64 x 64 cells, where each row of a tile is
+ * one long. A tile is only allocated once one of its cells is set, and is let
+ * go of once all of them are cleared again, so memory use follows the solid
+ * area of the grid rather than its size.
+ *
+ * Cells outside of the grid are never set.
+ */
+public class CollisionBitmap {
+
+	private static final int WORD_SHIFT = 6;
+	private static final int WORD_MASK = Long.SIZE - 1;
+	private static final int TILE_SIZE = Long.SIZE;
+	private static final long ALL_BITS = -1L;
+
+	private final int width;
+	private final int height;
+	private final int tilesWide;
+	private final long[][] tiles;
+	private final int[] tileCounts;
+	private int allocatedTiles;
+
+	public CollisionBitmap(int width, int height) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Bitmap must have positive "
+					+ "dimensions, was " + width + " x " + height);
+		}
+		this.width = width;
+		this.height = height;
+		tilesWide = (width + WORD_MASK) >> WORD_SHIFT;
+		final int tilesHigh = (height + WORD_MASK) >> WORD_SHIFT;
+		tiles = new long[tilesWide * tilesHigh][];
+		tileCounts = new int[tiles.length];
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Get the number of tiles that currently have at least one cell set.
+	 */
+	public int getAllocatedTiles() {
+		return allocatedTiles;
+	}
+
+	private int tileIndex(int word, int y) {
+		return (y >> WORD_SHIFT) * tilesWide + word;
+	}
+
+	public void set(int x, int y, boolean value) {
+		if (x < 0 || x >= width || y < 0 || y >= height) {
+			return;
+		}
+		final int tileIndex = tileIndex(x >> WORD_SHIFT, y);
+		final int row = y & WORD_MASK;
+		final long bit = 1L << (x & WORD_MASK);
+		long[] tile = tiles[tileIndex];
+
+		if (value) {
+			if (tile == null) {
+				tile = new long[TILE_SIZE];
+				tiles[tileIndex] = tile;
+				allocatedTiles++;
+			}
+			if ((tile[row] & bit) == 0) {
+				tile[row] |= bit;
+				tileCounts[tileIndex]++;
+			}
+		} else if (tile != null && (tile[row] & bit) != 0) {
+			tile[row] &= ~bit;
+			tileCounts[tileIndex]--;
+			if (tileCounts[tileIndex] == 0) {
+				tiles[tileIndex] = null;
+				allocatedTiles--;
+			}
+		}
+	}
+
+	public boolean get(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height) {
+			return false;
+		}
+		return (word(x >> WORD_SHIFT, y) & (1L << (x & WORD_MASK))) != 0;
+	}
+
+	/**
+	 * Get the 64 cells of a row starting at word * 64, with all cells of an
+	 * unallocated tile cleared.
+	 */
+	private long word(int word, int y) {
+		final long[] tile = tiles[tileIndex(word, y)];
+		return tile == null ? 0 : tile[y & WORD_MASK];
+	}
+
+	/**
+	 * Check if any cell in the given part of a row is set.
+	 *
+	 * @param y
+	 *            The row
+	 * @param minX
+	 *            First cell to check
+	 * @param maxX
+	 *            Last cell to check, inclusive
+	 * @return True if any of the cells is set.
+	 */
+	public boolean anyInRow(int y, int minX, int maxX) {
+		if (y < 0 || y >= height) {
+			return false;
+		}
+
+		final int from = Math.max(minX, 0);
+		final int to = Math.min(maxX, width - 1);
+		if (from > to) {
+			return false;
+		}
+
+		final int firstWord = from >> WORD_SHIFT;
+		final int lastWord = to >> WORD_SHIFT;
+		final long firstMask = ALL_BITS << (from & WORD_MASK);
+		final long lastMask = ALL_BITS >>> (WORD_MASK - (to & WORD_MASK));
+
+		if (firstWord == lastWord) {
+			return (word(firstWord, y) & firstMask & lastMask) != 0;
+		}
+
+		if ((word(firstWord, y) & firstMask) != 0) {
+			return true;
+		}
+		for (int i = firstWord + 1; i < lastWord; i++) {
+			if (word(i, y) != 0) {
+				return true;
+			}
+		}
+		return (word(lastWord, y) & lastMask) != 0;
+	}
+
+	/**
+	 * Check if any cell in the given rectangle is set. Both corners are
+	 * inclusive.
+	 *
+	 * @return True if any of the cells is set.
+	 */
+	public boolean anyInRect(int minX, int minY, int maxX, int maxY) {
+		final int from = Math.max(minY, 0);
+		final int to = Math.min(maxY, height - 1);
+		for (int y = from; y <= to; y++) {
+			if (anyInRow(y, minX, maxX)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -14,4 +14,17 @@ public interface GridMap {
 
 	boolean hasBlock(int x, int y);
 
+	/**
+	 * Check if there is a solid block in the given rectangle of cells. Both
+	 * corners are inclusive.
+	 */
+	boolean hasSolidBlockIn(int minX, int minY, int maxX, int maxY);
+
+	/**
+	 * Get a number that changes every time a block is inserted into, removed
+	 * from or changed in the grid, so that results computed from the grid can
+	 * be kept until it does.
+	 */
+	int getRevision();
+
 }
@@ -0,0 +1,61 @@
+package edu.chalmers.blockster.core.util;
+
+/**
+ * Keys for Zobrist hashing of the game state. A hash is the XOR of the keys
+ * of everything in the state, so when something changes only its old key and
+ * its new key have to be XORed into the hash.
+ *
+ * Instead of a table of random numbers, the keys are made by scrambling what
+ * they stand for, so they take no memory however large the map is, and they
+ * are the same in every run of the game.
+ */
+public final class Zobrist {
+
+	private static final long CELL_SEED = 0x2545F4914F6CDD1DL;
+	private static final long PLAYER_SEED = 0x6A09E667F3BCC909L;
+	private static final long STATE_SEED = 0xBB67AE8584CAA73BL;
+
+	private Zobrist() {
+		//This prevents instantiation via reflection.
+		throw new UnsupportedOperationException("Instantiation of Zobrist "
+				+ "class is not allowed");
+	}
+
+	/**
+	 * Get the key of a block with the given properties in the given cell.
+	 */
+	public static long cellKey(int x, int y, long properties) {
+		return scramble(scramble(CELL_SEED ^ pack(x, y)) ^ properties);
+	}
+
+	/**
+	 * Get the key of the player with the given index being in the given
+	 * cell.
+	 */
+	public static long playerKey(int index, int x, int y) {
+		return scramble(scramble(PLAYER_SEED ^ index) ^ pack(x, y));
+	}
+
+	/**
+	 * Get the key of the state of the game, i.e. whether it is running and
+	 * which player is controlled.
+	 */
+	public static long stateKey(int gameState, int activePlayer) {
+		return scramble(STATE_SEED ^ pack(gameState, activePlayer));
+	}
+
+	private static long pack(int a, int b) {
+		return (long) a << 32 | (b & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * The finaliser of SplitMix64, which spreads every bit of the input over
+	 * the whole output.
+	 */
+	private static long scramble(long value) {
+		long z = value + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -1,90 +1,96 @@
 package edu.chalmers.blockster.gdx;
 
-import java.io.IOException;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.TreeMap;
-import java.util.logging.Logger;
-
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.audio.Music;
-import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.GL10;
-import com.badlogic.gdx.maps.tiled.TiledMap;
-import com.badlogic.gdx.maps.tiled.TmxMapLoader;
 
+import edu.chalmers.blockster.core.FixedStepSimulator;
 import edu.chalmers.blockster.core.MapChangeListener;
 import edu.chalmers.blockster.core.Model;
 import edu.chalmers.blockster.gdx.controller.Controller;
-import edu.chalmers.blockster.gdx.view.GdxFactory;
 import edu.chalmers.blockster.gdx.view.GdxView;
+import edu.chalmers.blockster.gdx.view.LoadingView;
 
 public final class Blockster extends Game implements MapChangeListener {
 	
+	private static final String MUSIC = "music/gourmet_race.mp3";
+	private static final String[] MAPS = {"maps/stage1.tmx"};
+
 	private Controller controller;
 	private GdxView viewer;
 	private Model stage;
-	private Map<Model, GdxView> stages;
-	
-	private void addStagesToMap(Map<Model, GdxView> stageMap, FileHandle... maps) {
-		final TmxMapLoader loader = new TmxMapLoader();
-		for (final FileHandle mapFile : maps) {
-			final TiledMap map = loader.load(mapFile.path());
-			final GdxFactory factory = new GdxFactory(map);
-			final Model model = new Model(factory, mapFile.name());
-			final GdxView view = new GdxView(model, factory);
-			view.init();
-			
-			stageMap.put(model, view);
-		}
-	}
+	private AssetManager assets;
+	private StageLoader loader;
+	private LoadingView loadingView;
+	private final FixedStepSimulator simulator = new FixedStepSimulator();
 	
 	@Override
 	public final void create () {
 		controller = new Controller();
 		controller.addMapChangeListener(this);
-		try {
-			final FileHandle file = Gdx.files.internal("music/gourmet_race.mp3");
-			final Music music = Gdx.audio.newMusic(file);
-			music.setLooping(true);
-			music.play();
+		controller.setStepTime(simulator.getStepTime());
+		simulator.setTickListener(controller);
 
-			loadStages();
-
-			final Iterator<Model> modelIterator = stages.keySet().iterator();
-			final Model model = modelIterator.next();
-			
-			controller.setModel(model);
-		} catch (IOException e) {
-			Logger.getGlobal().throwing("Blockster", "create", e);
-		}
+		/* The stages are loaded while the loading screen is shown, and the
+		 * music after the maps so the stages are built while it loads */
+		assets = new AssetManager();
+		loader = new StageLoader(assets, MAPS);
+		assets.load(MUSIC, Music.class);
+		loadingView = new LoadingView();
 	}
 	
 	@Override
 	public void dispose () {
-		viewer.dispose();
+		if (loadingView != null) {
+			loadingView.dispose();
+		}
+		loader.dispose();
+		assets.dispose();
 	}
 
-	private void loadStages() throws IOException {
-		final FileHandle[] maps = {Gdx.files.internal("maps/stage1.tmx")};
-		
-		stages = Collections.synchronizedSortedMap(new TreeMap<Model, GdxView>());
-		addStagesToMap(stages, maps);
+	/**
+	 * Load the next slice of the stages, and start the first stage once
+	 * they are all loaded.
+	 *
+	 * @return Whether the stages are loaded
+	 */
+	private boolean updateLoading() {
+		if (!loader.update(StageLoader.DEFAULT_SLICE)) {
+			Gdx.gl.glClearColor(0, 0, 0, 0);
+			Gdx.gl.glClear(GL10.GL_COLOR_BUFFER_BIT);
+			loadingView.render(loader.getProgress());
+			return false;
+		}
+
+		loadingView.dispose();
+		loadingView = null;
+
+		final Music music = assets.get(MUSIC, Music.class);
+		music.setLooping(true);
+		music.play();
+
+		controller.setModel(loader.getStages().firstKey());
+		viewer.resize(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+		return true;
 	}
 
-	
 	@Override
 	public void render () {
+		if (loadingView != null && !updateLoading()) {
+			return;
+		}
+
 		/*Update the world controller with the time
 			elapsed between the last two frames. */ 
 		controller.update();
 		
-		/* Update the model with the time elapsed between
+		/* Update the model in fixed steps for the time elapsed between
 		 * the last two frames.
 		 */
-		stage.update(Gdx.graphics.getDeltaTime());
+		simulator.advance(stage, Gdx.graphics.getDeltaTime());
+		viewer.setInterpolationAlpha(simulator.getAlpha());
 		
 		/* Clear screen */
 		Gdx.gl.glClearColor(0, 0, 0, 0);
@@ -99,15 +105,25 @@ public final class Blockster extends Game implements MapChangeListener {
 		/**
 		 * set the camera view according to the new size
 		 */
-		viewer.resize(width, height);
+		if (viewer != null) {
+			viewer.resize(width, height);
+		}
 		}
 	
 	@Override
 	public void stageChanged(Model stage) {
+		final Model previousStage = this.stage;
 		this.stage = stage;
-		viewer = stages.get(stage);
+		simulator.reset();
+		viewer = loader.getView(stage);
 		controller.setView(viewer);
 		viewer.refreshRenderer();
 		viewer.refreshStage();
+
+		/* A stage that has been left is not returned to, so its textures
+		 * are released right away */
+		if (previousStage != null && previousStage != stage) {
+			loader.unload(previousStage);
+		}
 	}
 }
\ No newline at end of file
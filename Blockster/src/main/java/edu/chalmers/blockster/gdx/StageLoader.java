@@ -0,0 +1,213 @@
+package edu.chalmers.blockster.gdx;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.utils.Disposable;
+
+import edu.chalmers.blockster.core.Model;
+import edu.chalmers.blockster.gdx.view.AnimationFactory;
+import edu.chalmers.blockster.gdx.view.GdxFactory;
+import edu.chalmers.blockster.gdx.view.GdxView;
+
+/**
+ * Loads the stages of the game without blocking the render thread. The asset
+ * manager parses the maps and decodes their tile pictures in the background,
+ * and the model of each stage is built on a pool of background threads as
+ * soon as its map is loaded, while the asset manager goes on with the rest.
+ * Only the work that needs the GL context is done on the render thread, a
+ * slice at a time by each call to update, so that a loading screen can be
+ * drawn in between.
+ */
+public class StageLoader implements Disposable {
+
+	/**
+	 * Milliseconds the asset manager may spend on each update by default.
+	 */
+	public static final int DEFAULT_SLICE = 10;
+
+	private final AssetManager assets;
+	private final String[] mapPaths;
+	private final ExecutorService pool;
+
+	/* The stages in the order they are built, with the animations made for
+	 * them on the render thread */
+	private final List<Future<GdxView>> builds;
+	private final List<AnimationFactory> animations;
+	private int initialized;
+	private boolean assetsLoaded;
+
+	private final SortedMap<Model, GdxView> stages;
+	private final Map<Model, String> stageMaps;
+
+	/**
+	 * Start loading the maps at the given internal paths with the asset
+	 * manager. Anything else the manager loads is part of the progress, and
+	 * is best queued after the maps so that the stages can be built while it
+	 * loads.
+	 */
+	public StageLoader(AssetManager assets, String... mapPaths) {
+		if (mapPaths.length == 0) {
+			throw new IllegalArgumentException("Number of stages is 0."
+					+ " Must be positive.");
+		}
+		this.assets = assets;
+		this.mapPaths = mapPaths.clone();
+		pool = Executors.newFixedThreadPool(Math.min(mapPaths.length,
+				Runtime.getRuntime().availableProcessors()));
+		builds = new ArrayList<Future<GdxView>>(mapPaths.length);
+		animations = new ArrayList<AnimationFactory>(mapPaths.length);
+		stages = Collections.synchronizedSortedMap(new TreeMap<Model, GdxView>());
+		stageMaps = new HashMap<Model, String>();
+
+		assets.setLoader(TiledMap.class, new TmxMapLoader(
+				new InternalFileHandleResolver()));
+		for (final String path : mapPaths) {
+			assets.load(path, TiledMap.class);
+		}
+	}
+
+	/**
+	 * Do the next slice of the loading. Must be called on the render thread.
+	 *
+	 * @param millis
+	 *            The time the asset manager may spend loading
+	 * @return Whether all stages and assets are loaded
+	 */
+	public boolean update(int millis) {
+		if (isDone()) {
+			return true;
+		}
+		assetsLoaded = assets.update(millis);
+
+		while (builds.size() < mapPaths.length && assets.isLoaded(
+				mapPaths[builds.size()], TiledMap.class)) {
+			submitBuild(mapPaths[builds.size()]);
+		}
+
+		/* The views are handed over in the order of the maps */
+		if (initialized < builds.size() && builds.get(initialized).isDone()) {
+			initView();
+		}
+		return isDone();
+	}
+
+	private void submitBuild(final String path) {
+		final TiledMap map = assets.get(path, TiledMap.class);
+		final String name = path.substring(path.lastIndexOf('/') + 1);
+
+		/* The animations upload textures, so they are made here */
+		final AnimationFactory animFactory = createAnimations();
+		animations.add(animFactory);
+		builds.add(pool.submit(new Callable<GdxView>() {
+			@Override
+			public GdxView call() {
+				return build(map, name, animFactory);
+			}
+		}));
+	}
+
+	/**
+	 * Make the animations of a stage. Called on the render thread.
+	 */
+	AnimationFactory createAnimations() {
+		return new AnimationFactory();
+	}
+
+	/**
+	 * Build the model and the view of a stage. Called on the pool, so the
+	 * view must not be initialized here.
+	 */
+	GdxView build(TiledMap map, String name, AnimationFactory animFactory) {
+		final GdxFactory factory = new GdxFactory(map, animFactory);
+		final Model model = new Model(factory, name);
+		return new GdxView(model, factory);
+	}
+
+	private void initView() {
+		final String path = mapPaths[initialized];
+		final GdxView view;
+		try {
+			view = builds.get(initialized).get();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Stage " + path
+					+ " could not be built", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+
+		view.init();
+		stages.put(view.getModel(), view);
+		stageMaps.put(view.getModel(), path);
+		initialized++;
+	}
+
+	/**
+	 * Get how far the loading has come, in [0, 1].
+	 */
+	public float getProgress() {
+		/* Loading the assets of a stage weighs as much as building it */
+		return (assets.getProgress() * mapPaths.length + initialized)
+				/ (2f * mapPaths.length);
+	}
+
+	public boolean isDone() {
+		return initialized == mapPaths.length && assetsLoaded;
+	}
+
+	/**
+	 * Get the loaded stages and their views, in the order of the stages.
+	 */
+	public SortedMap<Model, GdxView> getStages() {
+		return stages;
+	}
+
+	public GdxView getView(Model stage) {
+		return stages.get(stage);
+	}
+
+	/**
+	 * Dispose of the view and the map of a stage that is not played anymore.
+	 */
+	public void unload(Model stage) {
+		final GdxView view = stages.remove(stage);
+		if (view != null) {
+			view.dispose();
+			assets.unload(stageMaps.remove(stage));
+		}
+	}
+
+	/**
+	 * Stop loading and dispose of the views of all stages. The maps are
+	 * disposed of along with the asset manager.
+	 */
+	@Override
+	public void dispose() {
+		pool.shutdownNow();
+		for (final GdxView view : stages.values()) {
+			view.dispose();
+		}
+		stages.clear();
+
+		/* Views that were never initialized only hold their animations */
+		for (int i = initialized; i < animations.size(); i++) {
+			animations.get(i).dispose();
+		}
+		animations.clear();
+	}
+}
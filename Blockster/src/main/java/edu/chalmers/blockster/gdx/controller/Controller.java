@@ -1,43 +1,42 @@
 package edu.chalmers.blockster.gdx.controller;
 
-import static edu.chalmers.blockster.core.objects.movement.Direction.LEFT;
-import static edu.chalmers.blockster.core.objects.movement.Direction.NONE;
-import static edu.chalmers.blockster.core.objects.movement.Direction.RIGHT;
-
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.InputAdapter;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.utils.Disposable;
 
-import edu.chalmers.blockster.core.GameState;
+import edu.chalmers.blockster.core.FixedStepSimulator;
+import edu.chalmers.blockster.core.InputKey;
+import edu.chalmers.blockster.core.InputLog;
+import edu.chalmers.blockster.core.InputRecorder;
+import edu.chalmers.blockster.core.InputState;
 import edu.chalmers.blockster.core.MapChangeListener;
 import edu.chalmers.blockster.core.Model;
-import edu.chalmers.blockster.core.objects.Player;
+import edu.chalmers.blockster.core.TickListener;
 import edu.chalmers.blockster.gdx.view.GdxView;
 
 /**
  * Class to handle input and updating the model
  */
-public class Controller extends InputAdapter implements Disposable {
+public class Controller extends InputAdapter implements Disposable,
+		TickListener {
 
-	private volatile int keyFlags;
-	private volatile int miscFlags;
+	private static final Logger LOG = Logger.getLogger(Controller.class.getName());
+	private static final int CHECKPOINT_INTERVAL = 60;
 
-	private static final int LEFT_BUTTON_DOWN_FLAG = 1 << 0;
-	private static final int RIGHT_BUTTON_DOWN_FLAG = 1 << 1;
-	private static final int GRAB_BUTTON_DOWN_FLAG = 1 << 2;
-	private static final int GRAB_BUTTON_UP_FLAG = 1 << 3;
-	private static final int MENU_BUTTON_UP_FLAG = 1 << 4;
-	private static final int SWITCH_CHARACTER_BUTTON_UP_FLAG = 1 << 5;
-	private static final int RESTART_STAGE_BUTTON_R_FLAG = 1 << 6;
-	private static final int LEFT_BUTTON_UP_FLAG = 1 << 7;
-	private static final int RIGHT_BUTTON_UP_FLAG = 1 << 8;
-	private static final int CLIMB_BUTTON_DOWN_FLAG = 1 << 0;
-	private static final int CLIMB_BUTTON_UP_FLAG = 1 << 1;
-	private static final int TOGGLE_FULLSCREEN_FLAG = 1 << 2;
+	private final InputState input = new InputState();
+	private volatile boolean toggleFullScreen;
+	private volatile boolean toggleRecording;
+	private InputRecorder recorder;
+	private float stepTime = 1f / FixedStepSimulator.DEFAULT_TICK_RATE;
 
 	private Model model;
 	private GdxView view;
@@ -70,84 +69,6 @@ public class Controller extends InputAdapter implements Disposable {
 		Gdx.input.setInputProcessor(null);
 	}
 
-	private void handleGameConditions() {
-		if ((keyFlags & MENU_BUTTON_UP_FLAG) != 0) {
-			// Opening the level menu
-			keyFlags &= ~MENU_BUTTON_UP_FLAG;
-		}
-
-		if ((keyFlags & SWITCH_CHARACTER_BUTTON_UP_FLAG) != 0) {
-			// Switching active character
-			keyFlags &= ~SWITCH_CHARACTER_BUTTON_UP_FLAG;
-			
-			model.nextPlayer();
-		}
-
-		if ((keyFlags & RESTART_STAGE_BUTTON_R_FLAG) != 0) {
-			// Restart stage
-			keyFlags &= ~RESTART_STAGE_BUTTON_R_FLAG;
-			model.init();
-			setModel(model);
-			model.setGameState(GameState.GAME_RUNNING);
-		}
-
-		if ((miscFlags & TOGGLE_FULLSCREEN_FLAG) != 0) {
-			miscFlags &= ~TOGGLE_FULLSCREEN_FLAG;
-			view.toggleFullScreen();
-		}
-	}
-
-	private void handleInteractions() {
-		final Player activePlayer = model.getActivePlayer();
-
-		if ((keyFlags & GRAB_BUTTON_DOWN_FLAG) != 0) {
-			// Try to grab the adjacent block if possible and there is one.
-			activePlayer.startInteraction();
-		}
-
-		if ((keyFlags & GRAB_BUTTON_UP_FLAG) != 0) {
-			// Grab button was released
-			if (activePlayer.hasMovedBlock() || activePlayer.isLiftingBlock()) {
-				activePlayer.endInteraction();
-			} else {
-				activePlayer.liftBlock();
-			}
-			keyFlags &= ~GRAB_BUTTON_UP_FLAG;
-		}
-	}
-
-	private void handleMovement() {
-		final Player activePlayer = model.getActivePlayer();
-		if ((keyFlags & LEFT_BUTTON_DOWN_FLAG) != 0) {
-			// Character is moving left
-			activePlayer.setDirection(LEFT);
-			activePlayer.interact();
-		}
-
-		if ((keyFlags & LEFT_BUTTON_UP_FLAG) != 0) {
-			activePlayer.setDefaultVelocity(NONE);
-			keyFlags &= ~LEFT_BUTTON_UP_FLAG;
-		}
-
-		if ((keyFlags & RIGHT_BUTTON_UP_FLAG) != 0) {
-			activePlayer.setDefaultVelocity(NONE);
-			keyFlags &= ~RIGHT_BUTTON_UP_FLAG;
-		}
-
-		if ((keyFlags & RIGHT_BUTTON_DOWN_FLAG) != 0) {
-			// Character is moving right
-			activePlayer.setDirection(RIGHT);
-			activePlayer.interact();
-		}
-
-		if ((miscFlags & CLIMB_BUTTON_DOWN_FLAG) != 0) {
-			if (!activePlayer.isGrabbingBlock()) {
-				activePlayer.climbBlock();
-			}
-			miscFlags &= ~CLIMB_BUTTON_DOWN_FLAG;
-		}
-	}
-
 	/**
 	 * Initiates the listener.
 	 */
@@ -162,35 +83,9 @@ public class Controller extends InputAdapter implements Disposable {
 	 */
 	@Override
 	public boolean keyDown(int keyCode) {
-		if (keyCode == Keys.LEFT) {
-			/* Try to go left. If block is grabbed, try to push or pull it */
-
-			// Override rightwards movement. Can only move one direction at a
-			// time
-			keyFlags &= ~RIGHT_BUTTON_DOWN_FLAG;
-			keyFlags |= LEFT_BUTTON_DOWN_FLAG;
-		}
-
-		if (keyCode == Keys.RIGHT) {
-			/* Try to go right. If block is grabbed, try to push or pull it */
-
-			// Override leftwards movement. Can only move one direction at a
-			// time
-			keyFlags &= ~LEFT_BUTTON_DOWN_FLAG;
-			keyFlags |= RIGHT_BUTTON_DOWN_FLAG;
-		}
-
-		if (keyCode == Keys.SPACE) {
-			// Grab block
-			keyFlags |= GRAB_BUTTON_DOWN_FLAG;
-		}
-		if (keyCode == Keys.R) {
-			// Restart level
-			keyFlags |= RESTART_STAGE_BUTTON_R_FLAG;
-		}
-
-		if (keyCode == Keys.UP) {
-			miscFlags |= CLIMB_BUTTON_DOWN_FLAG;
+		final InputKey key = toInputKey(keyCode);
+		if (key != null) {
+			input.keyDown(key);
 		}
 
 		return false;
@@ -201,48 +96,53 @@ public class Controller extends InputAdapter implements Disposable {
 	 */
 	@Override
 	public boolean keyUp(int keyCode) {
-		if (keyCode == Keys.LEFT) {
-			// Stop going/pushing/pulling left.
-			keyFlags &= ~LEFT_BUTTON_DOWN_FLAG;
-			keyFlags |= LEFT_BUTTON_UP_FLAG;
-		}
-
-		if (keyCode == Keys.RIGHT) {
-			// Stop going/pushing/pulling right.
-			keyFlags &= ~RIGHT_BUTTON_DOWN_FLAG;
-			keyFlags |= RIGHT_BUTTON_UP_FLAG;
+		final InputKey key = toInputKey(keyCode);
+		if (key != null) {
+			input.keyUp(key);
 		}
 
-		if (keyCode == Keys.SPACE) {
-			// If block is grabbed and no other keys are pushed down, lift the
-			// block.
-
-			// This is how you set the flag to false
-			keyFlags &= ~GRAB_BUTTON_DOWN_FLAG;
-			// This is how you set the flag to true
-			keyFlags |= GRAB_BUTTON_UP_FLAG;
-		}
-
-		if (keyCode == Keys.ESCAPE) {
-			// Level menu
-			keyFlags |= MENU_BUTTON_UP_FLAG;
+		if (keyCode == Keys.F11) {
+			toggleFullScreen = true;
 		}
 
-		if (keyCode == Keys.SHIFT_LEFT || keyCode == Keys.SHIFT_RIGHT) {
-			// Switch character
-			keyFlags |= SWITCH_CHARACTER_BUTTON_UP_FLAG;
+		if (keyCode == Keys.F9) {
+			toggleRecording = true;
 		}
 
-		if (keyCode == Keys.UP) {
-			miscFlags &= ~CLIMB_BUTTON_DOWN_FLAG;
-			miscFlags |= CLIMB_BUTTON_UP_FLAG;
-		}
+		return false;
+	}
 
-		if (keyCode == Keys.F11) {
-			miscFlags |= TOGGLE_FULLSCREEN_FLAG;
+	private InputKey toInputKey(int keyCode) {
+		switch (keyCode) {
+		case Keys.LEFT:
+			return InputKey.LEFT;
+		case Keys.RIGHT:
+			return InputKey.RIGHT;
+		case Keys.SPACE:
+			return InputKey.GRAB;
+		case Keys.UP:
+			return InputKey.CLIMB;
+		case Keys.R:
+			return InputKey.RESTART;
+		case Keys.ESCAPE:
+			return InputKey.MENU;
+		case Keys.Z:
+			return InputKey.UNDO;
+		case Keys.Y:
+			return InputKey.REDO;
+		case Keys.SHIFT_LEFT:
+		case Keys.SHIFT_RIGHT:
+			return InputKey.SWITCH_CHARACTER;
+		default:
+			return null;
 		}
+	}
 
-		return false;
+	/**
+	 * Get the input state that key presses are stored in.
+	 */
+	public InputState getInputState() {
+		return input;
 	}
 
 	/**
@@ -260,14 +160,76 @@ public class Controller extends InputAdapter implements Disposable {
 	}
 
 	/**
-	 * Updates the game flow.
-	 * 
-	 * @param deltaTime
-	 *            The time between the current frame and the last one.
+	 * Set the time of a tick, which is stored in recordings.
+	 */
+	public void setStepTime(float stepTime) {
+		this.stepTime = stepTime;
+	}
+
+	/**
+	 * Applies the input to the model. Called once every tick.
+	 */
+	@Override
+	public void beforeTick(Model model) {
+		if (recorder != null) {
+			recorder.beforeTick(input.getKeyFlags());
+		}
+		if (input.apply(model)) {
+			setModel(model);
+		}
+	}
+
+	@Override
+	public void afterTick(Model model) {
+		if (recorder != null) {
+			recorder.afterTick(model);
+		}
+	}
+
+	/**
+	 * Updates what is not part of the game itself, i.e. full screen and
+	 * recording.
 	 */
 	public void update() {
-		handleMovement();
-		handleInteractions();
-		handleGameConditions();
+		if (toggleFullScreen) {
+			toggleFullScreen = false;
+			view.toggleFullScreen();
+		}
+
+		if (toggleRecording) {
+			toggleRecording = false;
+			if (recorder == null) {
+				startRecording();
+			} else {
+				saveRecording(recorder.finish(model));
+				recorder = null;
+			}
+		}
+	}
+
+	/**
+	 * Start recording the input. The stage is restarted in the first recorded
+	 * tick, so that the recording can be replayed from a new stage.
+	 */
+	private void startRecording() {
+		recorder = new InputRecorder(model.getName(), stepTime, CHECKPOINT_INTERVAL);
+		input.keyDown(InputKey.RESTART);
+	}
+
+	private void saveRecording(InputLog log) {
+		final FileHandle file = Gdx.files.local("replays/" + model.getName()
+				+ "-" + System.currentTimeMillis() + ".blkr");
+		final OutputStream out = file.write(false);
+		try {
+			try {
+				log.write(out);
+			} finally {
+				out.close();
+			}
+			LOG.info("Saved " + log.getTickCount() + " ticks of input to "
+					+ file.path());
+		} catch (IOException e) {
+			LOG.log(Level.WARNING, "Could not save the recording", e);
+		}
 	}
 }
\ No newline at end of file
@@ -1,11 +1,13 @@
 package edu.chalmers.blockster.gdx.view;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 
 import edu.chalmers.blockster.core.objects.World;
@@ -14,11 +16,22 @@ import edu.chalmers.blockster.core.objects.movement.Movement;
 
 public class AnimationFactory {
 
+	/**
+	 * The atlas packed by AtlasPacker from the pictures of the animations.
+	 */
+	public static final String ATLAS_PATH = "atlas/animations.atlas";
+	private static final String ANIMATION_DIRECTORY = "Animations/";
+
 	private final Map<Movement, Animation> dayArrayOfAnimations;
 	private final Map<Movement, Animation> nightArrayOfAnimations;
 	private final Map<Direction, Animation> dayWalkAnimations;
 	private final Map<Direction, Animation> nightWalkAnimations;
 	private final Animation bluePortalAnimations, yellowPortalAnimations;
+	private final TextureRegion[][] dayStandPics, nightStandPics;
+	/* The textures acquired from the cache, to release when disposed */
+	private final List<String> texturePaths = new ArrayList<String>();
+	/* The atlas the pictures are sliced from, or null for one texture each */
+	private TextureAtlas atlas;
 
 	private static final float ZERO_ONE_TIME = 0.1f;
 	
@@ -31,22 +44,35 @@ public class AnimationFactory {
 	private static final int SIX_PIC_WIDTH = 6;
 	
 	
+	/**
+	 * Create the animations from the packed atlas if there is one, and from
+	 * the separate pictures otherwise.
+	 */
 	public AnimationFactory() {
+		this(Gdx.files.internal(ATLAS_PATH).exists());
+	}
+
+	/**
+	 * @param useAtlas
+	 *            Whether to slice every animation from the packed atlas, so
+	 *            that they are all drawn from the same texture
+	 */
+	public AnimationFactory(boolean useAtlas) {
+		if (useAtlas) {
+			atlas = AssetCache.ATLASES.acquire(ATLAS_PATH);
+		}
 
+		dayStandPics = loadPictures("stand", 1);
+		nightStandPics = loadPictures("night_stand", 1);
 		dayWalkAnimations = generateWalkMap(World.DAY);
 		nightWalkAnimations = generateWalkMap(World.NIGHT);
 		dayArrayOfAnimations = generateAnimationMap(World.DAY);
 		nightArrayOfAnimations = generateAnimationMap(World.NIGHT);
 
-		final Texture bluePortal = new Texture(Gdx.files.internal("Animations/blue_portal.png"));
-		final Texture yellowPortal = new Texture(Gdx.files.internal("Animations/yellow_portal.png"));
-		
 		//split all the images into the TextureRegion matrix
-		final TextureRegion[][] bluePortalPics = TextureRegion.split(bluePortal, bluePortal.getWidth()/NBR_PORTAL_PIC_WIDTH,
-				bluePortal.getHeight()/NBR_PIC_HEIGHT);
+		final TextureRegion[][] bluePortalPics = loadPictures("blue_portal", NBR_PORTAL_PIC_WIDTH);
 
-		final TextureRegion[][] yellowPortalPics = TextureRegion.split(yellowPortal, yellowPortal.getWidth()/NBR_PORTAL_PIC_WIDTH,
-				yellowPortal.getHeight()/NBR_PIC_HEIGHT);
+		final TextureRegion[][] yellowPortalPics = loadPictures("yellow_portal", NBR_PORTAL_PIC_WIDTH);
 
 		TextureRegion[] tempBluePortal = new TextureRegion[NBR_PORTAL_PIC_WIDTH*NBR_PIC_HEIGHT];
 		TextureRegion[] tempYellowPortal = new TextureRegion[NBR_PORTAL_PIC_WIDTH*NBR_PIC_HEIGHT];
@@ -72,26 +98,19 @@ public class AnimationFactory {
 	private Map<Movement, Animation> generateAnimationMap(World world) {
 
 		final Map<Movement, Animation> animationMap = new HashMap<Movement, Animation>();
-		final String prefix = world == World.DAY ? "Animations/" : "Animations/night_";
-
-		final Texture grab = new Texture(Gdx.files.internal(prefix + "grab_animation.png"));
-		final Texture push = new Texture(Gdx.files.internal(prefix + "push_animation.png"));
-		final Texture pull = new Texture(Gdx.files.internal(prefix + "pull_animation.png"));
-		final Texture carry = new Texture(Gdx.files.internal(prefix + "lift_animation.png"));
-		final Texture jump = new Texture(Gdx.files.internal(prefix + "jump.png"));
-		final Texture liftJump = new Texture(Gdx.files.internal(prefix + "jump_with_block.png"));
+		final String prefix = world == World.DAY ? "" : "night_";
 
-		final TextureRegion[][] grabPics = TextureRegion.split(grab, grab.getWidth()/THREE_PIC_WIDTH, grab.getHeight()/NBR_PIC_HEIGHT);
+		final TextureRegion[][] grabPics = loadPictures(prefix + "grab_animation", THREE_PIC_WIDTH);
 
-		final TextureRegion[][] pushPics = TextureRegion.split(push, push.getWidth()/SIX_PIC_WIDTH, push.getHeight()/NBR_PIC_HEIGHT);
+		final TextureRegion[][] pushPics = loadPictures(prefix + "push_animation", SIX_PIC_WIDTH);
 
-		final TextureRegion[][] carryPics = TextureRegion.split(carry, carry.getWidth()/SIX_PIC_WIDTH, carry.getHeight()/NBR_PIC_HEIGHT);
+		final TextureRegion[][] carryPics = loadPictures(prefix + "lift_animation", SIX_PIC_WIDTH);
 
-		final TextureRegion[][] jumpPics = TextureRegion.split(jump, jump.getWidth()/TWO_PIC_WIDTH, jump.getHeight()/NBR_PIC_HEIGHT);
+		final TextureRegion[][] jumpPics = loadPictures(prefix + "jump", TWO_PIC_WIDTH);
 		
-		final TextureRegion[][] jumpWithBlockPics = TextureRegion.split(liftJump, liftJump.getWidth()/TWO_PIC_WIDTH, liftJump.getHeight()/NBR_PIC_HEIGHT);
+		final TextureRegion[][] jumpWithBlockPics = loadPictures(prefix + "jump_with_block", TWO_PIC_WIDTH);
 		
-		final TextureRegion[][] pullPics = TextureRegion.split(pull, pull.getWidth()/SIX_PIC_WIDTH, pull.getHeight()/NBR_PIC_HEIGHT);
+		final TextureRegion[][] pullPics = loadPictures(prefix + "pull_animation", SIX_PIC_WIDTH);
 
 		TextureRegion[] tempGrabLeft = new TextureRegion[THREE_PIC_WIDTH];
 		TextureRegion[] tempGrabRight = new TextureRegion[THREE_PIC_WIDTH];
@@ -189,12 +208,8 @@ public class AnimationFactory {
 		final Map<Direction, Animation> walkMap = new HashMap<Direction, Animation>();
 		final String prefix = world == World.DAY ? "" : "night_";
 
-		final Texture playerWalk = new Texture(Gdx.files.internal("Animations/" +
-				prefix + "walk_animation1.png"));
-
 		//split all the images into the TextureRegion matrix
-		final TextureRegion[][] walkPics = TextureRegion.split(playerWalk, 
-				playerWalk.getWidth()/NBR_WALK_PIC_WIDTH, playerWalk.getHeight()/NBR_PIC_HEIGHT);
+		final TextureRegion[][] walkPics = loadPictures(prefix + "walk_animation1", NBR_WALK_PIC_WIDTH);
 		final TextureRegion[] tempWalkLeft = new TextureRegion[NBR_WALK_PIC_WIDTH];
 		final TextureRegion[] tempWalkRight = new TextureRegion[NBR_WALK_PIC_WIDTH];
 
@@ -225,4 +240,48 @@ public class AnimationFactory {
 		return color == 0 ? bluePortalAnimations : yellowPortalAnimations;
 	}
 
+	public TextureRegion getStandPicture(World world, Direction direction) {
+		final TextureRegion[][] standPics = world == World.DAY ? dayStandPics : nightStandPics;
+		return direction == Direction.LEFT ? standPics[1][0] : standPics[0][0];
+	}
+
+	/**
+	 * Release the textures of the animations. The animations must not be
+	 * drawn afterwards.
+	 */
+	public void dispose() {
+		for (final String path : texturePaths) {
+			AssetCache.TEXTURES.release(path);
+		}
+		texturePaths.clear();
+		if (atlas != null) {
+			AssetCache.ATLASES.release(ATLAS_PATH);
+			atlas = null;
+		}
+	}
+
+	/**
+	 * Split a picture with the frames of the right direction above those of
+	 * the left direction into its frames.
+	 */
+	private TextureRegion[][] loadPictures(String name, int frames) {
+		final TextureRegion picture = loadPicture(name);
+		return picture.split(picture.getRegionWidth()/frames, picture.getRegionHeight()/NBR_PIC_HEIGHT);
+	}
+
+	private TextureRegion loadPicture(String name) {
+		if (atlas == null) {
+			final String path = ANIMATION_DIRECTORY + name + ".png";
+			texturePaths.add(path);
+			return new TextureRegion(AssetCache.TEXTURES.acquire(path));
+		}
+
+		final TextureRegion picture = atlas.findRegion(name);
+		if (picture == null) {
+			throw new IllegalStateException("The atlas " + ATLAS_PATH
+					+ " has no picture " + name + ". Pack it again.");
+		}
+		return picture;
+	}
+
 }
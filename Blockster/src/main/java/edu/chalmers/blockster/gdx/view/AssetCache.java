@@ -0,0 +1,106 @@
+package edu.chalmers.blockster.gdx.view;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Assets shared by everything that uses them. An asset is loaded the first
+ * time it is acquired and disposed of as soon as the last user has released
+ * it, so every asset is only loaded once no matter how many stages, players
+ * or views use it. Every acquire must be matched by a release.
+ */
+public class AssetCache<T extends Disposable> {
+
+	/**
+	 * Loads an asset that is not in the cache.
+	 */
+	public interface Loader<T> {
+		T load(String path);
+	}
+
+	/**
+	 * The textures of the game, by internal file path.
+	 */
+	public static final AssetCache<Texture> TEXTURES = new AssetCache<Texture>(
+			new Loader<Texture>() {
+				@Override
+				public Texture load(String path) {
+					return new Texture(Gdx.files.internal(path));
+				}
+			});
+
+	/**
+	 * The texture atlases of the game, by internal file path.
+	 */
+	public static final AssetCache<TextureAtlas> ATLASES = new AssetCache<TextureAtlas>(
+			new Loader<TextureAtlas>() {
+				@Override
+				public TextureAtlas load(String path) {
+					return new TextureAtlas(Gdx.files.internal(path));
+				}
+			});
+
+	private final Loader<T> loader;
+	private final Map<String, T> assets;
+	private final Map<String, Integer> references;
+
+	public AssetCache(Loader<T> loader) {
+		this.loader = loader;
+		assets = new HashMap<String, T>();
+		references = new HashMap<String, Integer>();
+	}
+
+	/**
+	 * Get the asset at the given path, loading it if nobody else uses it.
+	 */
+	public synchronized T acquire(String path) {
+		T asset = assets.get(path);
+		if (asset == null) {
+			asset = loader.load(path);
+			assets.put(path, asset);
+			references.put(path, 1);
+		} else {
+			references.put(path, references.get(path) + 1);
+		}
+		return asset;
+	}
+
+	/**
+	 * Stop using the asset at the given path. It is disposed of if nobody
+	 * else uses it.
+	 */
+	public synchronized void release(String path) {
+		final Integer count = references.get(path);
+		if (count == null) {
+			throw new IllegalArgumentException("Asset " + path
+					+ " is not acquired.");
+		}
+
+		if (count == 1) {
+			references.remove(path);
+			assets.remove(path).dispose();
+		} else {
+			references.put(path, count - 1);
+		}
+	}
+
+	/**
+	 * Get the number of users of the asset at the given path.
+	 */
+	public synchronized int getReferenceCount(String path) {
+		final Integer count = references.get(path);
+		return count == null ? 0 : count;
+	}
+
+	/**
+	 * Get the number of assets that are loaded.
+	 */
+	public synchronized int size() {
+		return assets.size();
+	}
+}
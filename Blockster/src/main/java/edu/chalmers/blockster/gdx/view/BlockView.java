@@ -28,6 +28,8 @@ public class BlockView implements TiledMapTile {
 	private final Block block;
 	private final Sprite sprite;
 
+	private final Vector2f relativePosition = new Vector2f();
+
 	private float rotation;
 	private float previousRotation;
 	private boolean hasSetPreviousRotation;
@@ -39,8 +41,14 @@ public class BlockView implements TiledMapTile {
 		sprite = new Sprite(region);
 	}
 
-	public void draw(SpriteBatch batch) {
-		sprite.setPosition(getX()*region.getRegionWidth(), getY()*region.getRegionHeight());
+	/**
+	 * Draw the block between its previous and current position.
+	 * @param batch	The batch to draw with
+	 * @param alpha	How far to go from the previous position, in [0, 1]
+	 */
+	public void draw(SpriteBatch batch, float alpha) {
+		sprite.setPosition(block.getInterpolatedX(alpha) * region.getRegionWidth(),
+				block.getInterpolatedY(alpha) * region.getRegionHeight());
 		evaluateRotation();
 
 		sprite.draw(batch);
@@ -134,7 +142,7 @@ public class BlockView implements TiledMapTile {
 
 	private void updateRotation() {
 		final AnimationState anim = block.getAnimationState();
-		final Vector2f v = anim.getRelativePosition();
+		final Vector2f v = anim.getRelativePosition(relativePosition);
 		switch (anim.getMovement().getDirection()) {
 		case UP_LEFT:
 			rotation = (float) (360d * Math.atan2(v.y, 1 + v.x) / (2 * Math.PI));
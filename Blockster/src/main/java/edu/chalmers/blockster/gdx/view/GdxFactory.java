@@ -33,7 +33,7 @@ public class GdxFactory implements Factory {
 	private final int blockHeight;
 	private final List<Point> playerStartingPositions;
 	private final TiledMapTileLayer tileLayer;
-	private final AnimationFactory animFactory = new AnimationFactory();
+	private final AnimationFactory animFactory;
 
 	private PortalView bluePortalView;
 	private PortalView yellowPortalView;
@@ -42,7 +42,16 @@ public class GdxFactory implements Factory {
 		return gdxMap;
 	}
 
-	public GdxFactory(TiledMap map) {
+	/**
+	 * @param map
+	 *            The map of the stage
+	 * @param animFactory
+	 *            The animations of the stage. They need the GL context,
+	 *            unlike the rest of the factory, so they are made by the
+	 *            caller.
+	 */
+	public GdxFactory(TiledMap map, AnimationFactory animFactory) {
+		this.animFactory = animFactory;
 		playerStartingPositions = getPlayerStartingPositions(map);
 		final MapLayer mapLayer = map.getLayers().get(0);
 		if(mapLayer instanceof TiledMapTileLayer) {
@@ -149,4 +158,21 @@ public class GdxFactory implements Factory {
 	public PortalView getPortalView(int color) {
 		return color == 0 ? bluePortalView : yellowPortalView;
 	}
+
+	/**
+	 * Get the animations of the stage, which are shared by all players.
+	 */
+	public AnimationFactory getAnimationFactory() {
+		return animFactory;
+	}
+
+	/**
+	 * Release the textures of the stage.
+	 */
+	public void dispose() {
+		animFactory.dispose();
+		if (miniMap != null) {
+			miniMap.dispose();
+		}
+	}
 }
\ No newline at end of file
@@ -22,9 +22,8 @@ import com.badlogic.gdx.utils.Disposable;
 
 import edu.chalmers.blockster.core.GameState;
 import edu.chalmers.blockster.core.Model;
-import edu.chalmers.blockster.core.objects.Block;
+import edu.chalmers.blockster.core.objects.BlockMap;
 import edu.chalmers.blockster.core.objects.Player;
-import edu.chalmers.blockster.core.objects.World;
 
 /**
  * @author Joel Tegman, Oskar Jönefors
@@ -33,6 +32,10 @@ public class GdxView implements ApplicationListener, Disposable {
 
 	private static final Logger LOG = Logger.getLogger(GdxView.class.getName());
 
+	private static final String WIN_PICTURE = "menuPics/logo.png";
+	private static final String BACKGROUND_DAY = "images/background_day.jpg";
+	private static final String BACKGROUND_NIGHT = "images/background_night.jpg";
+
 	private OrthographicCamera camera;
 	private SpriteBatch hudBatch;
 	private final Model model;
@@ -46,6 +49,10 @@ public class GdxView implements ApplicationListener, Disposable {
 
 	private PortalView bluePortalView;
 	private PortalView yellowPortalView;
+	private Texture winPicture;
+
+	/* Draw the latest update until told otherwise */
+	private float interpolationAlpha = 1f;
 
 	public GdxView(Model model, GdxFactory factory) {
 		this.model = model;
@@ -56,6 +63,16 @@ public class GdxView implements ApplicationListener, Disposable {
 	public void dispose() {
 		stage.dispose();
 		renderer.dispose();
+		hudBatch.dispose();
+		players.clear();
+
+		AssetCache.TEXTURES.release(BACKGROUND_DAY);
+		AssetCache.TEXTURES.release(BACKGROUND_NIGHT);
+		if (winPicture != null) {
+			AssetCache.TEXTURES.release(WIN_PICTURE);
+			winPicture = null;
+		}
+		factory.dispose();
 	}
 
 	/**
@@ -73,8 +90,10 @@ public class GdxView implements ApplicationListener, Disposable {
 
 				/* Follow the active player */
 				final Player activePlayer = model.getActivePlayer();
-				final float activePlayerX = activePlayer.getX();
-				final float activePlayerY = activePlayer.getY();
+				final float activePlayerX = activePlayer
+						.getInterpolatedX(interpolationAlpha);
+				final float activePlayerY = activePlayer
+						.getInterpolatedY(interpolationAlpha);
 
 				camera.position.set(activePlayerX, activePlayerY, 0);
 
@@ -100,16 +119,36 @@ public class GdxView implements ApplicationListener, Disposable {
 			drawObjects();
 			
 		} else if (model.getGameState() == GameState.GAME_WON) {
-			final Texture winPic = new Texture("menuPics/logo.png");
-			final SpriteBatch batch = new SpriteBatch();
+			if (winPicture == null) {
+				winPicture = AssetCache.TEXTURES.acquire(WIN_PICTURE);
+			}
 			
-			batch.begin();
-			batch.draw(winPic, (Gdx.graphics.getWidth() - (float) winPic.getWidth())/2f,
-							(Gdx.graphics.getHeight() - (float) winPic.getHeight())/2f);
-			batch.end();
+			hudBatch.begin();
+			hudBatch.draw(winPicture, (Gdx.graphics.getWidth() - (float) winPicture.getWidth())/2f,
+							(Gdx.graphics.getHeight() - (float) winPicture.getHeight())/2f);
+			hudBatch.end();
 		}
 	}
 
+	/**
+	 * Set how far the model has come between its last update and the next,
+	 * so that objects can be drawn between the two.
+	 *
+	 * @param alpha
+	 *            A value in [0, 1]
+	 */
+	public void setInterpolationAlpha(float alpha) {
+		interpolationAlpha = alpha;
+	}
+
+	public float getInterpolationAlpha() {
+		return interpolationAlpha;
+	}
+
+	public Model getModel() {
+		return model;
+	}
+
 	/**
 	 * Initialize the view.
 	 */
@@ -130,8 +169,8 @@ public class GdxView implements ApplicationListener, Disposable {
 		setWindowMode();
 
 		/* Add the background */
-		background = new BackgroundImage(new TextureRegion(new Texture("images/background_day.jpg")),
-				new TextureRegion(new Texture("images/background_night.jpg")));
+		background = new BackgroundImage(new TextureRegion(AssetCache.TEXTURES.acquire(BACKGROUND_DAY)),
+				new TextureRegion(AssetCache.TEXTURES.acquire(BACKGROUND_NIGHT)));
 		
 
 		hudBatch = new SpriteBatch();
@@ -146,8 +185,8 @@ public class GdxView implements ApplicationListener, Disposable {
 	
 	public void transitCamera() {
 		final Player activePlayer = model.getActivePlayer();
-		final float playerX = activePlayer.getX();
-		final float playerY = activePlayer.getY();
+		final float playerX = activePlayer.getInterpolatedX(interpolationAlpha);
+		final float playerY = activePlayer.getInterpolatedY(interpolationAlpha);
 		
 		final Vector3 cameraMoveVector = new Vector3(playerX, playerY, 0);
 
@@ -249,17 +288,17 @@ public class GdxView implements ApplicationListener, Disposable {
 			final boolean active = model.getActivePlayer().equals(
 					pView.getPlayer()) ? true : false;
 			
-			pView.draw(batch, active);
+			pView.draw(batch, active, interpolationAlpha);
 		}
 
 	}
 
 	private void drawBlocks(SpriteBatch batch) {
-
-		for (final Block block : model.getMap().getActiveBlocks()) {
-			final BlockView bView = gdxMap.getBlockView(block);
+		final BlockMap map = model.getMap();
+		for (int i = 0; i < map.getActiveBlockCount(); i++) {
+			final BlockView bView = gdxMap.getBlockView(map.getActiveBlock(i));
 			if (bView != null) {
-				bView.draw(batch);
+				bView.draw(batch, interpolationAlpha);
 			}
 		}
 	}
@@ -316,10 +355,6 @@ public class GdxView implements ApplicationListener, Disposable {
 	}
 
 	public PlayerView createPlayerView(Player player) {
-
-		final AnimationFactory animF = new AnimationFactory();
-		final World pWorld = player.getWorld();
-		return new PlayerView(player, animF.getArrayOfAnimations(pWorld),
-				animF.getWalkAnimations(pWorld));
+		return new PlayerView(player, factory.getAnimationFactory());
 	}
 }
@@ -0,0 +1,50 @@
+package edu.chalmers.blockster.gdx.view;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Shows how far the loading of the stages has come, as a bar in the middle
+ * of the screen.
+ */
+public class LoadingView implements Disposable {
+
+	/* The width of the bar, as part of the screen width */
+	private static final float BAR_WIDTH = 0.6f;
+	private static final float BAR_HEIGHT = 20f;
+	private static final float BORDER = 2f;
+
+	private final ShapeRenderer renderer = new ShapeRenderer();
+
+	/**
+	 * Draw the bar.
+	 * @param progress	How far the loading has come, in [0, 1]
+	 */
+	public void render(float progress) {
+		final float width = Gdx.graphics.getWidth();
+		final float height = Gdx.graphics.getHeight();
+		final float barWidth = width * BAR_WIDTH;
+		final float x = (width - barWidth) / 2f;
+		final float y = (height - BAR_HEIGHT) / 2f;
+
+		renderer.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+		renderer.begin(ShapeType.Filled);
+		renderer.setColor(Color.GRAY);
+		renderer.rect(x - BORDER, y - BORDER, barWidth + 2 * BORDER,
+				BAR_HEIGHT + 2 * BORDER);
+		renderer.setColor(Color.BLACK);
+		renderer.rect(x, y, barWidth, BAR_HEIGHT);
+		renderer.setColor(Color.WHITE);
+		renderer.rect(x, y, barWidth * Math.max(0, Math.min(progress, 1)),
+				BAR_HEIGHT);
+		renderer.end();
+	}
+
+	@Override
+	public void dispose() {
+		renderer.dispose();
+	}
+}
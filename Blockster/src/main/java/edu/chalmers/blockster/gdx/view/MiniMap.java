@@ -1,6 +1,7 @@
 package edu.chalmers.blockster.gdx.view;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -12,6 +13,7 @@ import com.badlogic.gdx.graphics.Pixmap.Format;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.Disposable;
 
 import edu.chalmers.blockster.core.objects.ActiveBlockListener;
 import edu.chalmers.blockster.core.objects.Block;
@@ -19,173 +21,264 @@ import edu.chalmers.blockster.core.objects.BlockMapListener;
 import edu.chalmers.blockster.core.objects.EmptyBlock;
 import edu.chalmers.blockster.core.objects.Player;
 
-public class MiniMap implements BlockMapListener, ActiveBlockListener {
+/**
+ * A small map of the area around the active player.
+ *
+ * The blocks in the grid are drawn once into a texture that is kept between
+ * frames. After that only the cells reported as changed by the map are drawn
+ * and uploaded again, and everything that moves, i.e. the active blocks, the
+ * players and the viewport, is drawn on top of it as plain rectangles. The
+ * cost of a frame thereby follows what has changed, not the size of the map.
+ *
+ * Maps larger than the shown region are drawn in cropped mode, where the
+ * texture only covers a fixed size window of cells around the player. The
+ * window is drawn again from the index of cells when the shown region leaves
+ * it. The index of cells only allocates the chunks of the map that hold
+ * blocks, so memory follows the blocks rather than the size of the map.
+ */
+public class MiniMap implements BlockMapListener, ActiveBlockListener,
+		Disposable {
+
+	/* Changing more cells than this at once uploads the whole texture */
+	private static final int MAX_CELL_UPLOADS = 64;
+	private static final float ORIGIN = 5f;
+	private static final float ALPHA = 0.6f;
+	/* Width and height in cells of the window in cropped mode. It is larger
+	 * than the shown region, so that it is only moved, and drawn again, every
+	 * few cells that the player walks */
+	private static final int WINDOW_SIZE = 48;
+
+	/* The blocks in the grid are indexed by square chunks of cells, which are
+	 * only allocated while they hold a block */
+	private static final int CHUNK_SHIFT = 5;
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
 
 	private final Set<Block> activeBlocks;
-	private final Set<Block> staticBlocks;
+	private final int chunksWide;
+	private final Chunk[] chunks;
+	private int allocatedChunks;
 	private int scaleX;
-	
+
 
 	private int scaleY;
 	private static final float OFFSET_X = 16f;
 	private static final float OFFSET_Y = 16f;
 	private Player activePlayer;
 	private final Sprite minimapSprite;
-	
-	private Texture previousTexture;
-	private Pixmap previousPixmap;
+
+	private Pixmap staticPixmap;
+	private Texture staticTexture;
+	private Pixmap cellPixmap;
+	private Texture pixel;
+	private final Color overlayColor;
+
+	/* Cells of the static texture changed since it was last updated, by
+	 * their index in the texture */
+	private boolean[] changed;
+	private int[] changedCells;
+	private int changedCount;
+
+	/* The cells the static texture covers: the whole map, or in cropped mode
+	 * a window that follows the player */
+	private boolean cropped;
+	private boolean windowPlaced;
+	private int layerX, layerY, layerWidth, layerHeight;
+
+	/* The part of the map that is shown, in pixels from the top left corner
+	 * of the whole map */
+	private int regionX, regionY, regionWidth, regionHeight;
+
 	private final int width, height;
 	private List<Point2D.Float> playerPos;
-	
+
 	private float viewX, viewY, viewportWidth, viewportHeight;
 	public static final int NO_BLOCK = Color.rgba8888(0, 0, 0, 1f);
-	public static final int SOLID_BLOCK = Color.rgba8888(0.8f, 0.8f, 0.8f, 1f); 
+	public static final int SOLID_BLOCK = Color.rgba8888(0.8f, 0.8f, 0.8f, 1f);
 	public static final int LIFTABLE_BLOCK = Color.rgba8888(0.8f, 0, 0, 1f);
 	public static final int VIEWPORT = Color.rgba8888(1f, 1f, 1f, 0.15f);
 	public static final int ACTIVE_PLAYER = Color.rgba8888(1f, 1f, 0, 1f);
-	
+
 	public static final int INACTIVE_PLAYER = Color.rgba8888(0, 0, 1f, 1f);
-	
+
+	/* Reused every frame */
+	private final Bounds drawBounds = new Bounds();
+	private final Bounds textureBounds = new Bounds();
+
 	private static class Bounds {
-		
-		private final float x, y, width, height;
-		
-		public Bounds(float x, float y, float width, float height) {
+
+		private float x, y, width, height;
+
+		public void set(float x, float y, float width, float height) {
 			this.x = x;
 			this.y = y;
 			this.width = width;
 			this.height = height;
 		}
-		
+
 		public boolean contains(float x, float y) {
 			return x >= this.x - 3 && x < this.x + width + 3
 					&& y >= this.y - 3 && y < this.y + height + 3;
 		}
-		
+
 		public String toString() {
 			return "Bounds X:" + x + " Y: " + y +
 					" Width: " + width + " Height: " + height;
 		}
 	}
-	
+
+	private static final class Chunk {
+		private final Block[] blocks = new Block[CHUNK_SIZE * CHUNK_SIZE];
+		private int count;
+	}
+
 	public MiniMap (int mapWidth, int mapHeight, Player activePlayer) {
 		this.scaleX = 1;
 		this.scaleY = 1;
 		this.width = mapWidth;
 		this.height = mapHeight;
-		
+
 		viewportWidth = 0;
 		viewportHeight = 0;
-		
+
 		activeBlocks = new HashSet<Block>();
-		staticBlocks = new HashSet<Block>();
-		
+		chunksWide = (mapWidth + CHUNK_MASK) >> CHUNK_SHIFT;
+		chunks = new Chunk[chunksWide * ((mapHeight + CHUNK_MASK) >> CHUNK_SHIFT)];
+		changedCells = new int[16];
+		cropped = mapWidth > WINDOW_SIZE || mapHeight > WINDOW_SIZE;
+
 		playerPos = new ArrayList<Point2D.Float>();
-		
+
 		minimapSprite = new Sprite();
 		minimapSprite.setColor(1, 1, 1, 1);
-		
+		overlayColor = new Color();
+
 		this.activePlayer = activePlayer;
 	}
-	
+
 	@Override
 	public void blockActivated(Block block) {
 		if (!(block instanceof EmptyBlock)) {
 			activeBlocks.add(block);
 		}
 	}
-	
+
 	@Override
 	public void blockDeactivated(Block block) {
 		if (!(block instanceof EmptyBlock)) {
 			activeBlocks.remove(block);
 		}
 	}
-	
+
 	@Override
 	public void blockInserted(Block block) {
-		if (!(block instanceof EmptyBlock)) {
-			staticBlocks.add(block);
+		final int x = Math.round(block.getOriginX());
+		final int y = Math.round(block.getOriginY());
+		if (!(block instanceof EmptyBlock) && isInside(x, y)) {
+			setCell(x, y, block);
+			cellChanged(x, y);
 		}
 	}
-	
+
 	@Override
 	public void blockRemoved(Block block) {
-		if (!(block instanceof EmptyBlock)) {
-			staticBlocks.remove(block);
+		final int x = Math.round(block.getOriginX());
+		final int y = Math.round(block.getOriginY());
+		if (!(block instanceof EmptyBlock) && isInside(x, y)
+				&& getCell(x, y) == block) {
+			setCell(x, y, null);
+			cellChanged(x, y);
 		}
 	}
-	
+
+	/**
+	 * Get the color the given cell has on the map, not counting the blocks
+	 * and players that move.
+	 */
+	public int getCellColor(int x, int y) {
+		final Block block = getCell(x, y);
+		return block == null ? NO_BLOCK : getColor(block);
+	}
+
+	/**
+	 * Get the number of chunks of the index of cells that hold a block.
+	 */
+	public int getAllocatedChunks() {
+		return allocatedChunks;
+	}
+
 	public void draw(SpriteBatch batch) {
-		final Pixmap spritePixmap = getMinimapPixmap(getDrawBounds());
-		final Texture spriteTexture = new Texture(spritePixmap);
-		
-		if (previousTexture != null) {
-			previousTexture.dispose();
-		}
-		if (previousPixmap != null) {
-			previousPixmap.dispose();
-		}
-		
-		prepareSprite(minimapSprite, spriteTexture);
-		
+		prepareRegion();
+		final boolean moved = placeLayer();
+		if (staticTexture == null) {
+			createStaticLayer();
+		} else if (moved) {
+			drawLayer();
+			staticTexture.draw(staticPixmap, 0, 0);
+			clearChangedCells();
+		} else {
+			updateStaticLayer();
+		}
+
+		prepareSprite(minimapSprite, staticTexture);
+
 		final Color previousColor = batch.getColor();
-		batch.setColor(previousColor.r, previousColor.g, previousColor.b, 0.6f);
-		
-		batch.draw(minimapSprite, 5, 5);
-		previousTexture = spriteTexture;
-		previousPixmap = spritePixmap;
-	}
-	
-	private void drawActiveBlocks(Pixmap pixmap, Bounds bounds) {
+		final float r = previousColor.r;
+		final float g = previousColor.g;
+		final float b = previousColor.b;
+		final float a = previousColor.a;
+		batch.setColor(r, g, b, ALPHA);
+
+		batch.draw(minimapSprite, ORIGIN, ORIGIN);
+
+		final Bounds bounds = getDrawBounds();
+		drawActiveBlocks(batch, bounds);
+		drawPlayers(batch, bounds);
+		drawViewport(batch);
+
+		batch.setColor(r, g, b, a);
+	}
+
+	/**
+	 * Release the textures of the map. They are created again the next time
+	 * the map is drawn.
+	 */
+	@Override
+	public void dispose() {
+		disposeStaticLayer();
+		if (pixel != null) {
+			pixel.dispose();
+			pixel = null;
+		}
+	}
+
+	private void drawActiveBlocks(SpriteBatch batch, Bounds bounds) {
 		for (final Block block : activeBlocks) {
 			final float x = block.getX();
 			final float y = block.getY();
 			if (bounds.contains(x, y)) {
-				pixmap.setColor(getColor(block));
-				pixmap.fillRectangle(Math.round(x * scaleX), 
-						getPixMapY(pixmap, Math.round((y+1) * scaleY)), 
+				fillRectangle(batch, getColor(block), Math.round(x * scaleX),
+						getPixMapY(Math.round((y+1) * scaleY)),
 						scaleX, scaleY);
-				
+
 			}
 		}
 	}
-	
-	private void drawBackground(Pixmap pixmap) {
-		pixmap.setColor(NO_BLOCK);
-		pixmap.fill();
-	}
-	
-	private void drawPlayers(Pixmap pixmap, Bounds bounds) {
-		pixmap.setColor(INACTIVE_PLAYER);
+
+	private void drawPlayers(SpriteBatch batch, Bounds bounds) {
 		for(final Point2D.Float point : playerPos) {
 			final int r = (int) Math.round(scaleX*0.5);
 			if (bounds.contains(point.x, point.y)) {
-				pixmap.setColor(ACTIVE_PLAYER);
-				pixmap.fillCircle(Math.round(point.x * scaleX), 
-						getPixMapY(pixmap, Math.round((point.y+0.3f) * scaleY)), 
-								r);
+				fillRectangle(batch, ACTIVE_PLAYER,
+						Math.round(point.x * scaleX) - r,
+						getPixMapY(Math.round((point.y+0.3f) * scaleY)) - r,
+						2 * r, 2 * r);
 			}
 
 		}
 	}
-	
-	private void drawStaticBlocks(Pixmap pixmap, Bounds bounds) {
-		for (final Block block : staticBlocks) {
-			final float x = block.getX();
-			final float y = block.getY() + 1;
-			if (bounds.contains(x, y)) {
-				pixmap.setColor(getColor(block));
-				pixmap.fillRectangle(Math.round(x * scaleX), 
-						getPixMapY(pixmap, Math.round(y * scaleY)), 
-						scaleX, scaleY);
-				
-			}
-		}
-	}
 
-	private void drawViewport(Pixmap pixmap) {
-		pixmap.setColor(VIEWPORT);
+	private void drawViewport(SpriteBatch batch) {
 		final int x = Math.max(1, Math.round(viewX * scaleX));
 		final int y = Math.max(1, Math.round(viewY * scaleY));
 		int recWidth = Math.round(viewportWidth * scaleX);
@@ -194,15 +287,240 @@ public class MiniMap implements BlockMapListener, ActiveBlockListener {
 		if (recWidth + x >= this.width * scaleX) {
 			recWidth = this.width * scaleX - x - 1;
 		}
-		
+
 		if (recHeight + y >= this.height * scaleY) {
 			recHeight = this.height * scaleY - y - 1;
 		}
-		
-		
-		pixmap.fillRectangle(x, y, recWidth, recHeight);
+
+
+		fillRectangle(batch, VIEWPORT, x, y, recWidth, recHeight);
+	}
+
+	/**
+	 * Draw a rectangle, given in the coordinates of the static texture, on
+	 * top of the part of the map that is shown.
+	 */
+	private void fillRectangle(SpriteBatch batch, int color, int x, int y,
+			int rectWidth, int rectHeight) {
+		final int left = Math.max(x, regionX);
+		final int right = Math.min(x + rectWidth, regionX + regionWidth);
+		final int top = Math.max(y, regionY);
+		final int bottom = Math.min(y + rectHeight, regionY + regionHeight);
+		if (left >= right || top >= bottom) {
+			return;
+		}
+
+		if (pixel == null) {
+			final Pixmap white = new Pixmap(1, 1, Format.RGBA8888);
+			white.setColor(Color.WHITE);
+			white.fill();
+			pixel = new Texture(white);
+			white.dispose();
+		}
+
+		overlayColor.set(color);
+		batch.setColor(overlayColor.r, overlayColor.g, overlayColor.b,
+				overlayColor.a * ALPHA);
+		batch.draw(pixel, ORIGIN + left - regionX,
+				ORIGIN + regionHeight - (bottom - regionY), right - left,
+				bottom - top);
+	}
+
+	private void createStaticLayer() {
+		staticPixmap = new Pixmap(layerWidth * scaleX,
+				layerHeight * scaleY, Format.RGBA8888);
+		drawLayer();
+
+		staticTexture = new Texture(staticPixmap);
+		cellPixmap = new Pixmap(scaleX, scaleY, Format.RGBA8888);
+		changed = new boolean[layerWidth * layerHeight];
+		clearChangedCells();
+	}
+
+	/**
+	 * Draw every cell the static texture covers, looking only at the cells
+	 * inside it.
+	 */
+	private void drawLayer() {
+		staticPixmap.setColor(NO_BLOCK);
+		staticPixmap.fill();
+
+		final int minX = Math.max(layerX, 0);
+		final int maxX = Math.min(layerX + layerWidth, width);
+		final int minY = Math.max(layerY, 0);
+		final int maxY = Math.min(layerY + layerHeight, height);
+		for (int y = minY; y < maxY; y++) {
+			for (int x = minX; x < maxX; x++) {
+				if (getCell(x, y) != null) {
+					drawCell(x, y);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Draw the cells that have changed since the last frame into the static
+	 * texture, uploading only those cells unless there are many of them.
+	 */
+	private void updateStaticLayer() {
+		if (changedCount == 0) {
+			return;
+		}
+
+		final boolean uploadAll = changedCount > MAX_CELL_UPLOADS;
+		for (int i = 0; i < changedCount; i++) {
+			final int x = layerX + changedCells[i] % layerWidth;
+			final int y = layerY + changedCells[i] / layerWidth;
+			final int color = drawCell(x, y);
+			if (!uploadAll) {
+				cellPixmap.setColor(color);
+				cellPixmap.fill();
+				staticTexture.draw(cellPixmap, getLayerX(x), getLayerY(y));
+			}
+		}
+		if (uploadAll) {
+			staticTexture.draw(staticPixmap, 0, 0);
+		}
+		clearChangedCells();
+	}
+
+	private int drawCell(int x, int y) {
+		final int color = getCellColor(x, y);
+		staticPixmap.setColor(color);
+		staticPixmap.fillRectangle(getLayerX(x), getLayerY(y), scaleX, scaleY);
+		return color;
+	}
+
+	private boolean isInLayer(int x, int y) {
+		return x >= layerX && x < layerX + layerWidth && y >= layerY
+				&& y < layerY + layerHeight;
+	}
+
+	private int getLayerX(int x) {
+		return (x - layerX) * scaleX;
+	}
+
+	private int getLayerY(int y) {
+		return (layerY + layerHeight - 1 - y) * scaleY;
+	}
+
+	/**
+	 * Place the static texture over the cells to draw: the whole map, or in
+	 * cropped mode the window around the shown region.
+	 *
+	 * @return true if the window has moved since the last frame
+	 */
+	private boolean placeLayer() {
+		if (!cropped) {
+			layerX = 0;
+			layerY = 0;
+			layerWidth = width;
+			layerHeight = height;
+			return false;
+		}
+
+		/* The cells the shown region touches, the rows counted from the
+		 * bottom of the map */
+		final int minX = (int) Math.floor((float) regionX / scaleX);
+		final int maxX = (int) Math.ceil((float) (regionX + regionWidth) / scaleX);
+		final int maxY = height - (int) Math.floor((float) regionY / scaleY);
+		final int minY = height
+				- (int) Math.ceil((float) (regionY + regionHeight) / scaleY);
+		return placeWindow(minX, minY, maxX, maxY);
+	}
+
+	/**
+	 * Move the window of cropped mode over the given cells, unless it covers
+	 * them already. It is centered on them, so that it does not have to be
+	 * moved again until they have moved a few cells.
+	 *
+	 * @return true if the window was moved
+	 */
+	boolean placeWindow(int minX, int minY, int maxX, int maxY) {
+		if (windowPlaced && minX >= layerX && minY >= layerY
+				&& maxX <= layerX + layerWidth && maxY <= layerY + layerHeight) {
+			return false;
+		}
+
+		layerX = (minX + maxX - WINDOW_SIZE) / 2;
+		layerY = (minY + maxY - WINDOW_SIZE) / 2;
+		layerWidth = WINDOW_SIZE;
+		layerHeight = WINDOW_SIZE;
+		windowPlaced = true;
+		return true;
+	}
+
+	private void cellChanged(int x, int y) {
+		/* Nothing to update before the static texture has been drawn, and
+		 * cells outside of it are drawn when it is moved over them */
+		if (staticTexture == null || !isInLayer(x, y)) {
+			return;
+		}
+		final int index = (y - layerY) * layerWidth + x - layerX;
+		if (changed[index]) {
+			return;
+		}
+		if (changedCount == changedCells.length) {
+			changedCells = Arrays.copyOf(changedCells, changedCells.length * 2);
+		}
+		changed[index] = true;
+		changedCells[changedCount++] = index;
+	}
+
+	private void clearChangedCells() {
+		for (int i = 0; i < changedCount; i++) {
+			changed[changedCells[i]] = false;
+		}
+		changedCount = 0;
+	}
+
+	private void disposeStaticLayer() {
+		if (staticTexture != null) {
+			staticTexture.dispose();
+			staticPixmap.dispose();
+			cellPixmap.dispose();
+			staticTexture = null;
+			staticPixmap = null;
+			cellPixmap = null;
+		}
+		clearChangedCells();
+		windowPlaced = false;
+	}
+
+	private boolean isInside(int x, int y) {
+		return x >= 0 && x < width && y >= 0 && y < height;
 	}
-	
+
+	private Block getCell(int x, int y) {
+		final Chunk chunk = chunks[(y >> CHUNK_SHIFT) * chunksWide
+				+ (x >> CHUNK_SHIFT)];
+		return chunk == null ? null
+				: chunk.blocks[((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)];
+	}
+
+	private void setCell(int x, int y, Block block) {
+		final int chunkIndex = (y >> CHUNK_SHIFT) * chunksWide + (x >> CHUNK_SHIFT);
+		Chunk chunk = chunks[chunkIndex];
+		if (chunk == null) {
+			if (block == null) {
+				return;
+			}
+			chunk = new Chunk();
+			chunks[chunkIndex] = chunk;
+			allocatedChunks++;
+		}
+
+		final int cellIndex = ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+		final Block previous = chunk.blocks[cellIndex];
+		chunk.blocks[cellIndex] = block;
+		if (previous == null && block != null) {
+			chunk.count++;
+		} else if (previous != null && block == null && --chunk.count == 0) {
+			chunks[chunkIndex] = null;
+			allocatedChunks--;
+		}
+	}
+
 	private int getColor(Block block) {
 		if (block.isLiftable()) {
 			return LIFTABLE_BLOCK;
@@ -212,74 +530,81 @@ public class MiniMap implements BlockMapListener, ActiveBlockListener {
 			return NO_BLOCK;
 		}
 	}
-	
+
 	private Bounds getDrawBounds() {
 		//Make the side two times the offset long (one time for each side of the center)
 		final float boundsWidth = 2 * OFFSET_X;
 		final float boundsHeight = 2 * OFFSET_Y;
-		
+
 		//Get the center point of the player, then subtract by offset
-		final float x = (activePlayer.getX() + activePlayer.getWidth() / 2f) 
+		final float x = (activePlayer.getX() + activePlayer.getWidth() / 2f)
 				/ activePlayer.getScaleX() - OFFSET_X;
 
-		final float y = (activePlayer.getY() + activePlayer.getHeight() / 2f) 
+		final float y = (activePlayer.getY() + activePlayer.getHeight() / 2f)
 				/ activePlayer.getScaleY() - OFFSET_Y + 1;
-		
-		return new Bounds(x, y, boundsWidth, boundsHeight);
-	}
-	
-	private Pixmap getMinimapPixmap(Bounds bounds) {
-		
-		
-		Pixmap pixmap = new Pixmap(width*scaleX,
-				height*scaleY, Format.RGBA8888);
-		
-		
-		drawBackground(pixmap);
-		drawStaticBlocks(pixmap, bounds);
-		drawActiveBlocks(pixmap, bounds);
-		drawPlayers(pixmap, bounds);
-		drawViewport(pixmap);
-		
-		return pixmap;
-	}
-	
-	private int getPixMapY(Pixmap pixmap, int y) {
-		return pixmap.getHeight() - y;
-	}
-	
+
+		drawBounds.set(x, y, boundsWidth, boundsHeight);
+		return drawBounds;
+	}
+
+	private int getPixMapY(int y) {
+		return height * scaleY - y;
+	}
+
 	public float getScaleX() {
 		return scaleX;
 	}
-	
+
 	public float getScaleY() {
 		return scaleY;
 	}
-	
+
 	private Bounds getTextureBounds() {
 		//Make the side two times the offset long (one time for each side of the center)
 		final float boundsWidth = 2 * OFFSET_X;
 		final float boundsHeight = 2 * OFFSET_Y;
-		
+
 		//Get the center point of the player, then subtract by offset
-		final float x = (activePlayer.getX() + activePlayer.getWidth() / 2f) 
+		final float x = (activePlayer.getX() + activePlayer.getWidth() / 2f)
 				/ activePlayer.getScaleX() - OFFSET_X;
-		final float y = (activePlayer.getY() - activePlayer.getHeight() / 2f) 
+		final float y = (activePlayer.getY() - activePlayer.getHeight() / 2f)
 				/ activePlayer.getScaleY() + OFFSET_Y + 1;
-		
-		return new Bounds(x, y, boundsWidth, boundsHeight);
+
+		textureBounds.set(x, y, boundsWidth, boundsHeight);
+		return textureBounds;
 	}
 
-	private void prepareSprite(Sprite sprite, Texture texture) {
+	private void prepareRegion() {
 		final Bounds bounds = getTextureBounds();
-		final float textX = bounds.x * scaleX;
-		final float textY = (height - bounds.y) * scaleY;
-		final float textWidth = bounds.width * scaleX;
-		final float textHeight = bounds.height * scaleY;
-		
+		regionX = (int) (bounds.x * scaleX);
+		regionY = (int) ((height - bounds.y) * scaleY);
+		regionWidth = (int) (bounds.width * scaleX);
+		regionHeight = (int) (bounds.height * scaleY);
+	}
+
+	private void prepareSprite(Sprite sprite, Texture texture) {
+		final int layerPixelX = layerX * scaleX;
+		final int layerPixelY = (height - layerY - layerHeight) * scaleY;
+
 		sprite.setTexture(texture);
-		sprite.setRegion((int) textX, (int) textY, (int) textWidth, (int) textHeight);
-		sprite.setSize(Math.abs(textWidth), Math.abs(textHeight));
+		sprite.setRegion(regionX - layerPixelX, regionY - layerPixelY,
+				regionWidth, regionHeight);
+		sprite.setSize(Math.abs(regionWidth), Math.abs(regionHeight));
+	}
+
+	/**
+	 * Only keep a window of cells around the player in the texture, instead
+	 * of the whole map. Maps larger than the window are cropped by default.
+	 */
+	public void setCropped(boolean cropped) {
+		if (cropped != this.cropped) {
+			disposeStaticLayer();
+		}
+		this.cropped = cropped;
+	}
+
+	public boolean isCropped() {
+		return cropped;
 	}
 
 	public void setActivePlayer(Player player) {
@@ -289,15 +614,21 @@ public class MiniMap implements BlockMapListener, ActiveBlockListener {
 	public void setPlayerLocations(List<Point2D.Float> locations) {
 		playerPos = locations;
 	}
-	
+
 	public void setScaleX(int scaleX) {
+		if (scaleX != this.scaleX) {
+			disposeStaticLayer();
+		}
 		this.scaleX = scaleX;
 	}
 
 	public void setScaleY(int scaleY) {
+		if (scaleY != this.scaleY) {
+			disposeStaticLayer();
+		}
 		this.scaleY = scaleY;
 	}
-	
+
 	public void setViewportBounds(float x, float y, float width, float height) {
 
 		viewX = x;
@@ -305,6 +636,6 @@ public class MiniMap implements BlockMapListener, ActiveBlockListener {
 		viewportWidth = width;
 		viewportHeight = height;
 	}
-	
-	
+
+
 }
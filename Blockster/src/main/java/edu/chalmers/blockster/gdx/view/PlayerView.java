@@ -4,7 +4,6 @@ import java.util.Map;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
@@ -26,23 +25,23 @@ public class PlayerView {
 	private float animTime;
 	private Movement lastMovement;
 
-	public PlayerView(Player player, Map<Movement, Animation> arrayOfAnimation,
-			Map<Direction, Animation> walkAnimations) {
+	public PlayerView(Player player, AnimationFactory animations) {
 		this.player = player;
-		this.arrayOfAnimation = arrayOfAnimation;
-		this.walkAnimations = walkAnimations;
+		final World world = player.getWorld();
+		arrayOfAnimation = animations.getArrayOfAnimations(world);
+		walkAnimations = animations.getWalkAnimations(world);
 
-		final String prefix = player.getWorld() == World.DAY ? "" : "night_";
-		final Texture standPic = new Texture ("Animations/" + prefix + "stand.png");
-		final TextureRegion[][] standPics = TextureRegion.split(standPic, standPic.getWidth(), standPic.getHeight()/2);
-
-		standLeft = standPics[1][0];
-		standRight = standPics[0][0];
+		standLeft = animations.getStandPicture(world, Direction.LEFT);
+		standRight = animations.getStandPicture(world, Direction.RIGHT);
 
 		sprite = new Sprite();
 	}
 
-	public void draw(SpriteBatch batch, boolean isActive){
+	/**
+	 * Draw the player between its previous and current position.
+	 * @param alpha	How far to go from the previous position, in [0, 1]
+	 */
+	public void draw(SpriteBatch batch, boolean isActive, float alpha){
 		final TextureRegion region = chooseAnimation();
 		final int width = region.getRegionWidth();
 		final int height = region.getRegionHeight();
@@ -50,14 +49,17 @@ public class PlayerView {
 		sprite.setRegion(region);
 		setSize(width, height);
 
+		final float x = player.getInterpolatedX(alpha);
+		final float y = player.getInterpolatedY(alpha);
+
 		if (isActive) {
-			batch.draw(sprite,  getX(),  getY());
+			batch.draw(sprite, x, y);
 		} else {
 			final Color color = batch.getColor();
 			final float a = color.a;
 			color.a = a * 0.3f;
 			batch.setColor(color);
-			batch.draw(sprite, getX(), getY(), getX(), getY(), width, height, 1f, 1f, 0);
+			batch.draw(sprite, x, y, x, y, width, height, 1f, 1f, 0);
 			color.a = a;
 			batch.setColor(color);
 		}
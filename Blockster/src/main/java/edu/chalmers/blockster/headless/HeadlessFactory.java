@@ -0,0 +1,364 @@
+package edu.chalmers.blockster.headless;
+
+import java.awt.Point;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import edu.chalmers.blockster.core.Factory;
+import edu.chalmers.blockster.core.objects.BlockMap;
+import edu.chalmers.blockster.core.objects.BlockProperties;
+import edu.chalmers.blockster.core.objects.PackedBlockMap;
+import edu.chalmers.blockster.core.objects.Player;
+import edu.chalmers.blockster.core.objects.World;
+
+/**
+ * A Factory that reads Tiled (.tmx) maps without libGDX, for running stages
+ * without a graphics context. The file is parsed once, after which every call
+ * to createMap() only builds the blocks.
+ *
+ * Like the GdxFactory, only the first tile layer is used, the tile properties
+ * become block properties and the players start where the map properties
+ * nbrOfPlayers and playerStartN say.
+ *
+ * The blocks are kept in a PackedBlockMap, so a block only gets a Block
+ * object once something asks for it.
+ */
+public class HeadlessFactory implements Factory {
+
+	/* Tiled stores flipping in the highest bits of the tile ids */
+	private static final int FLIP_FLAGS = 0xE0000000;
+
+	private final int width;
+	private final int height;
+	private final int blockWidth;
+	private final int blockHeight;
+	private final List<Point> playerStartingPositions;
+
+	/* Tile id of every cell, row by row from the bottom of the map */
+	private final int[] tiles;
+	/* The block properties of every tile id, as a mask */
+	private final Map<Integer, Long> tileProperties;
+
+	private PackedBlockMap blockMap;
+
+	public HeadlessFactory(File file) throws IOException {
+		this(new FileInputStream(file));
+	}
+
+	/**
+	 * Read a map. The stream is closed when done.
+	 */
+	public HeadlessFactory(InputStream in) throws IOException {
+		final Element map;
+		try {
+			map = parse(in).getDocumentElement();
+		} finally {
+			in.close();
+		}
+
+		width = intAttribute(map, "width");
+		height = intAttribute(map, "height");
+		blockWidth = intAttribute(map, "tilewidth");
+		blockHeight = intAttribute(map, "tileheight");
+		playerStartingPositions = readPlayerStartingPositions(map);
+		tileProperties = Collections.unmodifiableMap(readTileProperties(map));
+		tiles = readTiles(map);
+	}
+
+	/**
+	 * Create a factory for the same map as another factory, without reading
+	 * the file again. The factories share no mutable state, so they can be
+	 * used by different threads.
+	 */
+	public HeadlessFactory(HeadlessFactory factory) {
+		width = factory.width;
+		height = factory.height;
+		blockWidth = factory.blockWidth;
+		blockHeight = factory.blockHeight;
+		playerStartingPositions = new ArrayList<Point>();
+		for (final Point point : factory.playerStartingPositions) {
+			playerStartingPositions.add(new Point(point));
+		}
+		tiles = factory.tiles;
+		tileProperties = factory.tileProperties;
+	}
+
+	@Override
+	public void createMap() {
+		blockMap = new PackedBlockMap(width, height, blockWidth, blockHeight,
+				playerStartingPositions);
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				final int tile = tiles[y * width + x];
+				if (tile != 0) {
+					final Long properties = tileProperties.get(tile);
+					blockMap.placeBlock(x, y, properties == null ? 0
+							: properties);
+				}
+			}
+		}
+	}
+
+	@Override
+	public BlockMap getMap() {
+		return blockMap;
+	}
+
+	@Override
+	public Player createPlayer(float startX, float startY, BlockMap blockLayer,
+			World world) {
+		return new Player(startX, startY, blockLayer, world);
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	private static Document parse(InputStream in) throws IOException {
+		try {
+			final DocumentBuilder builder = DocumentBuilderFactory.newInstance()
+					.newDocumentBuilder();
+			return builder.parse(new BufferedInputStream(in));
+		} catch (ParserConfigurationException e) {
+			throw new IOException("Could not create an XML parser", e);
+		} catch (SAXException e) {
+			throw new IOException("Map is not valid XML", e);
+		}
+	}
+
+	private static List<Point> readPlayerStartingPositions(Element map)
+			throws IOException {
+		final Map<String, String> properties = new HashMap<String, String>();
+		for (final Element propertiesElement : children(map, "properties")) {
+			for (final Element property : children(propertiesElement, "property")) {
+				properties.put(property.getAttribute("name"),
+						property.getAttribute("value"));
+			}
+		}
+
+		final int nbrOfPlayers = parseInt(properties.get("nbrOfPlayers"),
+				"nbrOfPlayers");
+		final List<Point> startingPositions = new ArrayList<Point>();
+		for (int i = 1; i <= nbrOfPlayers; i++) {
+			final String playerStart = properties.get("playerStart" + i);
+			if (playerStart == null) {
+				throw new IOException("Map has no playerStart" + i);
+			}
+			final String[] coordinates = playerStart.split(":");
+			if (coordinates.length != 2) {
+				throw new IOException("playerStart" + i + " is " + playerStart
+						+ ". Must be on the form x:y");
+			}
+			startingPositions.add(new Point(parseInt(coordinates[0], "playerStart" + i),
+					parseInt(coordinates[1], "playerStart" + i)));
+		}
+		return startingPositions;
+	}
+
+	private static Map<Integer, Long> readTileProperties(Element map)
+			throws IOException {
+		final Map<Integer, Long> result = new HashMap<Integer, Long>();
+		for (final Element tileset : children(map, "tileset")) {
+			if (tileset.hasAttribute("source")) {
+				throw new IOException("External tilesets are not supported: "
+						+ tileset.getAttribute("source"));
+			}
+			final int firstId = intAttribute(tileset, "firstgid");
+			for (final Element tile : children(tileset, "tile")) {
+				long mask = 0;
+				for (final Element properties : children(tile, "properties")) {
+					for (final Element property : children(properties, "property")) {
+						mask |= BlockProperties.bitOf(property.getAttribute("name"));
+					}
+				}
+				result.put(firstId + intAttribute(tile, "id"), mask);
+			}
+		}
+		return result;
+	}
+
+	private int[] readTiles(Element map) throws IOException {
+		final List<Element> layers = children(map, "layer");
+		if (layers.isEmpty()) {
+			throw new IOException("Map has no tile layer");
+		}
+		final List<Element> data = children(layers.get(0), "data");
+		if (data.isEmpty()) {
+			throw new IOException("Tile layer has no data");
+		}
+
+		final int[] rows = readData(data.get(0));
+
+		/* Tiled stores the top row first, the map has y = 0 at the bottom */
+		final int[] result = new int[width * height];
+		for (int row = 0; row < height; row++) {
+			final int y = height - 1 - row;
+			for (int x = 0; x < width; x++) {
+				result[y * width + x] = rows[row * width + x] & ~FLIP_FLAGS;
+			}
+		}
+		return result;
+	}
+
+	private int[] readData(Element data) throws IOException {
+		final String encoding = data.getAttribute("encoding");
+		final int[] result = new int[width * height];
+
+		if ("csv".equals(encoding)) {
+			final String[] values = data.getTextContent().trim().split("\\s*,\\s*");
+			if (values.length != result.length) {
+				throw new IOException("Tile layer has " + values.length
+						+ " tiles, expected " + result.length);
+			}
+			for (int i = 0; i < values.length; i++) {
+				result[i] = (int) Long.parseLong(values[i]);
+			}
+		} else if ("base64".equals(encoding)) {
+			final byte[] bytes = decompress(decodeBase64(data.getTextContent()),
+					data.getAttribute("compression"));
+			if (bytes.length != result.length * 4) {
+				throw new IOException("Tile layer has " + bytes.length / 4
+						+ " tiles, expected " + result.length);
+			}
+			for (int i = 0; i < result.length; i++) {
+				result[i] = (bytes[i * 4] & 0xFF)
+						| (bytes[i * 4 + 1] & 0xFF) << 8
+						| (bytes[i * 4 + 2] & 0xFF) << 16
+						| (bytes[i * 4 + 3] & 0xFF) << 24;
+			}
+		} else if (encoding.isEmpty()) {
+			final List<Element> tileElements = children(data, "tile");
+			if (tileElements.size() != result.length) {
+				throw new IOException("Tile layer has " + tileElements.size()
+						+ " tiles, expected " + result.length);
+			}
+			for (int i = 0; i < result.length; i++) {
+				final String gid = tileElements.get(i).getAttribute("gid");
+				result[i] = gid.isEmpty() ? 0 : (int) Long.parseLong(gid);
+			}
+		} else {
+			throw new IOException("Unsupported tile encoding: " + encoding);
+		}
+		return result;
+	}
+
+	private static byte[] decompress(byte[] bytes, String compression)
+			throws IOException {
+		final InputStream in;
+		if (compression.isEmpty()) {
+			return bytes;
+		} else if ("gzip".equals(compression)) {
+			in = new GZIPInputStream(new ByteArrayInputStream(bytes));
+		} else if ("zlib".equals(compression)) {
+			in = new InflaterInputStream(new ByteArrayInputStream(bytes));
+		} else {
+			throw new IOException("Unsupported tile compression: " + compression);
+		}
+
+		try {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[4096];
+			int read = in.read(buffer);
+			while (read != -1) {
+				out.write(buffer, 0, read);
+				read = in.read(buffer);
+			}
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+
+	private static byte[] decodeBase64(String text) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(text.length() * 3 / 4);
+		int buffer = 0;
+		int bits = 0;
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			final int value;
+			if (c >= 'A' && c <= 'Z') {
+				value = c - 'A';
+			} else if (c >= 'a' && c <= 'z') {
+				value = c - 'a' + 26;
+			} else if (c >= '0' && c <= '9') {
+				value = c - '0' + 52;
+			} else if (c == '+') {
+				value = 62;
+			} else if (c == '/') {
+				value = 63;
+			} else if (c == '=') {
+				break;
+			} else if (Character.isWhitespace(c)) {
+				continue;
+			} else {
+				throw new IOException("Invalid character in base64 data: " + c);
+			}
+
+			buffer = (buffer << 6) | value;
+			bits += 6;
+			if (bits >= 8) {
+				bits -= 8;
+				out.write((buffer >> bits) & 0xFF);
+			}
+		}
+		return out.toByteArray();
+	}
+
+	private static List<Element> children(Element parent, String name) {
+		final List<Element> result = new ArrayList<Element>();
+		final NodeList nodes = parent.getChildNodes();
+		for (int i = 0; i < nodes.getLength(); i++) {
+			final Node node = nodes.item(i);
+			if (node.getNodeType() == Node.ELEMENT_NODE
+					&& name.equals(node.getNodeName())) {
+				result.add((Element) node);
+			}
+		}
+		return result;
+	}
+
+	private static int intAttribute(Element element, String name)
+			throws IOException {
+		return parseInt(element.getAttribute(name), element.getNodeName()
+				+ " attribute " + name);
+	}
+
+	private static int parseInt(String value, String description)
+			throws IOException {
+		if (value == null) {
+			throw new IOException("Map has no " + description);
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IOException(description + " is not a number: " + value, e);
+		}
+	}
+}
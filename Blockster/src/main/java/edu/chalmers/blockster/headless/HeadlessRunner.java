@@ -0,0 +1,122 @@
+package edu.chalmers.blockster.headless;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+import edu.chalmers.blockster.core.FixedStepSimulator;
+import edu.chalmers.blockster.core.GameState;
+import edu.chalmers.blockster.core.InputRecorder;
+import edu.chalmers.blockster.core.InputState;
+import edu.chalmers.blockster.core.Model;
+
+/**
+ * Runs a stage without graphics, as fast as possible. Every tick the input
+ * source is asked for input, the input is applied to the model and the model
+ * is updated with a fixed delta time.
+ */
+public class HeadlessRunner {
+
+	private final Model model;
+	private final InputSource inputSource;
+	private final InputState input;
+	private final float stepTime;
+	private long tick;
+	private InputRecorder recorder;
+
+	public HeadlessRunner(Model model, InputSource inputSource) {
+		this(model, inputSource, 1f / FixedStepSimulator.DEFAULT_TICK_RATE);
+	}
+
+	public HeadlessRunner(Model model, InputSource inputSource, float stepTime) {
+		if (stepTime <= 0) {
+			throw new IllegalArgumentException("Step time is " + stepTime
+					+ ". Must be positive.");
+		}
+		this.model = model;
+		this.inputSource = inputSource;
+		this.stepTime = stepTime;
+		this.input = new InputState();
+	}
+
+	/**
+	 * Simulate a single tick.
+	 */
+	public void step() {
+		inputSource.update(tick, input);
+		if (recorder != null) {
+			recorder.beforeTick(input.getKeyFlags());
+		}
+		input.apply(model);
+		model.update(stepTime);
+		if (recorder != null) {
+			recorder.afterTick(model);
+		}
+		tick++;
+	}
+
+	/**
+	 * Simulate until the game is won or the given number of ticks have been
+	 * run.
+	 *
+	 * @return The number of ticks that were run.
+	 */
+	public long run(long maxTicks) {
+		long ticks = 0;
+		while (ticks < maxTicks && model.getGameState() != GameState.GAME_WON) {
+			step();
+			ticks++;
+		}
+		return ticks;
+	}
+
+	/**
+	 * Record the input of the coming ticks, or stop recording if null.
+	 */
+	public void setRecorder(InputRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+	public float getStepTime() {
+		return stepTime;
+	}
+
+	/**
+	 * Get the number of ticks simulated so far.
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	public Model getModel() {
+		return model;
+	}
+
+	public InputState getInputState() {
+		return input;
+	}
+
+	/**
+	 * Runs a map without input for a number of ticks and prints how fast it
+	 * went. Usage: HeadlessRunner map.tmx [ticks]
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: HeadlessRunner map.tmx [ticks]");
+			return;
+		}
+		final File file = new File(args[0]);
+		final long ticks = args.length > 1 ? Long.parseLong(args[1]) : 100000;
+
+		final Model model = new Model(new HeadlessFactory(file), file.getName());
+		final HeadlessRunner runner = new HeadlessRunner(model, new ScriptedInput());
+
+		final long start = System.nanoTime();
+		final long run = runner.run(ticks);
+		final double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.println(String.format(Locale.ENGLISH,
+				"%s: %d ticks in %.3f s, %.0f ticks/s, state %s", file.getName(),
+				run, seconds, run / seconds, model.getGameState()));
+	}
+}
@@ -0,0 +1,20 @@
+package edu.chalmers.blockster.headless;
+
+import edu.chalmers.blockster.core.InputState;
+
+/**
+ * Gives the input for a stage run without a keyboard.
+ */
+public interface InputSource {
+
+	/**
+	 * Called once before every tick is simulated.
+	 *
+	 * @param tick
+	 *            The number of the coming tick, starting at 0
+	 * @param input
+	 *            The input state to press or release keys in
+	 */
+	void update(long tick, InputState input);
+
+}
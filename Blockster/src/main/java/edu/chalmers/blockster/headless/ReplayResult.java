@@ -0,0 +1,66 @@
+package edu.chalmers.blockster.headless;
+
+/**
+ * The outcome of replaying an InputLog.
+ */
+public class ReplayResult {
+
+	private final long ticks;
+	private final int checkpointsPassed;
+	private final long divergedAt;
+	private final long expectedHash;
+	private final long actualHash;
+
+	public ReplayResult(long ticks, int checkpointsPassed, long divergedAt,
+			long expectedHash, long actualHash) {
+		this.ticks = ticks;
+		this.checkpointsPassed = checkpointsPassed;
+		this.divergedAt = divergedAt;
+		this.expectedHash = expectedHash;
+		this.actualHash = actualHash;
+	}
+
+	/**
+	 * Get the number of ticks that were replayed.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	public int getCheckpointsPassed() {
+		return checkpointsPassed;
+	}
+
+	public boolean isDiverged() {
+		return divergedAt >= 0;
+	}
+
+	/**
+	 * Get the tick at which the state first differed from the recording, or
+	 * -1 if it never did. Since the state is only checked at checkpoints, the
+	 * divergence happened after the previous checkpoint and no later than
+	 * this tick.
+	 */
+	public long getDivergedAt() {
+		return divergedAt;
+	}
+
+	public long getExpectedHash() {
+		return expectedHash;
+	}
+
+	public long getActualHash() {
+		return actualHash;
+	}
+
+	@Override
+	public String toString() {
+		if (isDiverged()) {
+			return String.format("Diverged at tick %d after %d checkpoints: "
+					+ "expected %016x, was %016x", divergedAt, checkpointsPassed,
+					expectedHash, actualHash);
+		}
+		return "Replayed " + ticks + " ticks, " + checkpointsPassed
+				+ " checkpoints passed";
+	}
+}
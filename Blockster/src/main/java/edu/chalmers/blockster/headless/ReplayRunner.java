@@ -0,0 +1,98 @@
+package edu.chalmers.blockster.headless;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+
+import edu.chalmers.blockster.core.InputLog;
+import edu.chalmers.blockster.core.InputState;
+import edu.chalmers.blockster.core.Model;
+import edu.chalmers.blockster.core.StateHash;
+
+/**
+ * Replays a recorded InputLog against a new model as fast as possible, and
+ * checks the state hash of the model at every checkpoint of the log.
+ */
+public class ReplayRunner {
+
+	private final Model model;
+	private final InputLog log;
+
+	/**
+	 * @param model
+	 *            A new model of the recorded stage
+	 * @param log
+	 *            The recording to replay
+	 */
+	public ReplayRunner(Model model, InputLog log) {
+		this.model = model;
+		this.log = log;
+	}
+
+	/**
+	 * Replay the whole log, or until the state differs from the recording.
+	 */
+	public ReplayResult run() {
+		final InputState input = new InputState();
+		final float stepTime = log.getStepTime();
+		final Iterator<Map.Entry<Long, Long>> checkpoints =
+				log.getCheckpoints().entrySet().iterator();
+		Map.Entry<Long, Long> checkpoint = checkpoints.hasNext()
+				? checkpoints.next() : null;
+
+		int passed = 0;
+		final long ticks = log.getTickCount();
+		for (long tick = 0; tick < ticks; tick++) {
+			input.setKeyFlags(log.getFlags(tick));
+			input.apply(model);
+			model.update(stepTime);
+
+			if (checkpoint != null && checkpoint.getKey() == tick) {
+				final long hash = StateHash.of(model);
+				if (hash != checkpoint.getValue()) {
+					return new ReplayResult(tick + 1, passed, tick,
+							checkpoint.getValue(), hash);
+				}
+				passed++;
+				checkpoint = checkpoints.hasNext() ? checkpoints.next() : null;
+			}
+		}
+		return new ReplayResult(ticks, passed, -1, 0, 0);
+	}
+
+	public Model getModel() {
+		return model;
+	}
+
+	/**
+	 * Replays a recording. Usage: ReplayRunner map.tmx recording.blkr
+	 * Exits with status 1 if the replay diverged from the recording.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: ReplayRunner map.tmx recording.blkr");
+			return;
+		}
+		final File map = new File(args[0]);
+		final InputLog log;
+		final InputStream in = new FileInputStream(args[1]);
+		try {
+			log = InputLog.read(in);
+		} finally {
+			in.close();
+		}
+
+		final Model model = new Model(new HeadlessFactory(map), log.getStageName());
+		final long start = System.nanoTime();
+		final ReplayResult result = new ReplayRunner(model, log).run();
+		final double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.println(result + " in " + seconds + " s");
+		if (result.isDiverged()) {
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package edu.chalmers.blockster.headless;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.chalmers.blockster.core.InputKey;
+import edu.chalmers.blockster.core.InputState;
+
+/**
+ * Input given as a script of keys to press and release at given ticks.
+ * Events are applied in the order they were added, and must be added in
+ * order of their ticks.
+ */
+public class ScriptedInput implements InputSource {
+
+	private final List<Event> events = new ArrayList<Event>();
+	private int next;
+
+	private static final class Event {
+		private final long tick;
+		private final InputKey key;
+		private final boolean down;
+
+		private Event(long tick, InputKey key, boolean down) {
+			this.tick = tick;
+			this.key = key;
+			this.down = down;
+		}
+	}
+
+	public ScriptedInput() {
+		/* An empty script */
+	}
+
+	/**
+	 * Create a script with the same events as another script, starting from
+	 * the first event.
+	 */
+	public ScriptedInput(ScriptedInput script) {
+		events.addAll(script.events);
+	}
+
+	public void keyDown(long tick, InputKey key) {
+		addEvent(new Event(tick, key, true));
+	}
+
+	public void keyUp(long tick, InputKey key) {
+		addEvent(new Event(tick, key, false));
+	}
+
+	/**
+	 * Press a key at the given tick and release it a number of ticks later.
+	 */
+	public void hold(long tick, InputKey key, long ticks) {
+		keyDown(tick, key);
+		keyUp(tick + ticks, key);
+	}
+
+	private void addEvent(Event event) {
+		if (event.tick < 0) {
+			throw new IllegalArgumentException("Tick is " + event.tick
+					+ ". Must not be negative.");
+		}
+		if (!events.isEmpty() && events.get(events.size() - 1).tick > event.tick) {
+			throw new IllegalArgumentException("Event at tick " + event.tick
+					+ " added after an event at tick "
+					+ events.get(events.size() - 1).tick);
+		}
+		events.add(event);
+	}
+
+	/**
+	 * Get the tick of the last event, or -1 if the script is empty.
+	 */
+	public long getLastTick() {
+		return events.isEmpty() ? -1 : events.get(events.size() - 1).tick;
+	}
+
+	/**
+	 * Start the script over from the first event.
+	 */
+	public void rewind() {
+		next = 0;
+	}
+
+	@Override
+	public void update(long tick, InputState input) {
+		while (next < events.size() && events.get(next).tick <= tick) {
+			final Event event = events.get(next++);
+			if (event.down) {
+				input.keyDown(event.key);
+			} else {
+				input.keyUp(event.key);
+			}
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package edu.chalmers.blockster.headless;
+
+import edu.chalmers.blockster.core.Factory;
+import edu.chalmers.blockster.core.Model;
+
+/**
+ * A stage to run in a StageExecutor: a factory for its map, the input to run
+ * it with and how many ticks it may run. The factory and the input source
+ * must not be used by any other simulation, since they are used from the
+ * thread that runs this simulation.
+ */
+public class Simulation {
+
+	private final String name;
+	private final Factory factory;
+	private final InputSource input;
+	private final long tickBudget;
+
+	public Simulation(String name, Factory factory, InputSource input,
+			long tickBudget) {
+		if (factory == null || input == null) {
+			throw new IllegalArgumentException("Simulation needs a factory "
+					+ "and an input source");
+		}
+		if (tickBudget <= 0) {
+			throw new IllegalArgumentException("Tick budget is " + tickBudget
+					+ ". Must be positive.");
+		}
+		this.name = name;
+		this.factory = factory;
+		this.input = input;
+		this.tickBudget = tickBudget;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getTickBudget() {
+		return tickBudget;
+	}
+
+	/**
+	 * Run the simulation on the current thread.
+	 */
+	public SimulationResult run(float stepTime) {
+		final long start = System.nanoTime();
+		Model model = null;
+		long ticks = 0;
+		try {
+			model = new Model(factory, name);
+			final HeadlessRunner runner = new HeadlessRunner(model, input, stepTime);
+			ticks = runner.run(tickBudget);
+			return new SimulationResult(name, model, ticks,
+					System.nanoTime() - start, null);
+		} catch (RuntimeException e) {
+			return new SimulationResult(name, model, ticks,
+					System.nanoTime() - start, e);
+		}
+	}
+}
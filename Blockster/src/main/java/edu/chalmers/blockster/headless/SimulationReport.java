@@ -0,0 +1,69 @@
+package edu.chalmers.blockster.headless;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The results of running a batch of simulations, in the order they were
+ * given, with totals over the whole batch.
+ */
+public class SimulationReport {
+
+	private final List<SimulationResult> results;
+	private final long wallNanos;
+	private long totalTicks;
+	private int won;
+	private int failed;
+
+	public SimulationReport(List<SimulationResult> results, long wallNanos) {
+		this.results = Collections.unmodifiableList(
+				new ArrayList<SimulationResult>(results));
+		this.wallNanos = wallNanos;
+
+		for (final SimulationResult result : results) {
+			totalTicks += result.getTicks();
+			if (result.isFailed()) {
+				failed++;
+			} else if (result.isWon()) {
+				won++;
+			}
+		}
+	}
+
+	public List<SimulationResult> getResults() {
+		return results;
+	}
+
+	public long getTotalTicks() {
+		return totalTicks;
+	}
+
+	public int getWon() {
+		return won;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	/**
+	 * Get the time it took to run the whole batch.
+	 */
+	public long getWallNanos() {
+		return wallNanos;
+	}
+
+	/**
+	 * Get the number of ticks simulated per second, over all threads.
+	 */
+	public double getTicksPerSecond() {
+		return wallNanos == 0 ? 0 : totalTicks * 1e9 / wallNanos;
+	}
+
+	@Override
+	public String toString() {
+		return results.size() + " simulations, " + won + " won, " + failed
+				+ " failed, " + totalTicks + " ticks";
+	}
+}
@@ -0,0 +1,72 @@
+package edu.chalmers.blockster.headless;
+
+import edu.chalmers.blockster.core.GameState;
+import edu.chalmers.blockster.core.Model;
+
+/**
+ * The outcome of running a Simulation.
+ */
+public class SimulationResult {
+
+	private final String name;
+	private final Model model;
+	private final long ticks;
+	private final long nanos;
+	private final RuntimeException error;
+
+	public SimulationResult(String name, Model model, long ticks, long nanos,
+			RuntimeException error) {
+		this.name = name;
+		this.model = model;
+		this.ticks = ticks;
+		this.nanos = nanos;
+		this.error = error;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get the model in the state it was left in, or null if it could not be
+	 * created.
+	 */
+	public Model getModel() {
+		return model;
+	}
+
+	public long getTicks() {
+		return ticks;
+	}
+
+	public long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * Get the exception that stopped the simulation, or null if it ran until
+	 * it was won or out of ticks.
+	 */
+	public RuntimeException getError() {
+		return error;
+	}
+
+	public boolean isFailed() {
+		return error != null;
+	}
+
+	public boolean isWon() {
+		return error == null && model.getGameState() == GameState.GAME_WON;
+	}
+
+	@Override
+	public String toString() {
+		final String outcome;
+		if (isFailed()) {
+			outcome = "failed: " + error;
+		} else {
+			outcome = model.getGameState().toString();
+		}
+		return name + ": " + ticks + " ticks, " + outcome;
+	}
+}
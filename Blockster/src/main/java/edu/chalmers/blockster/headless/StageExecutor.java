@@ -0,0 +1,85 @@
+package edu.chalmers.blockster.headless;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import edu.chalmers.blockster.core.FixedStepSimulator;
+
+/**
+ * Runs many simulations at once, one task per simulation, on a work
+ * stealing pool. Every simulation builds its own model on the thread that
+ * runs it, so models never share any mutable state.
+ */
+public class StageExecutor {
+
+	private final ForkJoinPool pool;
+	private final float stepTime;
+
+	/**
+	 * Create an executor with a thread for every available processor.
+	 */
+	public StageExecutor() {
+		this(Runtime.getRuntime().availableProcessors(),
+				1f / FixedStepSimulator.DEFAULT_TICK_RATE);
+	}
+
+	public StageExecutor(int threads, float stepTime) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Number of threads is " + threads
+					+ ". Must be positive.");
+		}
+		if (stepTime <= 0) {
+			throw new IllegalArgumentException("Step time is " + stepTime
+					+ ". Must be positive.");
+		}
+		this.pool = new ForkJoinPool(threads);
+		this.stepTime = stepTime;
+	}
+
+	/**
+	 * Run all simulations and wait for them to finish. A simulation that
+	 * throws does not stop the others, the exception is kept in its result.
+	 *
+	 * @return The results in the same order as the simulations.
+	 */
+	public SimulationReport runAll(List<Simulation> simulations)
+			throws InterruptedException {
+		final List<Callable<SimulationResult>> tasks =
+				new ArrayList<Callable<SimulationResult>>(simulations.size());
+		for (final Simulation simulation : simulations) {
+			tasks.add(new Callable<SimulationResult>() {
+				@Override
+				public SimulationResult call() {
+					return simulation.run(stepTime);
+				}
+			});
+		}
+
+		final long start = System.nanoTime();
+		final List<Future<SimulationResult>> futures = pool.invokeAll(tasks);
+
+		final List<SimulationResult> results =
+				new ArrayList<SimulationResult>(futures.size());
+		for (final Future<SimulationResult> future : futures) {
+			try {
+				results.add(future.get());
+			} catch (ExecutionException e) {
+				/* Errors, since the simulation keeps its exceptions */
+				throw new IllegalStateException("Simulation could not be run",
+						e.getCause());
+			}
+		}
+		return new SimulationReport(results, System.nanoTime() - start);
+	}
+
+	/**
+	 * Stop the threads of the executor once the running simulations are done.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+}
@@ -0,0 +1,462 @@
+package edu.chalmers.blockster.solver;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import edu.chalmers.blockster.core.objects.movement.Direction;
+
+/**
+ * A mutable grid that a state is unpacked into to find the states that can
+ * be reached from it in one move. Each thread of the solver has its own.
+ *
+ * The rules follow those of the game, on whole blocks instead of animations:
+ * <ul>
+ * <li>A player can walk into any cell without a solid block, and climb up on
+ * a block next to it if there is nothing on top of it or of the player.</li>
+ * <li>A grabbed block is pushed together with the movable blocks behind it,
+ * as long as none of them has a heavy block on top of it or would end up at
+ * the edge of the map. A pulled block needs the player to have ground to
+ * step back to.</li>
+ * <li>A lifted block is carried on top of the player, who can then walk,
+ * climb or place it in front of itself, one block down if there is room.</li>
+ * <li>After every move, heavy blocks and players without a solid block below
+ * them fall.</li>
+ * </ul>
+ * Switching player is free, so any player may move from any state.
+ *
+ * Walking and climbing only move a player, so rather than being moves of
+ * their own they are folded into the moves that change the blocks. A player
+ * may make such a move from any cell it can walk to.
+ */
+final class Board {
+
+	private static final int LEFT = -1;
+	private static final int RIGHT = 1;
+
+	private static final SolverAction[] WALKING = { SolverAction.WALK,
+			SolverAction.CLIMB };
+	private static final SolverAction[] INTERACTIONS = { SolverAction.PUSH,
+			SolverAction.PULL, SolverAction.LIFT, SolverAction.PLACE,
+			SolverAction.ENTER };
+
+	private final Puzzle puzzle;
+	private final int width;
+	private final int height;
+	private final int playerCount;
+
+	/* The kind of block in every cell, loose or fixed, or 0 */
+	private final byte[] cells;
+	/* The index + 1 of the loose block in every cell, or 0 */
+	private final int[] slots;
+
+	private final int[] players;
+	private final int[] carried;
+	private final int[] blocks;
+	private final int[] kinds;
+	private int blockCount;
+
+	/* Breadth first search of the cells a player can walk to */
+	private final int[] queue;
+	private final int[] reachedIn;
+	private final int[] cameFrom;
+	private final int[] cameBy;
+	private int generation;
+
+	Board(Puzzle puzzle) {
+		this.puzzle = puzzle;
+		width = puzzle.getWidth();
+		height = puzzle.getHeight();
+		playerCount = puzzle.getPlayers();
+		cells = Arrays.copyOf(puzzle.getFixedCells(), width * height);
+		slots = new int[width * height];
+		players = new int[playerCount];
+		carried = new int[playerCount];
+		blocks = new int[puzzle.getLooseBlocks()];
+		kinds = new int[puzzle.getLooseBlocks()];
+		queue = new int[width * height];
+		reachedIn = new int[width * height];
+		cameFrom = new int[width * height];
+		cameBy = new int[width * height];
+	}
+
+	/**
+	 * Add every state that can be reached from the given state by walking
+	 * and climbing, which never changes the blocks, followed by one move
+	 * that does.
+	 */
+	void expand(SolverState state, List<SolverState> successors) {
+		load(state);
+		for (int player = 0; player < playerCount; player++) {
+			final int origin = players[player];
+			if (origin < 0) {
+				continue;
+			}
+			final int reached = reach(player, origin);
+			for (int i = 0; i < reached; i++) {
+				for (final SolverAction action : INTERACTIONS) {
+					expand(state, player, queue[i], action, LEFT, successors);
+					expand(state, player, queue[i], action, RIGHT, successors);
+				}
+			}
+			players[player] = origin;
+		}
+		unload();
+	}
+
+	/**
+	 * Add the walking and climbing it takes a player to get from where it is
+	 * in the given state to the given cell.
+	 */
+	void walk(SolverState state, int player, int target, List<SolverStep> steps) {
+		load(state);
+		final int origin = players[player];
+		reach(player, origin);
+
+		final int first = steps.size();
+		for (int cell = target; cell != origin; cell = cameFrom[cell]) {
+			final int move = cameBy[cell];
+			steps.add(new SolverStep(puzzle.getPlayerId(player),
+					WALKING[move >> 1],
+					(move & 1) == 0 ? Direction.LEFT : Direction.RIGHT));
+		}
+		Collections.reverse(steps.subList(first, steps.size()));
+		unload();
+	}
+
+	/**
+	 * Get the state with everything in the given state fallen into place.
+	 */
+	SolverState settled(SolverState state) {
+		load(state);
+		settle();
+		final SolverState result = pack(null, -1, null);
+		unload();
+		return result;
+	}
+
+	private void expand(SolverState state, int player, int cell,
+			SolverAction action, int dir, List<SolverState> successors) {
+		players[player] = cell;
+		if (apply(player, action, dir)) {
+			settle();
+			final Direction direction = dir == LEFT ? Direction.LEFT
+					: Direction.RIGHT;
+			successors.add(pack(state, cell, new SolverStep(
+					puzzle.getPlayerId(player), action, direction)));
+			unload();
+			load(state);
+		}
+	}
+
+	/**
+	 * Find every cell the player can get to without moving a block, by a
+	 * breadth first search that leaves the cells in the queue.
+	 *
+	 * @return The number of cells found
+	 */
+	private int reach(int player, int origin) {
+		generation++;
+		queue[0] = origin;
+		reachedIn[origin] = generation;
+		int size = 1;
+		for (int head = 0; head < size; head++) {
+			final int cell = queue[head];
+			for (int move = 0; move < WALKING.length * 2; move++) {
+				players[player] = cell;
+				final int dir = (move & 1) == 0 ? LEFT : RIGHT;
+				if (!apply(player, WALKING[move >> 1], dir)) {
+					continue;
+				}
+				fall(player);
+				final int next = players[player];
+				if (reachedIn[next] != generation) {
+					reachedIn[next] = generation;
+					cameFrom[next] = cell;
+					cameBy[next] = move;
+					queue[size++] = next;
+				}
+			}
+		}
+		players[player] = origin;
+		return size;
+	}
+
+	private void load(SolverState state) {
+		final int[] data = state.getData();
+		for (int i = 0; i < playerCount; i++) {
+			final int packed = data[i];
+			if (packed < 0) {
+				players[i] = -1;
+				carried[i] = 0;
+			} else {
+				players[i] = packed >> SolverState.KIND_BITS;
+				carried[i] = packed & SolverState.KIND_MASK;
+			}
+		}
+
+		blockCount = data.length - playerCount;
+		for (int i = 0; i < blockCount; i++) {
+			final int packed = data[playerCount + i];
+			final int cell = packed >> SolverState.KIND_BITS;
+			blocks[i] = cell;
+			kinds[i] = packed & SolverState.KIND_MASK;
+			cells[cell] = (byte) kinds[i];
+			slots[cell] = i + 1;
+		}
+	}
+
+	private void unload() {
+		for (int i = 0; i < blockCount; i++) {
+			cells[blocks[i]] = 0;
+			slots[blocks[i]] = 0;
+		}
+		blockCount = 0;
+	}
+
+	private SolverState pack(SolverState parent, int actionCell,
+			SolverStep step) {
+		final int[] data = new int[playerCount + blockCount];
+		for (int i = 0; i < playerCount; i++) {
+			data[i] = players[i] < 0 ? -1 : Puzzle.pack(players[i], carried[i]);
+		}
+		for (int i = 0; i < blockCount; i++) {
+			data[playerCount + i] = Puzzle.pack(blocks[i], kinds[i]);
+		}
+		Arrays.sort(data, playerCount, data.length);
+		return new SolverState(data, parent, actionCell, step);
+	}
+
+	private boolean apply(int player, SolverAction action, int dir) {
+		final int cell = players[player];
+		final int x = cell % width;
+		final int y = cell / width;
+		final boolean carrying = carried[player] != 0;
+
+		switch (action) {
+		case WALK:
+			return walk(player, x, y, dir, carrying);
+		case CLIMB:
+			return climb(player, x, y, dir, carrying);
+		case PUSH:
+			return !carrying && push(player, x, y, dir);
+		case PULL:
+			return !carrying && pull(player, x, y, dir);
+		case LIFT:
+			return !carrying && lift(player, x, y, dir);
+		case PLACE:
+			return carrying && place(player, x, y, dir);
+		case ENTER:
+			return !carrying && enter(player, x, y, dir);
+		default:
+			return false;
+		}
+	}
+
+	private boolean walk(int player, int x, int y, int dir, boolean carrying) {
+		if (collisionAt(x + dir, y)) {
+			return false;
+		}
+		if (carrying && !isFree(x + dir, y + 1)) {
+			return false;
+		}
+		players[player] += dir;
+		return true;
+	}
+
+	private boolean climb(int player, int x, int y, int dir, boolean carrying) {
+		if (y + 1 >= height || !hasBlock(x + dir, y)
+				|| hasBlock(x + dir, y + 1)) {
+			return false;
+		}
+		if (carrying ? !isFree(x + dir, y + 2) : hasBlock(x, y + 1)) {
+			return false;
+		}
+		players[player] += dir + width;
+		return true;
+	}
+
+	private boolean push(int player, int x, int y, int dir) {
+		if (!canBeGrabbed(x + dir, y)) {
+			return false;
+		}
+
+		int end = x + dir;
+		while (hasBlock(end, y)) {
+			final int kind = kindAt(end, y);
+			if ((kind & Puzzle.MOVABLE) == 0 || end <= 0 || end >= width - 1
+					|| hasHeavyBlock(end, y + 1)) {
+				return false;
+			}
+			end += dir;
+		}
+
+		for (int bx = end - dir; bx != x; bx -= dir) {
+			moveBlock(slots[cellOf(bx, y)] - 1, cellOf(bx + dir, y));
+		}
+		players[player] += dir;
+		return true;
+	}
+
+	private boolean pull(int player, int x, int y, int dir) {
+		final int back = x - dir;
+		if (!canBeGrabbed(x + dir, y) || collisionAt(back, y)
+				|| !hasBlock(back, y - 1) || hasHeavyBlock(x + dir, y + 1)
+				|| hasBlock(x, y)) {
+			return false;
+		}
+		players[player] -= dir;
+		moveBlock(slots[cellOf(x + dir, y)] - 1, cellOf(x, y));
+		return true;
+	}
+
+	private boolean lift(int player, int x, int y, int dir) {
+		if (!isLoose(x + dir, y)
+				|| (kindAt(x + dir, y) & Puzzle.LIFTABLE) == 0
+				|| hasBlock(x + dir, y + 1) || !isFree(x, y + 1)) {
+			return false;
+		}
+		final int index = slots[cellOf(x + dir, y)] - 1;
+		carried[player] = kinds[index];
+		removeBlock(index);
+		return true;
+	}
+
+	private boolean place(int player, int x, int y, int dir) {
+		final int target;
+		if (isFree(x + dir, y)) {
+			target = cellOf(x + dir, y);
+		} else if (isFree(x + dir, y + 1)) {
+			target = cellOf(x + dir, y + 1);
+		} else {
+			return false;
+		}
+		addBlock(target, carried[player]);
+		carried[player] = 0;
+		return true;
+	}
+
+	private boolean enter(int player, int x, int y, int dir) {
+		if ((kindAt(x + dir, y) & Puzzle.TELEPORTER) == 0) {
+			return false;
+		}
+		players[player] = -1;
+		return true;
+	}
+
+	/**
+	 * Let heavy blocks and players fall until everything rests on something
+	 * solid. Blocks and players never stop each other from falling, except
+	 * for a lifted block, which needs the cell of its player to be free.
+	 */
+	private void settle() {
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i = 0; i < blockCount; i++) {
+				final int cell = blocks[i];
+				if ((kinds[i] & Puzzle.WEIGHT) != 0 && cell >= width
+						&& cells[cell - width] == 0) {
+					moveBlock(i, cell - width);
+					changed = true;
+				}
+			}
+			for (int i = 0; i < playerCount; i++) {
+				final int cell = players[i];
+				if (cell < 0) {
+					continue;
+				}
+				if (canFall(i)) {
+					players[i] -= width;
+					changed = true;
+				}
+			}
+		}
+	}
+
+	private boolean canFall(int player) {
+		final int cell = players[player];
+		return !collisionAt(cell % width, cell / width - 1)
+				&& (carried[player] == 0 || cells[cell] == 0);
+	}
+
+	/**
+	 * Let a single player fall, which is all that can happen after it has
+	 * walked since walking never moves a block.
+	 */
+	private void fall(int player) {
+		while (canFall(player)) {
+			players[player] -= width;
+		}
+	}
+
+	private void moveBlock(int index, int cell) {
+		final int from = blocks[index];
+		cells[from] = 0;
+		slots[from] = 0;
+		blocks[index] = cell;
+		cells[cell] = (byte) kinds[index];
+		slots[cell] = index + 1;
+	}
+
+	private void removeBlock(int index) {
+		final int cell = blocks[index];
+		cells[cell] = 0;
+		slots[cell] = 0;
+
+		final int last = --blockCount;
+		if (index != last) {
+			blocks[index] = blocks[last];
+			kinds[index] = kinds[last];
+			slots[blocks[index]] = index + 1;
+		}
+	}
+
+	private void addBlock(int cell, int kind) {
+		final int index = blockCount++;
+		blocks[index] = cell;
+		kinds[index] = kind;
+		cells[cell] = (byte) kind;
+		slots[cell] = index + 1;
+	}
+
+	private int cellOf(int x, int y) {
+		return y * width + x;
+	}
+
+	private boolean isInside(int x, int y) {
+		return x >= 0 && x < width && y >= 0 && y < height;
+	}
+
+	private int kindAt(int x, int y) {
+		return isInside(x, y) ? cells[cellOf(x, y)] : 0;
+	}
+
+	private boolean hasBlock(int x, int y) {
+		return kindAt(x, y) != 0;
+	}
+
+	private boolean isFree(int x, int y) {
+		return isInside(x, y) && cells[cellOf(x, y)] == 0;
+	}
+
+	private boolean isLoose(int x, int y) {
+		return isInside(x, y) && slots[cellOf(x, y)] != 0;
+	}
+
+	private boolean canBeGrabbed(int x, int y) {
+		return isLoose(x, y)
+				&& (kindAt(x, y) & (Puzzle.MOVABLE | Puzzle.LIFTABLE)) != 0;
+	}
+
+	private boolean hasHeavyBlock(int x, int y) {
+		return (kindAt(x, y) & Puzzle.WEIGHT) != 0;
+	}
+
+	/**
+	 * Same as BlockMap.collisionAt, everything outside of the map is solid.
+	 */
+	private boolean collisionAt(int x, int y) {
+		return !isInside(x, y) || (cells[cellOf(x, y)] & Puzzle.SOLID) != 0;
+	}
+}
@@ -0,0 +1,225 @@
+package edu.chalmers.blockster.solver;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.chalmers.blockster.core.objects.Block;
+import edu.chalmers.blockster.core.objects.BlockMap;
+import edu.chalmers.blockster.core.objects.BlockProperties;
+
+/**
+ * The parts of a map that never change while solving it, i.e. its size and
+ * the blocks that can neither be moved, lifted nor fall, together with the
+ * starting configuration of everything else. Shared by all threads of the
+ * solver.
+ *
+ * A block is described by its kind, the properties the rules care about with
+ * the PRESENT bit set.
+ */
+final class Puzzle {
+
+	static final int SOLID = (int) BlockProperties.SOLID;
+	static final int WEIGHT = (int) BlockProperties.WEIGHT;
+	static final int MOVABLE = (int) BlockProperties.MOVABLE;
+	static final int LIFTABLE = (int) BlockProperties.LIFTABLE;
+	static final int TELEPORTER = (int) BlockProperties.TELEPORTER;
+	static final int PRESENT = 1 << 5;
+
+	private static final int RULE_PROPERTIES = SOLID | WEIGHT | MOVABLE
+			| LIFTABLE | TELEPORTER;
+	private static final int LOOSE = WEIGHT | MOVABLE | LIFTABLE;
+
+	private final int width;
+	private final int height;
+	private final byte[] fixedCells;
+	private final int[] playerIds;
+	private final int looseBlocks;
+	private final SolverState start;
+
+	private Puzzle(int width, int height, byte[] fixedCells, int[] playerIds,
+			int[] data) {
+		this.width = width;
+		this.height = height;
+		this.fixedCells = fixedCells;
+		this.playerIds = playerIds;
+		this.looseBlocks = data.length - playerIds.length;
+
+		/* Let everything fall into place before the first move */
+		final Board board = new Board(this);
+		start = board.settled(new SolverState(data, null, -1, null));
+	}
+
+	/**
+	 * Split a map into puzzles that can be solved one at a time. Every move
+	 * takes a player or a block at most one cell in any direction, so nothing
+	 * ever gets from one area enclosed by fixed blocks to another, and the
+	 * players of different areas never affect each other.
+	 *
+	 * @return A puzzle for every area with at least one player in it, ordered
+	 *         by their first player.
+	 */
+	static List<Puzzle> split(BlockMap map) {
+		final int width = map.getWidth();
+		final int height = map.getHeight();
+		if ((long) width * height > Integer.MAX_VALUE >> SolverState.KIND_BITS) {
+			throw new IllegalArgumentException("Map of " + width + " x "
+					+ height + " blocks is too large to be solved");
+		}
+
+		final byte[] fixedCells = new byte[width * height];
+		final List<Integer> loose = new ArrayList<Integer>();
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (!map.hasBlock(x, y)) {
+					continue;
+				}
+				final Block block = map.getBlock(x, y);
+				final int kind = PRESENT
+						| (int) (block.getProperties() & RULE_PROPERTIES);
+				if ((kind & LOOSE) != 0) {
+					loose.add(pack(y * width + x, kind));
+				} else {
+					fixedCells[y * width + x] = (byte) kind;
+				}
+			}
+		}
+
+		final int[] areas = findAreas(width, height, fixedCells);
+
+		/* A player stuck in a fixed block gets an area of its own */
+		final List<Point> startPositions = map.getPlayerStartingPositions();
+		final Map<Integer, List<Integer>> playersByArea =
+				new LinkedHashMap<Integer, List<Integer>>();
+		for (int i = 0; i < startPositions.size(); i++) {
+			final Point p = startPositions.get(i);
+			int area = areas[p.y * width + p.x];
+			if (area < 0) {
+				area = -1 - i;
+			}
+			if (!playersByArea.containsKey(area)) {
+				playersByArea.put(area, new ArrayList<Integer>());
+			}
+			playersByArea.get(area).add(i);
+		}
+
+		final List<Puzzle> puzzles = new ArrayList<Puzzle>();
+		for (final Map.Entry<Integer, List<Integer>> entry
+				: playersByArea.entrySet()) {
+			final List<Integer> players = entry.getValue();
+			final List<Integer> blocks = new ArrayList<Integer>();
+			for (final int packed : loose) {
+				if (areas[packed >> SolverState.KIND_BITS] == entry.getKey()) {
+					blocks.add(packed);
+				}
+			}
+
+			final int[] playerIds = new int[players.size()];
+			final int[] data = new int[players.size() + blocks.size()];
+			for (int i = 0; i < playerIds.length; i++) {
+				playerIds[i] = players.get(i);
+				final Point p = startPositions.get(playerIds[i]);
+				data[i] = pack(p.y * width + p.x, 0);
+			}
+			for (int i = 0; i < blocks.size(); i++) {
+				data[playerIds.length + i] = blocks.get(i);
+			}
+			puzzles.add(new Puzzle(width, height, fixedCells, playerIds, data));
+		}
+		return puzzles;
+	}
+
+	/**
+	 * Label the cells without a fixed block by the area they belong to, with
+	 * cells touching at a corner in the same area. Fixed cells get -1.
+	 */
+	private static int[] findAreas(int width, int height, byte[] fixedCells) {
+		final int[] areas = new int[width * height];
+		for (int i = 0; i < areas.length; i++) {
+			areas[i] = fixedCells[i] == 0 ? Integer.MAX_VALUE : -1;
+		}
+
+		final int[] stack = new int[width * height];
+		int area = 0;
+		for (int first = 0; first < areas.length; first++) {
+			if (areas[first] != Integer.MAX_VALUE) {
+				continue;
+			}
+			int size = 0;
+			stack[size++] = first;
+			areas[first] = area;
+			while (size > 0) {
+				final int cell = stack[--size];
+				final int x = cell % width;
+				final int y = cell / width;
+				for (int ny = Math.max(y - 1, 0); ny <= Math.min(y + 1,
+						height - 1); ny++) {
+					for (int nx = Math.max(x - 1, 0); nx <= Math.min(x + 1,
+							width - 1); nx++) {
+						final int next = ny * width + nx;
+						if (areas[next] == Integer.MAX_VALUE) {
+							areas[next] = area;
+							stack[size++] = next;
+						}
+					}
+				}
+			}
+			area++;
+		}
+		return areas;
+	}
+
+	static int pack(int cell, int kind) {
+		return cell << SolverState.KIND_BITS | kind;
+	}
+
+	int getWidth() {
+		return width;
+	}
+
+	int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Get the kind of the fixed block in every cell, or 0 for cells without
+	 * one. The array must not be modified.
+	 */
+	byte[] getFixedCells() {
+		return fixedCells;
+	}
+
+	int getPlayers() {
+		return playerIds.length;
+	}
+
+	/**
+	 * Get the index of a player of this puzzle among all players of the map.
+	 */
+	int getPlayerId(int player) {
+		return playerIds[player];
+	}
+
+	/**
+	 * Get the index of a player of the map among the players of this puzzle.
+	 */
+	int getPlayerIndex(int playerId) {
+		for (int i = 0; i < playerIds.length; i++) {
+			if (playerIds[i] == playerId) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Player " + playerId
+				+ " is not in this puzzle");
+	}
+
+	int getLooseBlocks() {
+		return looseBlocks;
+	}
+
+	SolverState getStart() {
+		return start;
+	}
+}
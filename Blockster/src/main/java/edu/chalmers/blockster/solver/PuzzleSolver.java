@@ -0,0 +1,273 @@
+package edu.chalmers.blockster.solver;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.chalmers.blockster.core.objects.BlockMap;
+import edu.chalmers.blockster.headless.HeadlessFactory;
+
+/**
+ * Finds the shortest solution of a map, i.e. the fewest moves of blocks that
+ * take all players into a teleporter, by a breadth first search over the
+ * configurations of players and loose blocks. The walking in between the
+ * moves is the shortest for each of them.
+ *
+ * Areas of the map that are closed off from each other by fixed blocks are
+ * solved one after the other. Each is searched one depth at a time, with the
+ * depth split over a work stealing pool. The states found are shared through
+ * a concurrent set, so that every state is expanded exactly once no matter
+ * which thread finds it first.
+ */
+public class PuzzleSolver {
+
+	public static final int DEFAULT_MAX_STATES = 5000000;
+
+	/* States expanded by a task before it is split in two */
+	private static final int SPLIT_THRESHOLD = 256;
+
+	private final ForkJoinPool pool;
+	private final int maxStates;
+
+	/**
+	 * Create a solver with a thread for every available processor.
+	 */
+	public PuzzleSolver() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_STATES);
+	}
+
+	/**
+	 * @param threads
+	 *            Number of threads to search with.
+	 * @param maxStates
+	 *            Most number of states to find before giving up, to bound the
+	 *            memory used on very open maps.
+	 */
+	public PuzzleSolver(int threads, int maxStates) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Number of threads is " + threads
+					+ ". Must be positive.");
+		}
+		if (maxStates <= 0) {
+			throw new IllegalArgumentException("Max states is " + maxStates
+					+ ". Must be positive.");
+		}
+		this.pool = new ForkJoinPool(threads);
+		this.maxStates = maxStates;
+	}
+
+	/**
+	 * Solve the map from the starting positions of its players. The map is
+	 * only read, never changed.
+	 */
+	public SolverResult solve(BlockMap map) {
+		final long start = System.nanoTime();
+
+		List<SolverStep> steps = new ArrayList<SolverStep>();
+		long states = 0;
+		boolean limitReached = false;
+		for (final Puzzle puzzle : Puzzle.split(map)) {
+			final Search search = new Search(puzzle, maxStates);
+			final List<SolverStep> solution = search(search);
+			states += search.getStates();
+			if (solution == null) {
+				limitReached = search.getStates() >= maxStates;
+				steps = null;
+				break;
+			}
+			steps.addAll(solution);
+		}
+		return new SolverResult(steps, states, limitReached,
+				System.nanoTime() - start);
+	}
+
+	/**
+	 * Stop the threads of the solver once the running search is done.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Search one puzzle, one depth at a time.
+	 *
+	 * @return The shortest solution, or null if there is none or the search
+	 *         ran out of states.
+	 */
+	private List<SolverStep> search(Search search) {
+		List<SolverState> frontier = Collections.singletonList(search.start());
+		while (!frontier.isEmpty() && !search.isDone()) {
+			frontier = pool.invoke(new FrontierTask(search, frontier, 0,
+					frontier.size()));
+		}
+
+		final SolverState goal = search.getGoal();
+		return goal == null ? null : trace(search.puzzle, goal);
+	}
+
+	/**
+	 * Follow the states back from the goal, filling in the walking between
+	 * the moves.
+	 */
+	private static List<SolverStep> trace(Puzzle puzzle, SolverState goal) {
+		final List<SolverState> path = new ArrayList<SolverState>();
+		for (SolverState state = goal; state.getParent() != null;
+				state = state.getParent()) {
+			path.add(state);
+		}
+		Collections.reverse(path);
+
+		final Board board = new Board(puzzle);
+		final List<SolverStep> steps = new ArrayList<SolverStep>();
+		for (final SolverState state : path) {
+			final SolverStep step = state.getStep();
+			board.walk(state.getParent(),
+					puzzle.getPlayerIndex(step.getPlayer()),
+					state.getActionCell(), steps);
+			steps.add(step);
+		}
+		return steps;
+	}
+
+	/**
+	 * What the tasks of a search share.
+	 */
+	private static final class Search {
+		private final Puzzle puzzle;
+		private final int maxStates;
+		private final Set<SolverState> visited;
+		private final AtomicInteger states;
+		private final AtomicReference<SolverState> goal;
+
+		public Search(Puzzle puzzle, int maxStates) {
+			this.puzzle = puzzle;
+			this.maxStates = maxStates;
+			this.visited = Collections.newSetFromMap(
+					new ConcurrentHashMap<SolverState, Boolean>());
+			this.states = new AtomicInteger();
+			this.goal = new AtomicReference<SolverState>();
+		}
+
+		public SolverState start() {
+			final SolverState start = puzzle.getStart();
+			visit(start);
+			return start;
+		}
+
+		/**
+		 * Mark the state as found.
+		 *
+		 * @return True if no thread had found it before.
+		 */
+		public boolean visit(SolverState state) {
+			if (!visited.add(state)) {
+				return false;
+			}
+			states.incrementAndGet();
+			if (state.isSolved(puzzle.getPlayers())) {
+				goal.compareAndSet(null, state);
+			}
+			return true;
+		}
+
+		public boolean isDone() {
+			return goal.get() != null || states.get() >= maxStates;
+		}
+
+		public SolverState getGoal() {
+			return goal.get();
+		}
+
+		public int getStates() {
+			return states.get();
+		}
+	}
+
+	/**
+	 * Expands a range of the states at one depth and returns the new states
+	 * of the next depth.
+	 */
+	private static final class FrontierTask extends
+			RecursiveTask<List<SolverState>> {
+		private static final long serialVersionUID = 1L;
+
+		private final transient Search search;
+		private final transient List<SolverState> frontier;
+		private final int from;
+		private final int to;
+
+		public FrontierTask(Search search, List<SolverState> frontier,
+				int from, int to) {
+			this.search = search;
+			this.frontier = frontier;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected List<SolverState> compute() {
+			if (to - from > SPLIT_THRESHOLD) {
+				final int middle = (from + to) >>> 1;
+				final FrontierTask left = new FrontierTask(search, frontier,
+						from, middle);
+				left.fork();
+				final List<SolverState> next = new FrontierTask(search,
+						frontier, middle, to).compute();
+				next.addAll(left.join());
+				return next;
+			}
+
+			final Board board = new Board(search.puzzle);
+			final List<SolverState> successors = new ArrayList<SolverState>();
+			final List<SolverState> next = new ArrayList<SolverState>();
+			for (int i = from; i < to && !search.isDone(); i++) {
+				board.expand(frontier.get(i), successors);
+				for (final SolverState successor : successors) {
+					if (search.visit(successor)) {
+						next.add(successor);
+					}
+				}
+				successors.clear();
+			}
+			return next;
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: PuzzleSolver map.tmx [max states]");
+			return;
+		}
+		final File file = new File(args[0]);
+		final int limit = args.length > 1 ? Integer.parseInt(args[1])
+				: DEFAULT_MAX_STATES;
+
+		final HeadlessFactory factory = new HeadlessFactory(file);
+		factory.createMap();
+
+		final PuzzleSolver solver = new PuzzleSolver(
+				Runtime.getRuntime().availableProcessors(), limit);
+		try {
+			final SolverResult result = solver.solve(factory.getMap());
+			if (result.isSolved()) {
+				for (final SolverStep step : result.getSteps()) {
+					System.out.println(step);
+				}
+			}
+			System.out.println(String.format(Locale.ENGLISH,
+					"%s: %s in %.3f s", file.getName(), result,
+					result.getNanos() / 1e9));
+		} finally {
+			solver.shutdown();
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package edu.chalmers.blockster.solver;
+
+/**
+ * The moves a player can make in a solution, each one towards the left or the
+ * right.
+ */
+public enum SolverAction {
+	/** Walk one block, carrying the lifted block if there is one. */
+	WALK,
+	/** Climb up on the block next to the player. */
+	CLIMB,
+	/** Push the blocks in front of the player one step. */
+	PUSH,
+	/** Pull the block in front of the player one step back. */
+	PULL,
+	/** Lift the block in front of the player up on its head. */
+	LIFT,
+	/** Put the lifted block down in front of the player. */
+	PLACE,
+	/** Enter the teleporter in front of the player. */
+	ENTER
+}
@@ -0,0 +1,77 @@
+package edu.chalmers.blockster.solver;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of solving a map: the shortest solution if one was found, and
+ * how much of the puzzle had to be searched.
+ */
+public class SolverResult {
+
+	private final List<SolverStep> steps;
+	private final long states;
+	private final boolean limitReached;
+	private final long nanos;
+
+	/**
+	 * @param steps
+	 *            The solution, or null if none was found
+	 * @param states
+	 *            The number of distinct states that were found
+	 * @param limitReached
+	 *            Whether the search was stopped before all states were
+	 *            explored
+	 */
+	public SolverResult(List<SolverStep> steps, long states,
+			boolean limitReached, long nanos) {
+		this.steps = steps == null ? null : Collections.unmodifiableList(steps);
+		this.states = states;
+		this.limitReached = limitReached;
+		this.nanos = nanos;
+	}
+
+	public boolean isSolved() {
+		return steps != null;
+	}
+
+	/**
+	 * Check if the map was proven to have no solution, i.e. every state that
+	 * can be reached was explored without finding one.
+	 */
+	public boolean isUnsolvable() {
+		return steps == null && !limitReached;
+	}
+
+	public boolean isLimitReached() {
+		return limitReached;
+	}
+
+	/**
+	 * Get the moves of the shortest solution, or null if there is none.
+	 */
+	public List<SolverStep> getSteps() {
+		return steps;
+	}
+
+	public long getStates() {
+		return states;
+	}
+
+	public long getNanos() {
+		return nanos;
+	}
+
+	@Override
+	public String toString() {
+		final String outcome;
+		if (isSolved()) {
+			outcome = "solved in " + steps.size() + " moves";
+		} else if (limitReached) {
+			outcome = "no solution found before the limit";
+		} else {
+			outcome = "unsolvable";
+		}
+		return outcome + ", " + states + " states";
+	}
+}
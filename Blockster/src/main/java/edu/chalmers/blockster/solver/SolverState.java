@@ -0,0 +1,84 @@
+package edu.chalmers.blockster.solver;
+
+import java.util.Arrays;
+
+/**
+ * A configuration of the players and the loose blocks of a puzzle, packed
+ * into a single int array. The first ints are the players, as the cell of the
+ * player shifted by KIND_BITS with the kind of the lifted block, if any, in
+ * the low bits, or -1 for a player that has left the map. The rest are the
+ * loose blocks in the same format, sorted so that states differing only in
+ * the order of blocks of the same kind are equal.
+ *
+ * Equality only depends on the packed configuration, the parent and the step
+ * leading here are kept so that the solution can be traced back.
+ */
+final class SolverState {
+
+	static final int KIND_BITS = 6;
+	static final int KIND_MASK = (1 << KIND_BITS) - 1;
+
+	private final int[] data;
+	private final int hash;
+	private final SolverState parent;
+	private final int actionCell;
+	private final SolverStep step;
+
+	SolverState(int[] data, SolverState parent, int actionCell,
+			SolverStep step) {
+		this.data = data;
+		this.hash = Arrays.hashCode(data);
+		this.parent = parent;
+		this.actionCell = actionCell;
+		this.step = step;
+	}
+
+	int[] getData() {
+		return data;
+	}
+
+	SolverState getParent() {
+		return parent;
+	}
+
+	/**
+	 * Get the cell the player walked to before making the step leading
+	 * here.
+	 */
+	int getActionCell() {
+		return actionCell;
+	}
+
+	SolverStep getStep() {
+		return step;
+	}
+
+	/**
+	 * Check if all players have left the map.
+	 */
+	boolean isSolved(int players) {
+		for (int i = 0; i < players; i++) {
+			if (data[i] >= 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof SolverState)) {
+			return false;
+		}
+		final SolverState other = (SolverState) obj;
+		return hash == other.hash && Arrays.equals(data, other.data);
+	}
+}
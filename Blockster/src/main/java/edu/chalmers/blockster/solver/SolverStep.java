@@ -0,0 +1,44 @@
+package edu.chalmers.blockster.solver;
+
+import edu.chalmers.blockster.core.objects.movement.Direction;
+
+/**
+ * A single move in a solution: which player makes it, what it does and in
+ * which direction.
+ */
+public class SolverStep {
+
+	private final int player;
+	private final SolverAction action;
+	private final Direction direction;
+
+	public SolverStep(int player, SolverAction action, Direction direction) {
+		this.player = player;
+		this.action = action;
+		this.direction = direction;
+	}
+
+	/**
+	 * Get the index of the player, in the order of the starting positions of
+	 * the map.
+	 */
+	public int getPlayer() {
+		return player;
+	}
+
+	public SolverAction getAction() {
+		return action;
+	}
+
+	/**
+	 * Get the direction of the move, either LEFT or RIGHT.
+	 */
+	public Direction getDirection() {
+		return direction;
+	}
+
+	@Override
+	public String toString() {
+		return "player " + player + ": " + action + " " + direction;
+	}
+}
@@ -0,0 +1,113 @@
+package edu.chalmers.blockster.core;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class FixedStepSimulatorTest {
+
+	private CountingModel model;
+	private FixedStepSimulator simulator;
+
+	private static class CountingModel extends Model {
+		private int updates;
+		private float lastDeltaTime;
+
+		public CountingModel(Factory factory) {
+			super(factory, "counting");
+		}
+
+		@Override
+		public void update(float deltaTime) {
+			super.update(deltaTime);
+			updates++;
+			lastDeltaTime = deltaTime;
+		}
+	}
+
+	@Before
+	public void setUp() {
+		final List<Point> startPos = new ArrayList<Point>();
+		startPos.add(new Point(1, 1));
+		model = new CountingModel(new TestFactory(10, 10, 1, 1, startPos));
+		simulator = new FixedStepSimulator(10, 3);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void illegalTickRateTest() {
+		new FixedStepSimulator(0, 3);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void illegalMaxStepsTest() {
+		new FixedStepSimulator(60, 0);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void negativeFrameTimeTest() {
+		simulator.advance(model, -1f);
+	}
+
+	@Test
+	public void fixedDeltaTimeTest() {
+		if (simulator.advance(model, 0.05f) != 0 || model.updates != 0) {
+			fail("Half a tick should not update the model");
+		}
+		assertTrue(Math.abs(simulator.getAlpha() - 0.5f) < 0.001f);
+
+		if (simulator.advance(model, 0.125f) != 1 || model.updates != 1) {
+			fail("The model should be updated once");
+		}
+		assertTrue(model.lastDeltaTime == simulator.getStepTime());
+		assertTrue(Math.abs(simulator.getAlpha() - 0.75f) < 0.001f);
+		assertTrue(simulator.getTicks() == 1);
+	}
+
+	@Test
+	public void maxStepsTest() {
+		if (simulator.advance(model, 10f) != 3 || model.updates != 3) {
+			fail("No more than max steps should be run in a frame");
+		}
+		if (simulator.getAlpha() < 0 || simulator.getAlpha() >= 1) {
+			fail("Time that could not be caught up with should be dropped");
+		}
+	}
+
+	@Test
+	public void resetTest() {
+		simulator.advance(model, 0.09f);
+		simulator.reset();
+		assertTrue(simulator.getAlpha() == 0);
+
+		simulator.advance(model, 0.09f);
+		assertTrue(model.updates == 0);
+	}
+
+	@Test
+	public void tickListenerTest() {
+		final int[] calls = new int[2];
+		simulator.setTickListener(new TickListener() {
+			@Override
+			public void beforeTick(Model tickModel) {
+				if (calls[0] != model.updates) {
+					fail("Listener should be called before the update");
+				}
+				calls[0]++;
+			}
+
+			@Override
+			public void afterTick(Model tickModel) {
+				calls[1]++;
+			}
+		});
+
+		simulator.advance(model, 0.25f);
+		assertTrue(calls[0] == 2 && calls[1] == 2);
+	}
+}
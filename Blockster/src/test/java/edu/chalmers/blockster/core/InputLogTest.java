@@ -0,0 +1,82 @@
+package edu.chalmers.blockster.core;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class InputLogTest {
+
+	private InputLog log;
+
+	@Before
+	public void setUp() {
+		log = new InputLog("stage", 1f / 60);
+		for (int i = 0; i < 100; i++) {
+			log.record(0);
+		}
+		for (int i = 0; i < 50; i++) {
+			log.record(InputState.LEFT_BUTTON_DOWN_FLAG);
+		}
+		log.record(InputState.LEFT_BUTTON_UP_FLAG);
+		log.record(0);
+		log.addCheckpoint(59, 0x123456789ABCDEFL);
+		log.addCheckpoint(151, -1L);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void illegalStepTimeTest() {
+		new InputLog("stage", 0);
+	}
+
+	@Test
+	public void runsTest() {
+		if (log.getTickCount() != 152 || log.getRunCount() != 4) {
+			fail("Equal flags should be stored as runs");
+		}
+		if (log.getFlags(0) != 0 || log.getFlags(99) != 0
+				|| log.getFlags(100) != InputState.LEFT_BUTTON_DOWN_FLAG
+				|| log.getFlags(149) != InputState.LEFT_BUTTON_DOWN_FLAG
+				|| log.getFlags(150) != InputState.LEFT_BUTTON_UP_FLAG
+				|| log.getFlags(151) != 0) {
+			fail("Wrong flags for a tick");
+		}
+	}
+
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void outsideLogTest() {
+		log.getFlags(152);
+	}
+
+	@Test
+	public void writeAndReadTest() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		log.write(out);
+		if (out.size() > 64) {
+			fail("Log should be compact, was " + out.size() + " bytes");
+		}
+
+		final InputLog read = InputLog.read(new ByteArrayInputStream(out.toByteArray()));
+		if (!"stage".equals(read.getStageName()) || read.getStepTime() != log.getStepTime()
+				|| read.getTickCount() != log.getTickCount()
+				|| read.getRunCount() != log.getRunCount()) {
+			fail("Read log differs from the written");
+		}
+		for (long tick = 0; tick < log.getTickCount(); tick++) {
+			if (read.getFlags(tick) != log.getFlags(tick)) {
+				fail("Flags of tick " + tick + " differ");
+			}
+		}
+		assertTrue(read.getCheckpoints().equals(log.getCheckpoints()));
+	}
+
+	@Test(expected=IOException.class)
+	public void notALogTest() throws IOException {
+		InputLog.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5}));
+	}
+}
@@ -0,0 +1,69 @@
+package edu.chalmers.blockster.core;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class InputStateTest {
+
+	private InputState input;
+	private Model model;
+
+	@Before
+	public void setUp() {
+		final List<Point> startPos = new ArrayList<Point>();
+		startPos.add(new Point(1, 1));
+		startPos.add(new Point(3, 1));
+		model = new Model(new TestFactory(10, 10, 1, 1, startPos), "input");
+		input = new InputState();
+	}
+
+	@Test
+	public void oneDirectionTest() {
+		input.keyDown(InputKey.LEFT);
+		input.keyDown(InputKey.RIGHT);
+
+		final int flags = input.getKeyFlags();
+		if ((flags & InputState.LEFT_BUTTON_DOWN_FLAG) != 0
+				|| (flags & InputState.RIGHT_BUTTON_DOWN_FLAG) == 0) {
+			fail("Only the last direction should be held down");
+		}
+	}
+
+	@Test
+	public void releasedKeysAreAppliedOnceTest() {
+		input.keyDown(InputKey.LEFT);
+		input.keyUp(InputKey.LEFT);
+		input.apply(model);
+
+		assertTrue(input.getKeyFlags() == 0);
+	}
+
+	@Test
+	public void switchCharacterTest() {
+		final Object first = model.getActivePlayer();
+		input.keyUp(InputKey.SWITCH_CHARACTER);
+		input.apply(model);
+
+		if (model.getActivePlayer() == first) {
+			fail("Active player should have been switched");
+		}
+	}
+
+	@Test
+	public void restartTest() {
+		model.setGameState(GameState.GAME_WON);
+		input.keyDown(InputKey.RESTART);
+
+		if (!input.apply(model) || model.getGameState() != GameState.GAME_RUNNING) {
+			fail("Stage should have been restarted");
+		}
+		assertTrue(!input.apply(model));
+	}
+}
@@ -3,12 +3,14 @@ package edu.chalmers.blockster.core;
 import static org.junit.Assert.*;
 
 import java.awt.Point;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
 import javax.vecmath.Vector2f;
 
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -365,6 +367,99 @@ public class ModelTest {
 		}
 		
 	}
-	
-	
+
+	@Test
+	public void zobristHashTest() {
+		if (model.getZobristHash() != model2.getZobristHash()) {
+			fail("Models of the same map should have the same hash");
+		}
+
+		final Player player = model.getActivePlayer();
+		final long hash = model.getZobristHash();
+		player.setX(player.getOriginX() + player.getScaleX() / 4);
+		if (model.getZobristHash() != hash) {
+			fail("Moving within a cell should not change the hash");
+		}
+
+		player.setX(player.getOriginX() + player.getScaleX());
+		if (model.getZobristHash() == hash) {
+			fail("Moving to another cell should change the hash");
+		}
+		assertTrue(model.getZobristHash() == model.computeZobristHash());
+
+		model.nextPlayer();
+		player.setX(player.getOriginX() - player.getScaleX());
+		assertTrue(model.getZobristHash() != hash);
+	}
+
+	@Test
+	public void previousPositionTest() {
+		final Player player = model.getActivePlayer();
+		final Block block = new Block(10, 10, model.getMap());
+		model.getMap().insertBlock(block);
+		player.startAnimation(Movement.PUSH_RIGHT);
+		block.startAnimation(Movement.PUSH_RIGHT);
+		block.removeFromGrid();
+		final float playerX = player.getX();
+		final float blockX = block.getX();
+
+		model.update(0.05f);
+		if (player.getX() == playerX || block.getX() == blockX) {
+			fail("The player and the block should have moved");
+		}
+		assertTrue(player.getPreviousX() == playerX);
+		assertTrue(block.getPreviousX() == blockX);
+		assertTrue(player.getInterpolatedX(0) == playerX);
+		assertTrue(player.getInterpolatedX(1) == player.getX());
+
+		final float halfway = block.getInterpolatedX(0.5f);
+		assertTrue(halfway > blockX && halfway < block.getX());
+	}
+
+	@Test
+	public void updateAllocationTest() {
+		final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		final com.sun.management.ThreadMXBean threadBean =
+				(com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+
+		/* A player standing on a floor, and blocks moving above it */
+		final List<Point> startPos = new ArrayList<Point>();
+		startPos.add(new Point(1, 1));
+		final TestFactory floorFactory = new TestFactory(40, 10, 1, 1, startPos);
+		final BlockMap map = floorFactory.getMap();
+		for (int x = 0; x < 40; x++) {
+			final Block floor = new Block(x, 0, map);
+			floor.setProperty("solid");
+			map.insertBlock(floor);
+		}
+		final Model floorModel = new Model(floorFactory, "floor");
+		for (int x = 4; x < 36; x++) {
+			final Block block = new Block(x, 5, map);
+			block.setAnimationState(new AnimationState(Movement.PUSH_RIGHT));
+		}
+
+		/* Reading the counter allocates a few bytes at most, so anything
+		 * allocated on every update ends up far above the number of updates */
+		final int updates = 100000;
+		for (int i = 0; i < updates; i++) {
+			floorModel.update(0.0000001f);
+		}
+		final long threadId = Thread.currentThread().getId();
+		final long start = threadBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < updates; i++) {
+			floorModel.update(0.0000001f);
+		}
+		final long allocated = threadBean.getThreadAllocatedBytes(threadId)
+				- start;
+
+		if (map.getActiveBlockCount() != 32) {
+			fail("All blocks should still be active");
+		}
+		if (allocated >= updates) {
+			fail("Updating the model allocated " + allocated + " bytes");
+		}
+	}
 }
@@ -0,0 +1,279 @@
+package edu.chalmers.blockster.core;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.chalmers.blockster.core.objects.Block;
+import edu.chalmers.blockster.core.objects.BlockMap;
+import edu.chalmers.blockster.core.objects.BlockMapListener;
+import edu.chalmers.blockster.core.objects.BlockProperties;
+import edu.chalmers.blockster.core.objects.PackedBlockMap;
+import edu.chalmers.blockster.core.objects.Player;
+import edu.chalmers.blockster.core.objects.World;
+import edu.chalmers.blockster.core.objects.movement.AnimationState;
+import edu.chalmers.blockster.core.objects.movement.Movement;
+import edu.chalmers.blockster.headless.HeadlessFactory;
+import edu.chalmers.blockster.headless.HeadlessRunner;
+import edu.chalmers.blockster.headless.ScriptedInput;
+
+public class StageSnapshotTest {
+
+	private Model model;
+	private long loadedHash;
+	private long loadedZobristHash;
+
+	/**
+	 * A packed map counting how many cells are looked at.
+	 */
+	private static class CountingMap extends PackedBlockMap {
+
+		private int lookups;
+
+		public CountingMap(int width, int height, List<Point> startPositions) {
+			super(width, height, 1, 1, startPositions);
+		}
+
+		@Override
+		public boolean hasBlock(int x, int y) {
+			lookups++;
+			return super.hasBlock(x, y);
+		}
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		model = loadStage1();
+		loadedHash = StateHash.of(model);
+		loadedZobristHash = model.getZobristHash();
+	}
+
+	private Model loadStage1() throws IOException {
+		return new Model(new HeadlessFactory(getClass().getResourceAsStream(
+				"/maps/stage1.tmx")), "stage1");
+	}
+
+	@Test
+	public void restartAfterPlayingTest() {
+		final ScriptedInput script = new ScriptedInput();
+		script.hold(0, InputKey.RIGHT, 40);
+		script.keyDown(40, InputKey.GRAB);
+		script.hold(45, InputKey.LEFT, 20);
+		script.keyUp(70, InputKey.GRAB);
+		script.hold(70, InputKey.SWITCH_CHARACTER, 1);
+		script.hold(75, InputKey.LEFT, 20);
+
+		final List<Player> players = new ArrayList<Player>(model.getPlayers());
+		final HeadlessRunner runner = new HeadlessRunner(model, script);
+		runner.run(100);
+		if (StateHash.of(model) == loadedHash) {
+			fail("Playing should have changed the stage");
+		}
+
+		model.restart();
+		assertTrue(StateHash.of(model) == loadedHash);
+		assertTrue(model.getZobristHash() == loadedZobristHash);
+		assertTrue(model.getZobristHash() == model.computeZobristHash());
+		assertTrue(model.getPlayers().equals(players));
+		assertTrue(model.getActivePlayer() == players.get(0));
+	}
+
+	@Test
+	public void restartMovedBlocksTest() throws IOException {
+		final BlockMap map = model.getMap();
+		final Block moved = findBlock(map, true);
+		final Block animated = findBlock(map, false);
+		final int movedX = (int) moved.getOriginX();
+		final int movedY = (int) moved.getOriginY();
+		final int animatedX = (int) animated.getOriginX();
+		final int animatedY = (int) animated.getOriginY();
+		final long movedProperties = moved.getProperties();
+
+		/* Move one block to an empty cell and leave another one active */
+		final Point empty = findEmptyCell(map);
+		final int emptyX = empty.x;
+		final int emptyY = empty.y;
+		map.removeBlock(moved);
+		moved.setX(emptyX);
+		moved.setY(emptyY);
+		map.insertBlock(moved);
+		moved.removeProperty("solid");
+		animated.removeFromGrid();
+		animated.setAnimationState(new AnimationState(Movement.FALL_DOWN));
+
+		final Player player = model.getPlayers().get(1);
+		model.nextPlayer();
+		model.getPlayers().remove(0);
+		player.setX(player.getOriginX() + 3 * player.getScaleX());
+
+		model.restart();
+
+		/* The blocks got their Block objects after the snapshot was taken */
+		if (!map.hasBlock(movedX, movedY)
+				|| map.getCellProperties(movedX, movedY) != movedProperties) {
+			fail("The moved block should be back where it was");
+		}
+		if (map.hasBlock(emptyX, emptyY)) {
+			fail("The cell the block was moved to should be empty again");
+		}
+		assertTrue(map.getBlock(movedX, movedY).isSolid());
+		assertTrue(map.getActiveBlocks().isEmpty());
+		assertTrue(map.hasBlock(animatedX, animatedY));
+		assertTrue(model.getPlayers().size() == 2);
+		assertTrue(StateHash.of(model) == loadedHash);
+		assertTrue(model.getZobristHash() == loadedZobristHash);
+		assertTrue(StateHash.of(model) == StateHash.of(loadStage1()));
+	}
+
+	@Test
+	public void restartKeepsBlockObjectsTest() {
+		final List<Point> startPositions = new ArrayList<Point>();
+		startPositions.add(new Point(1, 1));
+		final TestFactory factory = new TestFactory(8, 8, 48, 48, startPositions);
+		final BlockMap map = factory.getMap();
+		final Block moved = new Block(3, 2, map);
+		moved.setProperty("solid");
+		map.insertBlock(moved);
+		final Block kept = new Block(5, 2, map);
+		kept.setProperty("movable");
+		map.insertBlock(kept);
+
+		final Model stage = new Model(factory, "objects");
+		map.removeBlock(moved);
+		moved.setX(6);
+		moved.setY(4);
+		map.insertBlock(moved);
+		kept.removeProperty("movable");
+
+		final List<Block> removed = new ArrayList<Block>();
+		map.addListener(new BlockMapListener() {
+			@Override
+			public void blockInserted(Block block) {
+			}
+
+			@Override
+			public void blockRemoved(Block block) {
+				removed.add(block);
+			}
+		});
+		stage.restart();
+
+		if (map.getBlock(3, 2) != moved || map.hasBlock(6, 4)) {
+			fail("The moved block should be back where it was");
+		}
+		if (map.getBlock(5, 2) != kept || !kept.isMovable()) {
+			fail("The block that was not moved should be restored in place");
+		}
+		assertTrue(removed.size() == 1 && removed.get(0) == moved);
+	}
+
+	@Test
+	public void snapshotKeepsBlocksPackedTest() throws IOException {
+		final Model stage = loadStage1();
+		final PackedBlockMap map = (PackedBlockMap) stage.getMap();
+		if (map.getMaterialisedCount() != 0) {
+			fail("Taking the snapshot should not create Block objects");
+		}
+
+		stage.restart();
+		assertTrue(map.getMaterialisedCount() == 0);
+	}
+
+	@Test
+	public void restartCostTest() {
+		final List<Point> startPositions = new ArrayList<Point>();
+		startPositions.add(new Point(1, 1));
+		final CountingMap map = new CountingMap(1000, 1000, startPositions);
+		for (int y = 0; y < 1000; y += 4) {
+			for (int x = 0; x < 1000; x++) {
+				map.placeBlock(x, y, BlockProperties.SOLID
+						| BlockProperties.MOVABLE);
+			}
+		}
+		final Model stage = new Model(new Factory() {
+			@Override
+			public void createMap() {
+			}
+
+			@Override
+			public BlockMap getMap() {
+				return map;
+			}
+
+			@Override
+			public Player createPlayer(float startX, float startY,
+					BlockMap blockMap, World world) {
+				return new Player(startX, startY, blockMap, world);
+			}
+		}, "large");
+		final long zobristHash = map.getZobristHash();
+
+		/* Restarting an unchanged stage looks at no cells */
+		map.lookups = 0;
+		final int revision = map.getRevision();
+		stage.restart();
+		if (map.lookups != 0 || map.getRevision() != revision) {
+			fail("Restarting an unchanged stage should not touch the map");
+		}
+
+		final Block moved = map.getBlock(500, 500);
+		map.removeBlock(moved);
+		moved.setY(501);
+		map.insertBlock(moved);
+		map.getBlock(700, 400).removeFromGrid();
+
+		map.lookups = 0;
+		stage.restart();
+		if (map.lookups > 100) {
+			fail("Restarting looked at " + map.lookups + " cells for three"
+					+ " changed ones");
+		}
+		if (!map.hasBlock(500, 500) || map.hasBlock(500, 501)
+				|| !map.hasBlock(700, 400)) {
+			fail("The moved blocks should be back where they were");
+		}
+		assertTrue(map.getZobristHash() == zobristHash);
+		assertTrue(map.computeZobristHash() == zobristHash);
+	}
+
+	@Test
+	public void restartTwiceTest() {
+		model.restart();
+		model.restart();
+		assertTrue(StateHash.of(model) == loadedHash);
+		assertTrue(model.getGameState() == GameState.GAME_RUNNING);
+	}
+
+	private Point findEmptyCell(BlockMap map) {
+		for (int y = map.getHeight() - 1; y >= 0; y--) {
+			for (int x = 0; x < map.getWidth(); x++) {
+				if (!map.hasBlock(x, y)) {
+					return new Point(x, y);
+				}
+			}
+		}
+		throw new IllegalStateException("Map has no empty cell");
+	}
+
+	private Block findBlock(BlockMap map, boolean skipFirst) {
+		boolean skip = skipFirst;
+		for (int y = 0; y < map.getHeight(); y++) {
+			for (int x = 0; x < map.getWidth(); x++) {
+				if (map.hasBlock(x, y)) {
+					if (!skip) {
+						return map.getBlock(x, y);
+					}
+					skip = false;
+				}
+			}
+		}
+		throw new IllegalStateException("Map has too few blocks");
+	}
+}
@@ -0,0 +1,344 @@
+package edu.chalmers.blockster.core;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.chalmers.blockster.core.objects.Block;
+import edu.chalmers.blockster.core.objects.BlockMap;
+import edu.chalmers.blockster.core.objects.BlockProperties;
+import edu.chalmers.blockster.core.objects.PackedBlockMap;
+import edu.chalmers.blockster.core.objects.Player;
+import edu.chalmers.blockster.core.objects.World;
+import edu.chalmers.blockster.core.objects.interactions.AbstractPlayerInteraction;
+import edu.chalmers.blockster.core.objects.interactions.BlockGrabbedInteraction;
+import edu.chalmers.blockster.core.objects.interactions.BlockLiftedInteraction;
+import edu.chalmers.blockster.core.objects.movement.AnimationState;
+import edu.chalmers.blockster.core.objects.movement.Movement;
+
+public class UndoHistoryTest {
+
+	private Model model;
+	private BlockMap map;
+	private Block block;
+	private Player player;
+
+	@Before
+	public void setUp() {
+		final List<Point> startPos = new ArrayList<Point>();
+		startPos.add(new Point(2, 1));
+		final TestFactory factory = new TestFactory(20, 5, 1, 1, startPos);
+		map = factory.getMap();
+		for (int x = 0; x < 20; x++) {
+			final Block floor = new Block(x, 0, map);
+			floor.setProperty("solid");
+			map.insertBlock(floor);
+		}
+		block = new Block(3, 1, map);
+		block.setProperty("solid");
+		block.setProperty("weight");
+		block.setProperty("movable");
+		map.insertBlock(block);
+
+		model = new Model(factory, "undo");
+		player = model.getActivePlayer();
+	}
+
+	/**
+	 * Push the block one step right the way a grabbing player does, moving
+	 * the player along, and run the stage until it has settled.
+	 */
+	private void push() {
+		block.setAnimationState(new AnimationState(Movement.PUSH_RIGHT));
+		block.removeFromGrid();
+		player.setX(player.getOriginX() + player.getScaleX());
+		settle();
+	}
+
+	/**
+	 * Run the stage with the given keys for a number of ticks.
+	 */
+	private void play(InputState input, int ticks) {
+		for (int i = 0; i < ticks; i++) {
+			input.apply(model);
+			model.update(1 / 60f);
+		}
+	}
+
+	/**
+	 * Walk the player up to the block and grab it with the keys.
+	 */
+	private InputState grab() {
+		final InputState input = new InputState();
+		input.keyDown(InputKey.RIGHT);
+		play(input, 30);
+		input.keyUp(InputKey.RIGHT);
+		input.keyDown(InputKey.GRAB);
+		play(input, 30);
+		if (!player.isGrabbingBlock() || player.getProcessedBlock() != block) {
+			fail("The player should have grabbed the block");
+		}
+		return input;
+	}
+
+	private void settle() {
+		for (int i = 0; i < 20 && !map.getActiveBlocks().isEmpty(); i++) {
+			model.update(0.1f);
+		}
+		model.update(0.01f);
+	}
+
+	@Test
+	public void undoTest() {
+		final long hash = model.getZobristHash();
+		final float playerX = player.getOriginX();
+
+		push();
+		if (map.getBlock(4, 1) != block || map.hasBlock(3, 1)) {
+			fail("The block should have been pushed");
+		}
+
+		if (!model.undo()) {
+			fail("The push should be possible to undo");
+		}
+		if (map.getBlock(3, 1) != block || map.hasBlock(4, 1)) {
+			fail("The block should be back where it was");
+		}
+		assertTrue(player.getOriginX() == playerX);
+		assertTrue(model.getZobristHash() == hash);
+		assertTrue(model.getZobristHash() == model.computeZobristHash());
+		assertTrue(!model.undo());
+	}
+
+	@Test
+	public void redoTest() {
+		push();
+		final long pushedHash = model.getZobristHash();
+		final float pushedX = player.getOriginX();
+
+		model.undo();
+		if (!model.redo()) {
+			fail("The undone push should be possible to redo");
+		}
+		assertTrue(map.getBlock(4, 1) == block);
+		assertTrue(player.getOriginX() == pushedX);
+		assertTrue(model.getZobristHash() == pushedHash);
+		assertTrue(!model.redo());
+	}
+
+	@Test
+	public void newMoveClearsRedoTest() {
+		push();
+		push();
+		model.undo();
+		push();
+
+		final UndoHistory history = model.getUndoHistory();
+		assertTrue(history.getRedoMoves() == 0);
+		assertTrue(history.getUndoMoves() == 2);
+		assertTrue(!model.redo());
+	}
+
+	@Test
+	public void depthTest() {
+		model.setUndoDepth(2);
+		for (int i = 0; i < 5; i++) {
+			push();
+		}
+
+		if (model.getUndoHistory().getUndoMoves() != 2) {
+			fail("Only the given number of moves should be remembered");
+		}
+		model.undo();
+		model.undo();
+		assertTrue(map.getBlock(6, 1) == block);
+		assertTrue(!model.undo());
+
+		model.redo();
+		model.redo();
+		assertTrue(map.getBlock(8, 1) == block);
+	}
+
+	@Test
+	public void undoWhileMovingTest() {
+		block.setAnimationState(new AnimationState(Movement.PUSH_RIGHT));
+		block.removeFromGrid();
+		model.update(0.01f);
+
+		if (model.undo()) {
+			fail("Nothing should be undone while blocks are moving");
+		}
+		settle();
+		assertTrue(model.undo());
+		assertTrue(map.getBlock(3, 1) == block);
+	}
+
+	@Test
+	public void restartClearsHistoryTest() {
+		push();
+		model.restart();
+		assertTrue(!model.undo());
+	}
+
+	@Test
+	public void undoKeyTest() {
+		push();
+		final InputState input = new InputState();
+		input.keyUp(InputKey.UNDO);
+		input.apply(model);
+		assertTrue(map.getBlock(3, 1) == block);
+
+		input.keyUp(InputKey.REDO);
+		input.apply(model);
+		assertTrue(map.getBlock(4, 1) == block);
+	}
+
+	@Test
+	public void undoWithoutBlockObjectsTest() {
+		final List<Point> startPos = new ArrayList<Point>();
+		startPos.add(new Point(2, 1));
+		final PackedBlockMap packed = new PackedBlockMap(20, 5, 1, 1, startPos);
+		for (int x = 0; x < 20; x++) {
+			packed.placeBlock(x, 0, BlockProperties.SOLID);
+		}
+		packed.placeBlock(3, 1, BlockProperties.SOLID | BlockProperties.WEIGHT
+				| BlockProperties.MOVABLE);
+
+		model = new Model(new Factory() {
+			@Override
+			public void createMap() {
+			}
+
+			@Override
+			public BlockMap getMap() {
+				return packed;
+			}
+
+			@Override
+			public Player createPlayer(float startX, float startY,
+					BlockMap blockMap, World world) {
+				return new Player(startX, startY, blockMap, world);
+			}
+		}, "packed");
+		map = packed;
+		block = packed.getBlock(3, 1);
+		player = model.getActivePlayer();
+
+		push();
+		assertTrue(model.undo());
+		assertTrue(map.getBlock(3, 1) == block);
+		assertTrue(model.redo());
+		assertTrue(map.getBlock(4, 1) == block);
+		if (packed.getMaterialisedCount() != 1) {
+			fail("Only the pushed block should get a Block object");
+		}
+	}
+
+	@Test
+	public void undoGrabbedPushTest() {
+		final InputState input = grab();
+		final float playerX = player.getOriginX();
+		final AbstractPlayerInteraction grabbed = player.getInteraction();
+
+		input.keyDown(InputKey.RIGHT);
+		play(input, 1);
+		input.keyUp(InputKey.RIGHT);
+		play(input, 30);
+		if (map.getBlock(4, 1) != block || !player.isGrabbingBlock()) {
+			fail("The block should have been pushed by the grabbing player");
+		}
+		final float pushedX = player.getOriginX();
+		final AbstractPlayerInteraction pushing = player.getInteraction();
+
+		assertTrue(model.undo());
+		if (map.getBlock(3, 1) != block || player.getOriginX() != playerX) {
+			fail("The push should have been undone");
+		}
+		if (player.getInteraction() != grabbed || !player.isGrabbingBlock()
+				|| player.getProcessedBlock() != block
+				|| block.getInteraction() != grabbed) {
+			fail("The player should still grab the block after undoing");
+		}
+
+		assertTrue(model.redo());
+		if (map.getBlock(4, 1) != block || player.getOriginX() != pushedX) {
+			fail("The push should have been redone");
+		}
+		if (player.getInteraction() != pushing || !player.isGrabbingBlock()
+				|| block.getInteraction() != pushing) {
+			fail("The player should grab the block after redoing");
+		}
+
+		/* The restored grab pushes the block on */
+		input.keyDown(InputKey.RIGHT);
+		play(input, 1);
+		input.keyUp(InputKey.RIGHT);
+		play(input, 30);
+		assertTrue(map.getBlock(5, 1) == block);
+	}
+
+	@Test
+	public void undoLiftAndPlaceTest() {
+		block.setProperty("liftable");
+		final InputState input = grab();
+		final float playerX = player.getOriginX();
+
+		/* Releasing the grab key without moving lifts the block */
+		input.keyUp(InputKey.GRAB);
+		play(input, 60);
+		if (!player.isLiftingBlock() || !block.isLifted()) {
+			fail("The player should have lifted the block");
+		}
+
+		/* The player has not moved, so the block is put back where it was */
+		input.keyDown(InputKey.GRAB);
+		play(input, 1);
+		input.keyUp(InputKey.GRAB);
+		play(input, 60);
+		if (player.isLiftingBlock() || block.isLifted()
+				|| map.getBlock(3, 1) != block) {
+			fail("The player should have placed the block");
+		}
+		final long placedHash = model.getZobristHash();
+
+		/* The block is held from lifting to placing, so that is one move */
+		assertTrue(model.undo());
+		if (map.getBlock(3, 1) != block || player.getOriginX() != playerX) {
+			fail("The lift should have been undone");
+		}
+		if (!(player.getInteraction() instanceof BlockGrabbedInteraction)
+				|| !player.isGrabbingBlock() || player.isLiftingBlock()
+				|| block.isLifted()) {
+			fail("The player should grab the block as before lifting it");
+		}
+
+		assertTrue(model.redo());
+		if (player.isInteracting() || block.isLifted()
+				|| block.getInteraction() != AbstractPlayerInteraction.NONE) {
+			fail("The player should hold nothing after redoing the place");
+		}
+		assertTrue(model.getZobristHash() == placedHash);
+
+		/* The grab that is restored lifts the block like the original */
+		assertTrue(model.undo());
+		input.keyDown(InputKey.GRAB);
+		play(input, 1);
+		input.keyUp(InputKey.GRAB);
+		play(input, 60);
+		if (!player.isLiftingBlock() || !block.isLifted()
+				|| !(player.getInteraction() instanceof BlockLiftedInteraction)) {
+			fail("The restored grab should lift the block");
+		}
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void nonPositiveDepthTest() {
+		model.setUndoDepth(0);
+	}
+}
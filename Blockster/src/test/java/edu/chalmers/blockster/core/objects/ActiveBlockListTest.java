@@ -0,0 +1,190 @@
+package edu.chalmers.blockster.core.objects;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Point;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.chalmers.blockster.core.objects.movement.AnimationState;
+import edu.chalmers.blockster.core.objects.movement.Movement;
+
+public class ActiveBlockListTest {
+
+	private ActiveBlockList list;
+	private BlocksterMap blockMap;
+
+	@Before
+	public void setUp() {
+		final List<Point> startPos = new ArrayList<Point>();
+		startPos.add(new Point(0, 0));
+		blockMap = new BlocksterMap(40, 10, 1, 1, startPos);
+		list = new ActiveBlockList();
+	}
+
+	@Test
+	public void activateTest() {
+		final Block block = new Block(1, 1, blockMap);
+		list.activate(block);
+		list.activate(block);
+
+		if (list.size() != 1 || !list.contains(block)) {
+			fail("Block should be active exactly once");
+		}
+
+		list.deactivate(block);
+		if (!list.isEmpty() || list.contains(block)) {
+			fail("Block should not be active");
+		}
+	}
+
+	@Test
+	public void deactivateMovesLastTest() {
+		final Block block1 = new Block(1, 1, blockMap);
+		final Block block2 = new Block(2, 1, blockMap);
+		final Block block3 = new Block(3, 1, blockMap);
+		list.activate(block1);
+		list.activate(block2);
+		list.activate(block3);
+
+		list.deactivate(block1);
+		if (list.size() != 2 || !list.contains(block2) || !list.contains(block3)) {
+			fail("Remaining blocks should still be active");
+		}
+		assertTrue(list.get(0) == block3);
+	}
+
+	@Test
+	public void changesDuringUpdateAreDeferredTest() {
+		final Block block1 = new Block(1, 1, blockMap);
+		final Block block2 = new Block(2, 1, blockMap);
+		list.activate(block1);
+
+		list.beginUpdate();
+		list.activate(block2);
+		list.deactivate(block1);
+		if (list.size() != 1 || list.get(0) != block1) {
+			fail("Changes should not be visible during the update");
+		}
+		list.endUpdate();
+
+		if (list.size() != 1 || list.get(0) != block2) {
+			fail("Changes should be applied after the update");
+		}
+	}
+
+	@Test
+	public void cancelledChangeDuringUpdateTest() {
+		final Block block = new Block(1, 1, blockMap);
+
+		list.beginUpdate();
+		list.activate(block);
+		list.deactivate(block);
+		list.endUpdate();
+
+		assertTrue(list.isEmpty());
+	}
+
+	@Test(expected=UnsupportedOperationException.class)
+	public void unmodifiableTest() {
+		list.add(new Block(1, 1, blockMap));
+	}
+
+	/**
+	 * Get the bytes allocated by this thread while running the task the given
+	 * number of times, after as many runs to warm up. Reading the counter
+	 * allocates a few bytes at most, so a task that allocates anything on
+	 * every run ends up far above the number of runs.
+	 */
+	private static long allocatedBytes(Runnable task, int runs) {
+		final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		final com.sun.management.ThreadMXBean threadBean =
+				(com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+
+		for (int i = 0; i < runs; i++) {
+			task.run();
+		}
+		final long threadId = Thread.currentThread().getId();
+		final long start = threadBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < runs; i++) {
+			task.run();
+		}
+		return threadBean.getThreadAllocatedBytes(threadId) - start;
+	}
+
+	private void activateBlocks(int count) {
+		for (int x = 0; x < count; x++) {
+			final Block block = new Block(x, 5, blockMap);
+			block.setAnimationState(new AnimationState(Movement.PUSH_RIGHT));
+		}
+	}
+
+	@Test
+	public void updateActiveBlocksAllocationTest() {
+		activateBlocks(32);
+
+		final int runs = 100000;
+		final long allocated = allocatedBytes(new Runnable() {
+			@Override
+			public void run() {
+				blockMap.updateActiveBlocks(0.0000001f);
+			}
+		}, runs);
+
+		if (blockMap.getActiveBlocks().size() != 32) {
+			fail("All blocks should still be active");
+		}
+		if (allocated >= runs) {
+			fail("Updating the active blocks allocated " + allocated + " bytes");
+		}
+	}
+
+	@Test
+	public void activeBlockLoopAllocationTest() {
+		activateBlocks(32);
+
+		/* The way the model and the view go through the active blocks */
+		final int runs = 100000;
+		final long allocated = allocatedBytes(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < blockMap.getActiveBlockCount(); i++) {
+					blockMap.getActiveBlock(i).capturePreviousPosition();
+				}
+			}
+		}, runs);
+
+		if (allocated >= runs) {
+			fail("Looping over the active blocks allocated " + allocated
+					+ " bytes");
+		}
+	}
+
+	@Test
+	public void activeBlockIteratorAllocatesTest() {
+		activateBlocks(32);
+
+		/* Makes sure the measurement sees an allocation on every run */
+		final int runs = 100000;
+		final long allocated = allocatedBytes(new Runnable() {
+			@Override
+			public void run() {
+				final Object[] blocks = blockMap.getActiveBlocks().toArray();
+				if (blocks.length != 32) {
+					fail("All blocks should be active");
+				}
+			}
+		}, runs);
+
+		assertTrue(allocated >= runs);
+	}
+}
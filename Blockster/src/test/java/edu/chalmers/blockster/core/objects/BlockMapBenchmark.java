@@ -0,0 +1,116 @@
+package edu.chalmers.blockster.core.objects;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A microbenchmark comparing the lookup latency of the BlockMap
+ * implementations. It is not run as a part of the tests, run the main method
+ * to get the numbers.
+ */
+public final class BlockMapBenchmark {
+
+	private static final int SIZE = 1024;
+	private static final int LOOKUPS = 1 << 22;
+	private static final int ROUNDS = 10;
+	private static final float FILL_RATE = 0.2f;
+
+	private BlockMapBenchmark() {
+	}
+
+	public static void main(String[] args) {
+		final List<Point> startPos = new ArrayList<Point>();
+		startPos.add(new Point(0, 0));
+
+		final BlockMap[] maps = {
+			new BlocksterMap(SIZE, SIZE, 1, 1, startPos),
+			new PackedBlockMap(SIZE, SIZE, 1, 1, startPos),
+			new ChunkedBlockMap(SIZE, SIZE, 1, 1, startPos)
+		};
+
+		for (final BlockMap map : maps) {
+			fill(map, new Random(0));
+		}
+
+		final int[] coordinates = new int[LOOKUPS * 2];
+		final Random random = new Random(1);
+		for (int i = 0; i < coordinates.length; i++) {
+			coordinates[i] = random.nextInt(SIZE);
+		}
+
+		for (final BlockMap map : maps) {
+			/* Warm up */
+			for (int i = 0; i < ROUNDS; i++) {
+				hasBlock(map, coordinates);
+				collisionAt(map, coordinates);
+			}
+
+			final long hasBlockTime = time(map, coordinates, false);
+			final long collisionTime = time(map, coordinates, true);
+
+			System.out.println(map.getClass().getSimpleName()
+					+ ": hasBlock " + nanosPerLookup(hasBlockTime) + " ns,"
+					+ " collisionAt " + nanosPerLookup(collisionTime) + " ns");
+		}
+	}
+
+	private static void fill(BlockMap map, Random random) {
+		for (int x = 0; x < SIZE; x++) {
+			for (int y = 0; y < SIZE; y++) {
+				if (random.nextFloat() >= FILL_RATE) {
+					continue;
+				}
+
+				if (map instanceof PackedBlockMap) {
+					/* The packed map is filled the way a loader would */
+					((PackedBlockMap) map).placeBlock(x, y, BlockProperties.SOLID);
+				} else {
+					final Block block = new Block(x, y, map);
+					block.setProperty("solid");
+					map.insertBlock(block);
+				}
+			}
+		}
+	}
+
+	private static long time(BlockMap map, int[] coordinates, boolean collision) {
+		long best = Long.MAX_VALUE;
+		int sink = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			final long start = System.nanoTime();
+			sink += collision ? collisionAt(map, coordinates)
+					: hasBlock(map, coordinates);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		if (sink == 42) {
+			System.out.println();
+		}
+		return best;
+	}
+
+	private static int hasBlock(BlockMap map, int[] coordinates) {
+		int hits = 0;
+		for (int i = 0; i < coordinates.length; i += 2) {
+			if (map.hasBlock(coordinates[i], coordinates[i + 1])) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	private static int collisionAt(BlockMap map, int[] coordinates) {
+		int hits = 0;
+		for (int i = 0; i < coordinates.length; i += 2) {
+			if (map.collisionAt(coordinates[i], coordinates[i + 1])) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	private static String nanosPerLookup(long nanos) {
+		return String.format("%.2f", (double) nanos / LOOKUPS);
+	}
+}
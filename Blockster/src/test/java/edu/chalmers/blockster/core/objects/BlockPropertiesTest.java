@@ -0,0 +1,60 @@
+package edu.chalmers.blockster.core.objects;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.Test;
+
+public class BlockPropertiesTest {
+
+	@Test(expected=InvocationTargetException.class)
+	public void testConstructor() throws Exception {
+		Constructor<BlockProperties> c = BlockProperties.class.getDeclaredConstructor();
+		c.setAccessible(true);
+		c.newInstance();
+	}
+
+	@Test
+	public void testKnownProperties() {
+		if (BlockProperties.bitOf("solid") != BlockProperties.SOLID
+				|| BlockProperties.bitOf("Weight") != BlockProperties.WEIGHT
+				|| BlockProperties.bitOf("MOVABLE") != BlockProperties.MOVABLE
+				|| BlockProperties.bitOf("liftable") != BlockProperties.LIFTABLE
+				|| BlockProperties.bitOf("teleporter") != BlockProperties.TELEPORTER) {
+			fail("Known properties should have fixed bits");
+		}
+	}
+
+	@Test
+	public void testUnknownPropertyIsIgnored() {
+		/* More names than there are bits in a mask */
+		for (int i = 0; i < 2 * Long.SIZE; i++) {
+			if (BlockProperties.bitOf("PropertiesTestColour" + i) != 0) {
+				fail("Unknown properties should have no bit");
+			}
+		}
+
+		final Block block = new Block(0, 0, null);
+		block.setProperty("blue");
+		assertTrue(block.getProperties() == 0);
+		assertTrue(!block.removeProperty("blue"));
+	}
+
+	@Test
+	public void testBlockMask() {
+		final Block block = new Block(0, 0, null);
+		block.setProperty("Solid");
+		block.setProperty("liftable");
+
+		if (block.getProperties() != (BlockProperties.SOLID | BlockProperties.LIFTABLE)) {
+			fail("Incorrect property mask");
+		}
+		if (!block.removeProperty("solid") || block.removeProperty("solid")) {
+			fail("removeProperty should report if the property was set");
+		}
+		assertTrue(!block.isSolid() && block.isLiftable());
+	}
+}
@@ -228,6 +228,63 @@ public class BlocksterMapTest {
 			fail("getBlock fail");
 		}
 	}
+	@Test
+	public void getBlocksIsLiveTest() {
+		final Set<Block> set = blockMap.getBlocks();
+		if (!set.isEmpty()) {
+			fail("A new map should not have any blocks");
+		}
+
+		Block block = new Block(1, 1, blockMap);
+		blockMap.insertBlock(block);
+		if (set.size() != 1 || !set.contains(block)) {
+			fail("Inserted block is missing from the block set");
+		}
+
+		blockMap.removeBlock(block);
+		if (!set.isEmpty()) {
+			fail("Removed block is still in the block set");
+		}
+	}
+
+	@Test
+	public void collisionAfterPropertyChangeTest() {
+		Block block = new Block(1, 1, blockMap);
+		blockMap.insertBlock(block);
+		if (blockMap.collisionAt(1, 1)) {
+			fail("Block is not solid yet");
+		}
+
+		block.setProperty("solid");
+		if (!blockMap.collisionAt(1, 1) || !blockMap.hasSolidBlockIn(0, 0, 2, 2)) {
+			fail("Block should be solid after setting the property");
+		}
+
+		block.removeProperty("solid");
+		if (blockMap.collisionAt(1, 1) || blockMap.hasSolidBlockIn(0, 0, 2, 2)) {
+			fail("Block should not be solid after removing the property");
+		}
+	}
+
+	@Test
+	public void hasSolidBlockInTest() {
+		Block block = new Block(2, 3, blockMap);
+		block.setProperty("solid");
+		blockMap.insertBlock(block);
+
+		if (!blockMap.hasSolidBlockIn(2, 3, 2, 3) || blockMap.hasSolidBlockIn(0, 0, 1, 3)) {
+			fail("Wrong solid cells in the rectangle");
+		}
+
+		block.removeFromGrid();
+		assertTrue(!blockMap.hasSolidBlockIn(0, 0, 9, 9));
+	}
+
+	@Test(expected=UnsupportedOperationException.class)
+	public void getBlocksUnmodifiableTest() {
+		blockMap.getBlocks().add(new Block(1, 1, blockMap));
+	}
+
 	@Test
 	public void getActiveBlocksTest() {
 		Block block = new Block(1, 1, blockMap);
@@ -258,4 +315,137 @@ public class BlocksterMapTest {
 			fail("Did not remove active block after insertFinishedBLock");
 		}
 	}
+
+	@Test
+	public void zobristHashTest() {
+		final long emptyHash = blockMap.getZobristHash();
+		final Block block = new Block(3, 4, blockMap);
+		block.setProperty("solid");
+		blockMap.insertBlock(block);
+		final long insertedHash = blockMap.getZobristHash();
+
+		if (insertedHash == emptyHash) {
+			fail("Inserting a block should change the hash");
+		}
+		if (insertedHash != blockMap.computeZobristHash()) {
+			fail("The kept hash should be the same as the computed one");
+		}
+
+		block.setProperty("movable");
+		if (blockMap.getZobristHash() == insertedHash
+				|| blockMap.getZobristHash() != blockMap.computeZobristHash()) {
+			fail("Changing the properties of a block should update the hash");
+		}
+		block.removeProperty("movable");
+		assertTrue(blockMap.getZobristHash() == insertedHash);
+
+		blockMap.removeBlock(block);
+		assertTrue(blockMap.getZobristHash() == emptyHash);
+	}
+
+	@Test
+	public void zobristHashOrderTest() {
+		final BlocksterMap other = new BlocksterMap(8, 12, 48, 48, startPos);
+		final Block block1 = new Block(1, 1, blockMap);
+		final Block block2 = new Block(2, 5, blockMap);
+		blockMap.insertBlock(block1);
+		blockMap.insertBlock(block2);
+		other.insertBlock(new Block(2, 5, other));
+		other.insertBlock(new Block(1, 1, other));
+
+		if (blockMap.getZobristHash() != other.getZobristHash()) {
+			fail("The hash should not depend on the order of the changes");
+		}
+
+		blockMap.removeBlock(block2);
+		block2.setX(3);
+		blockMap.insertBlock(block2);
+		assertTrue(blockMap.getZobristHash() != other.getZobristHash());
+	}
+
+	private Block addBlock(int x, int y, boolean weight) {
+		final Block added = new Block(x, y, blockMap);
+		added.setProperty("solid");
+		if (weight) {
+			added.setProperty("weight");
+		}
+		blockMap.insertBlock(added);
+		return added;
+	}
+
+	@Test
+	public void removedSupportTest() {
+		addBlock(3, 0, false);
+		final Block support = addBlock(3, 1, false);
+		final Block lower = addBlock(3, 2, true);
+		final Block upper = addBlock(3, 3, true);
+		final Block floating = addBlock(3, 5, true);
+
+		blockMap.removeBlock(support);
+		blockMap.updateActiveBlocks(0.01f);
+
+		if (!blockMap.getActiveBlocks().contains(lower)
+				|| !blockMap.getActiveBlocks().contains(upper)) {
+			fail("The blocks resting on the removed block should fall");
+		}
+		assertTrue(upper.getAnimationState().getMovement()
+				== lower.getAnimationState().getMovement());
+		assertTrue(!blockMap.hasBlock(3, 2) && !blockMap.hasBlock(3, 3));
+		assertTrue(blockMap.getBlock(3, 5) == floating);
+
+		for (int i = 0; i < 10; i++) {
+			blockMap.updateActiveBlocks(0.5f);
+		}
+		assertTrue(blockMap.getBlock(3, 1) == lower);
+		assertTrue(blockMap.getBlock(3, 2) == upper);
+		assertTrue(blockMap.getActiveBlocks().isEmpty());
+	}
+
+	@Test
+	public void weightlessSupportTest() {
+		final Block support = addBlock(4, 1, false);
+		addBlock(4, 2, false);
+		final Block top = addBlock(4, 3, true);
+
+		blockMap.removeBlock(support);
+		blockMap.updateActiveBlocks(0.01f);
+		if (blockMap.getBlock(4, 3) != top) {
+			fail("A block without weight should hold up the blocks above");
+		}
+	}
+
+	@Test
+	public void refilledSupportTest() {
+		final Block support = addBlock(5, 1, false);
+		final Block top = addBlock(5, 2, true);
+
+		blockMap.removeBlock(support);
+		blockMap.insertBlock(support);
+		blockMap.updateActiveBlocks(0.01f);
+		if (blockMap.getBlock(5, 2) != top
+				|| !blockMap.getActiveBlocks().isEmpty()) {
+			fail("Nothing should fall when the support is put back in time");
+		}
+	}
+
+	@Test
+	public void revisionTest() {
+		final int loaded = blockMap.getRevision();
+		final Block block = addBlock(3, 3, false);
+		final int inserted = blockMap.getRevision();
+		if (inserted == loaded) {
+			fail("Inserting a block should change the revision");
+		}
+
+		block.setProperty("movable");
+		final int changed = blockMap.getRevision();
+		assertTrue(changed != inserted);
+
+		blockMap.hasBlock(3, 3);
+		blockMap.getBlock(3, 3);
+		assertTrue(blockMap.getRevision() == changed);
+
+		blockMap.removeBlock(block);
+		assertTrue(blockMap.getRevision() != changed);
+	}
 }
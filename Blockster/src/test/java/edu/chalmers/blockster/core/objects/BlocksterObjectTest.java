@@ -1,6 +1,7 @@
 package edu.chalmers.blockster.core.objects;
 
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.awt.Point;
 import java.util.ArrayList;
@@ -56,4 +57,46 @@ public class BlocksterObjectTest {
 		assertTrue(block instanceof EmptyBlock);
 	}
 
+	@Test
+	public void testStartAnimation() {
+		player.startAnimation(Movement.MOVE_RIGHT);
+		final AnimationState anim = player.getAnimationState();
+		if (anim == AnimationState.NONE
+				|| anim.getMovement() != Movement.MOVE_RIGHT) {
+			fail("Starting an animation should set it");
+		}
+
+		/* A running animation is not replaced */
+		player.startAnimation(Movement.MOVE_LEFT);
+		assertTrue(anim.getMovement() == Movement.MOVE_RIGHT);
+
+		anim.updatePosition(Movement.MOVE_RIGHT.getDuration());
+		player.setAnimationState(AnimationState.NONE);
+		assertTrue(player.getAnimationState() == AnimationState.NONE);
+
+		/* The same state is started over for the next animation */
+		player.startAnimation(Movement.MOVE_LEFT);
+		assertTrue(player.getAnimationState() == anim);
+		assertTrue(!anim.isDone());
+		assertTrue(anim.getMovement() == Movement.MOVE_LEFT);
+	}
+
+	@Test
+	public void testStartAnimationNotShared() {
+		final Block block = new Block(1, 0, blockMap);
+		player.startAnimation(Movement.PULL_LEFT);
+		block.startAnimation(Movement.PULL_LEFT);
+		assertTrue(player.getAnimationState() != block.getAnimationState());
+		assertTrue(blockMap.getActiveBlocks().contains(block));
+	}
+
+	@Test
+	public void testResetCapturesPosition() {
+		player.capturePreviousPosition();
+		player.reset(3, 2);
+		assertTrue(player.getPreviousX() == player.getX());
+		assertTrue(player.getPreviousY() == player.getY());
+		assertTrue(player.getInterpolatedX(0.5f) == player.getX());
+	}
+
 }
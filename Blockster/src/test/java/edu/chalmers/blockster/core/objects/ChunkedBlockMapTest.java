@@ -0,0 +1,154 @@
+package edu.chalmers.blockster.core.objects;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Point;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChunkedBlockMapTest {
+
+	private ChunkedBlockMap blockMap;
+	private List<Point> startPos;
+
+	@Before
+	public void setUp() {
+		startPos = new ArrayList<Point>();
+		startPos.add(new Point(1, 1));
+		blockMap = new ChunkedBlockMap(100, 70, 48, 48, startPos);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void constructorFailureTestHeight() {
+		blockMap = new ChunkedBlockMap(1, -1, 48, 48, startPos);
+	}
+
+	@Test
+	public void emptyMapTest() {
+		if (blockMap.getAllocatedChunks() != 0) {
+			fail("An empty map should not allocate chunks");
+		}
+		if (blockMap.hasBlock(50, 50) || blockMap.collisionAt(50, 50)) {
+			fail("An empty map should not have blocks");
+		}
+		assertTrue(blockMap.getBlock(99, 69) instanceof EmptyBlock);
+	}
+
+	@Test
+	public void largeEmptyMapMemoryTest() {
+		final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		final com.sun.management.ThreadMXBean threadBean =
+				(com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+
+		final long threadId = Thread.currentThread().getId();
+		final long start = threadBean.getThreadAllocatedBytes(threadId);
+		blockMap = new ChunkedBlockMap(10000, 10000, 48, 48, startPos);
+		for (int x = 0; x < 10; x++) {
+			blockMap.placeBlock(x * 1000, 5000, BlockProperties.SOLID);
+		}
+		final long allocated = threadBean.getThreadAllocatedBytes(threadId) - start;
+
+		/* A dense bitmap of the solid cells alone would take 12.5 MB */
+		if (allocated > 1 << 20) {
+			fail("A mostly empty map allocated " + allocated + " bytes");
+		}
+		assertTrue(blockMap.collisionAt(9000, 5000));
+		assertTrue(blockMap.hasSolidBlockIn(8500, 4900, 9500, 5100));
+	}
+
+	@Test
+	public void insertBlockTest() {
+		final Block block = new Block(40, 33, blockMap);
+		block.setProperty("solid");
+		blockMap.insertBlock(block);
+
+		if (blockMap.getBlock(40, 33) != block || !blockMap.collisionAt(40, 33)) {
+			fail("block was not inserted in blockmap");
+		}
+		if (blockMap.getAllocatedChunks() != 1) {
+			fail("Inserting a block should allocate exactly one chunk");
+		}
+	}
+
+	@Test
+	public void removeBlockReleasesChunkTest() {
+		final Block block1 = new Block(3, 3, blockMap);
+		final Block block2 = new Block(4, 3, blockMap);
+		blockMap.insertBlock(block1);
+		blockMap.insertBlock(block2);
+
+		blockMap.removeBlock(block1);
+		if (blockMap.hasBlock(3, 3) || blockMap.getAllocatedChunks() != 1) {
+			fail("block wasn't removed");
+		}
+
+		blockMap.removeBlock(block2);
+		if (blockMap.getAllocatedChunks() != 0) {
+			fail("An empty chunk should be released");
+		}
+	}
+
+	@Test
+	public void replaceBlockTest() {
+		final Block block1 = new Block(5, 5, blockMap);
+		final Block block2 = new Block(5, 5, blockMap);
+		blockMap.insertBlock(block1);
+		blockMap.insertBlock(block2);
+		blockMap.removeBlock(block2);
+
+		if (blockMap.hasBlock(5, 5) || blockMap.getAllocatedChunks() != 0) {
+			fail("Replacing a block should not count the cell twice");
+		}
+	}
+
+	@Test
+	public void outsideMapTest() {
+		blockMap.setBlock(100, 3, new Block(100, 3, blockMap));
+		blockMap.setBlock(-1, 3, new Block(-1, 3, blockMap));
+
+		if (blockMap.getAllocatedChunks() != 0) {
+			fail("Set a block outside map");
+		}
+		if (!blockMap.collisionAt(100, 3) || !blockMap.collisionAt(3, -1)) {
+			fail("Outside of the map should collide");
+		}
+	}
+
+	@Test
+	public void getBlocksTest() {
+		final Block block1 = new Block(1, 1, blockMap);
+		final Block block2 = new Block(99, 69, blockMap);
+		blockMap.insertBlock(block1);
+		blockMap.insertBlock(block2);
+
+		if (!blockMap.getBlocks().contains(block1)
+				|| !blockMap.getBlocks().contains(block2)) {
+			fail("getBlocks fail");
+		}
+		assertTrue(blockMap.getBlocks().size() == 2);
+	}
+
+	@Test
+	public void zobristHashTest() {
+		final Block block = new Block(70, 30, blockMap);
+		block.setProperty("solid");
+		blockMap.insertBlock(block);
+		blockMap.insertBlock(new Block(10, 60, blockMap));
+
+		if (blockMap.getZobristHash() != blockMap.computeZobristHash()) {
+			fail("The kept hash should be the same as the computed one");
+		}
+
+		blockMap.removeBlock(block);
+		assertTrue(blockMap.getZobristHash() == blockMap.computeZobristHash());
+	}
+}
@@ -0,0 +1,56 @@
+package edu.chalmers.blockster.core.objects;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.chalmers.blockster.core.objects.movement.AnimationState;
+import edu.chalmers.blockster.core.objects.movement.Direction;
+import edu.chalmers.blockster.core.objects.movement.Movement;
+
+public class EmptyBlockTest {
+
+	@Test
+	public void unchangeableTest() {
+		final EmptyBlock empty = EmptyBlock.getInstance();
+		empty.setX(5);
+		empty.setY(5);
+		empty.setProperty("solid");
+		empty.setProperties(BlockProperties.SOLID);
+		empty.addProperties(BlockProperties.MOVABLE);
+		empty.setLifted(true);
+		empty.setDirection(Direction.LEFT);
+		empty.getVelocity().x = 3;
+		empty.startAnimation(Movement.FALL_DOWN);
+		empty.reset(3, 4);
+
+		if (empty.getX() != 0 || empty.getY() != 0 || empty.isSolid()
+				|| empty.isMovable() || empty.getProperties() != 0
+				|| empty.getAnimationState() != AnimationState.NONE
+				|| empty.isLifted() || empty.getDirection() != Direction.NONE
+				|| empty.getVelocity().x != 0) {
+			fail("EmptyBlock should never change");
+		}
+	}
+
+	@Test
+	public void notActivatedTest() {
+		final List<Point> startPos = new ArrayList<Point>();
+		startPos.add(new Point(0, 0));
+		final BlocksterMap blockMap = new BlocksterMap(2, 2, 1, 1, startPos);
+		blockMap.addActiveBlock(EmptyBlock.getInstance());
+
+		assertTrue(blockMap.getActiveBlocks().isEmpty());
+	}
+
+	@Test
+	public void noneIsNotUpdatedTest() {
+		AnimationState.NONE.updatePosition(1f);
+		assertTrue(AnimationState.NONE.getElapsedTime() == 0);
+	}
+}
@@ -0,0 +1,228 @@
+package edu.chalmers.blockster.core.objects;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PackedBlockMapTest {
+
+	private PackedBlockMap blockMap;
+	private List<Point> startPos;
+
+	@Before
+	public void setUp() {
+		startPos = new ArrayList<Point>();
+		startPos.add(new Point(1, 1));
+		blockMap = new PackedBlockMap(8, 12, 48, 48, startPos);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void constructorFailureTestWidth() {
+		blockMap = new PackedBlockMap(-1, 1, 48, 48, startPos);
+	}
+
+	@Test
+	public void getDimensionsTest() {
+		if (blockMap.getWidth() != 8 || blockMap.getHeight() != 12) {
+			fail("incorrect dimensions");
+		}
+	}
+
+	@Test
+	public void insertBlockTest() {
+		final Block block = new Block(2, 1, blockMap);
+		block.setProperty("solid");
+		blockMap.insertBlock(block);
+
+		if (blockMap.getBlock(2, 1) != block) {
+			fail("block was not inserted in blockmap");
+		}
+		if (!blockMap.hasBlock(2, 1) || !blockMap.collisionAt(2, 1)) {
+			fail("inserted block should collide");
+		}
+	}
+
+	@Test
+	public void removeBlockTest() {
+		final Block block = new Block(3, 2, blockMap);
+		blockMap.insertBlock(block);
+		blockMap.removeBlock(block);
+
+		if (blockMap.hasBlock(3, 2)) {
+			fail("block wasn't removed");
+		}
+		if (!(blockMap.getBlock(3, 2) instanceof EmptyBlock)) {
+			fail("removed cell should be empty");
+		}
+	}
+
+	@Test
+	public void placeBlockTest() {
+		blockMap.placeBlock(4, 4, BlockProperties.SOLID | BlockProperties.LIFTABLE);
+
+		if (!blockMap.hasBlock(4, 4) || !blockMap.collisionAt(4, 4)) {
+			fail("placed block should collide");
+		}
+		if (blockMap.getMaterialisedCount() != 0) {
+			fail("placing a block should not create a Block object");
+		}
+
+		final Block block = blockMap.getBlock(4, 4);
+		if (!block.isSolid() || !block.isLiftable() || block.isMovable()) {
+			fail("materialised block has incorrect properties");
+		}
+		if (block.getX() != 4 || block.getY() != 4) {
+			fail("materialised block has incorrect position");
+		}
+		if (blockMap.getBlock(4, 4) != block) {
+			fail("cell should be materialised only once");
+		}
+		assertTrue(blockMap.getMaterialisedCount() == 1);
+	}
+
+	@Test
+	public void movedBlockKeepsIdentityTest() {
+		blockMap.placeBlock(2, 2, BlockProperties.MOVABLE);
+		final Block block = blockMap.getBlock(2, 2);
+
+		blockMap.removeBlock(block);
+		block.setX(3);
+		blockMap.insertBlock(block);
+
+		if (blockMap.getBlock(3, 2) != block || blockMap.hasBlock(2, 2)) {
+			fail("block was not moved");
+		}
+		assertTrue(blockMap.getMaterialisedCount() == 1);
+	}
+
+	@Test
+	public void movingBlocksReuseIndicesTest() {
+		blockMap.placeBlock(0, 0, BlockProperties.MOVABLE);
+		final Block block = blockMap.getBlock(0, 0);
+
+		/* Every step moves the block to the next cell and back */
+		for (int i = 0; i < 10000; i++) {
+			blockMap.removeBlock(block);
+			block.setX(i % 2 == 0 ? 1 : 0);
+			blockMap.insertBlock(block);
+			blockMap.placeBlock(7, 11, BlockProperties.SOLID);
+			blockMap.removeBlock(blockMap.getBlock(7, 11));
+		}
+
+		if (blockMap.getBlock(0, 0) != block || blockMap.hasBlock(1, 0)) {
+			fail("block was not moved");
+		}
+		assertTrue(blockMap.getMaterialisedCount() == 1);
+	}
+
+	@Test
+	public void placeBlockNotPackedTest() {
+		blockMap.placeBlock(2, 3, BlockProperties.SOLID | (1L << 40));
+
+		if (blockMap.getMaterialisedCount() != 1) {
+			fail("properties that do not fit should get a Block object");
+		}
+		assertTrue(blockMap.getBlock(2, 3).getProperties()
+				== (BlockProperties.SOLID | (1L << 40)));
+		assertTrue(blockMap.collisionAt(2, 3));
+	}
+
+	@Test
+	public void propertiesChangedAfterInsertTest() {
+		final Block block = new Block(1, 1, blockMap);
+		blockMap.insertBlock(block);
+
+		if (blockMap.collisionAt(1, 1)) {
+			fail("block without properties should not collide");
+		}
+		block.setProperty("solid");
+		if (!blockMap.collisionAt(1, 1)) {
+			fail("collision should follow the block's properties");
+		}
+	}
+
+	@Test
+	public void outsideMapTest() {
+		blockMap.placeBlock(-1, 3, BlockProperties.SOLID);
+		blockMap.placeBlock(8, 3, BlockProperties.SOLID);
+
+		if (blockMap.hasBlock(-1, 3) || blockMap.hasBlock(8, 3)) {
+			fail("Set a block outside map");
+		}
+		if (!blockMap.collisionAt(-1, 3) || !blockMap.collisionAt(3, 12)) {
+			fail("Outside of the map should collide");
+		}
+		assertTrue(blockMap.getBlock(-1, -1) instanceof EmptyBlock);
+	}
+
+	@Test
+	public void getBlocksTest() {
+		final Block block = new Block(1, 1, blockMap);
+		blockMap.insertBlock(block);
+		blockMap.placeBlock(5, 5, BlockProperties.SOLID);
+
+		if (!blockMap.getBlocks().contains(block)) {
+			fail("getBlocks fail");
+		}
+		assertTrue(blockMap.getBlocks().size() == 2);
+		assertTrue(blockMap.getMaterialisedCount() == 2);
+	}
+
+	@Test
+	public void getBlocksAfterRemoveTest() {
+		blockMap.placeBlock(5, 5, BlockProperties.SOLID);
+		blockMap.placeBlock(6, 5, BlockProperties.SOLID);
+		blockMap.setBlock(6, 5, EmptyBlock.getInstance());
+
+		if (blockMap.getBlocks().size() != 1) {
+			fail("Removed cell should not be materialised");
+		}
+
+		blockMap.removeBlock(blockMap.getBlock(5, 5));
+		assertTrue(blockMap.getBlocks().isEmpty());
+	}
+
+	@Test
+	public void placeBlockOverBlockTest() {
+		final Block block = new Block(3, 3, blockMap);
+		block.setProperty("solid");
+		blockMap.insertBlock(block);
+		blockMap.placeBlock(3, 3, BlockProperties.LIFTABLE);
+
+		if (blockMap.getBlocks().contains(block)) {
+			fail("Replaced block should not be in the map");
+		}
+		if (blockMap.collisionAt(3, 3) || blockMap.hasSolidBlockIn(0, 0, 7, 11)) {
+			fail("Placed block is not solid");
+		}
+	}
+
+	@Test
+	public void zobristHashTest() {
+		final BlocksterMap reference = new BlocksterMap(8, 12, 48, 48, startPos);
+		final Block referenceBlock = new Block(4, 4, reference);
+		referenceBlock.setProperty("solid");
+		referenceBlock.setProperty("liftable");
+		reference.insertBlock(referenceBlock);
+
+		blockMap.placeBlock(4, 4, BlockProperties.SOLID | BlockProperties.LIFTABLE);
+		if (blockMap.getZobristHash() != reference.getZobristHash()) {
+			fail("A packed block should hash like a Block object");
+		}
+
+		blockMap.getBlock(4, 4);
+		if (blockMap.getZobristHash() != reference.getZobristHash()) {
+			fail("Creating the Block object should not change the hash");
+		}
+
+		blockMap.placeBlock(4, 4, BlockProperties.MOVABLE);
+		blockMap.placeBlock(5, 4, BlockProperties.SOLID);
+		assertTrue(blockMap.getZobristHash() == blockMap.computeZobristHash());
+	}
+}
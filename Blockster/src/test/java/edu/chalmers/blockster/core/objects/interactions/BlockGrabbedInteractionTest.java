@@ -358,4 +358,24 @@ public class BlockGrabbedInteractionTest {
 	}
 	
 
+	@Test
+	public void testPushChainFollowsGrid() {
+		final Block blockAbove = new Block(3, 4, blockMap);
+		blockAbove.setProperty("weight");
+		blockMap.insertBlock(blockAbove);
+
+		/* Holding the key against a blocked row */
+		interaction.interact(Direction.RIGHT);
+		interaction.interact(Direction.RIGHT);
+		if (player.getAnimationState().getMovement() != Movement.GRAB_RIGHT) {
+			fail("Could push a row with a weighted block above it");
+		}
+
+		blockMap.removeBlock(blockAbove);
+		interaction.interact(Direction.RIGHT);
+		if (player.getAnimationState().getMovement() != Movement.PUSH_RIGHT
+				|| block2.getAnimationState().getMovement() != Movement.PUSH_RIGHT) {
+			fail("Could not push the row once the block above was removed");
+		}
+	}
 }
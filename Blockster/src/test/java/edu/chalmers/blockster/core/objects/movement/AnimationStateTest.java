@@ -1,12 +1,22 @@
 package edu.chalmers.blockster.core.objects.movement;
 
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Point;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.vecmath.Vector2f;
 
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
+import edu.chalmers.blockster.core.objects.Block;
+import edu.chalmers.blockster.core.objects.BlocksterMap;
+
 public class AnimationStateTest {
 
 	public AnimationState none = AnimationState.NONE;
@@ -47,4 +57,85 @@ public class AnimationStateTest {
 		assertTrue(animStartsNotDone && noneStartsDone && animEndsDone);
 	}
 
+	@Test
+	public void relativeCoordinatesTest() {
+		final AnimationState climb = new AnimationState(Movement.CLIMB_RIGHT);
+		final Vector2f result = new Vector2f();
+		for (int i = 0; i <= 20; i++) {
+			final Vector2f expected = climb.getRelativePosition();
+			if (climb.getRelativeX() != expected.x
+					|| climb.getRelativeY() != expected.y) {
+				fail("The coordinates should be those of the position");
+			}
+			assertTrue(climb.getRelativePosition(result) == result);
+			assertTrue(result.equals(expected));
+			climb.updatePosition(Movement.CLIMB_RIGHT.getDuration() / 20);
+		}
+		assertTrue(climb.getRelativeX() == 1 && climb.getRelativeY() == 1);
+		assertTrue(none.getRelativeX() == 0 && none.getRelativeY() == 0);
+	}
+
+	@Test
+	public void positionAllocationTest() {
+		final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		final com.sun.management.ThreadMXBean threadBean =
+				(com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+
+		final List<Point> startPos = new ArrayList<Point>();
+		startPos.add(new Point(0, 0));
+		final BlocksterMap map = new BlocksterMap(10, 10, 1, 1, startPos);
+		final Block block = new Block(5, 5, map);
+		final AnimationState lift = new AnimationState(Movement.LIFT_LEFT);
+		block.setAnimationState(lift);
+
+		final long threadId = Thread.currentThread().getId();
+		final float deltaTime = 0.0000001f;
+		float sink = 0;
+
+		/* Warm up, and make sure the measurement itself is accounted for */
+		for (int i = 0; i < 10000; i++) {
+			lift.updatePosition(deltaTime);
+			sink += block.getX() + block.getY();
+		}
+		final long overheadStart = threadBean.getThreadAllocatedBytes(threadId);
+		final long overhead = threadBean.getThreadAllocatedBytes(threadId)
+				- overheadStart;
+
+		final long start = threadBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < 1000; i++) {
+			lift.updatePosition(deltaTime);
+			sink += block.getX() + block.getY();
+		}
+		final long allocated = threadBean.getThreadAllocatedBytes(threadId)
+				- start - overhead;
+
+		if (lift.isDone() || sink == 0) {
+			fail("The block should still be moving");
+		}
+		if (allocated > 0) {
+			fail("Reading the position allocated " + allocated + " bytes");
+		}
+	}
+
+	@Test
+	public void restartTest() {
+		anim.updatePosition(Movement.PULL_LEFT.getDuration());
+		final float pulledX = anim.getRelativeX();
+
+		anim.restart(Movement.LIFT_RIGHT);
+		if (anim.isDone() || anim.getMovement() != Movement.LIFT_RIGHT) {
+			fail("A restarted animation should start over with the new movement");
+		}
+		assertTrue(anim.getElapsedTime() == 0);
+		assertTrue(anim.getRelativeX() == 0 && anim.getRelativeY() == 0);
+		assertTrue(pulledX != 0);
+	}
+
+	@Test(expected=UnsupportedOperationException.class)
+	public void restartNoneTest() {
+		none.restart(Movement.PULL_LEFT);
+	}
 }
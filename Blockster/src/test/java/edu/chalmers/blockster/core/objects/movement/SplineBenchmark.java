@@ -0,0 +1,67 @@
+package edu.chalmers.blockster.core.objects.movement;
+
+import javax.vecmath.Vector2f;
+
+/**
+ * A microbenchmark comparing getting positions from the baked spline tables
+ * with evaluating the splines. It is not run as a part of the tests, run the
+ * main method to get the numbers.
+ */
+public final class SplineBenchmark {
+
+	private static final int EVALUATIONS = 1 << 22;
+	private static final int ROUNDS = 10;
+
+	private SplineBenchmark() {
+	}
+
+	public static void main(String[] args) {
+		final Movement[] movements = {
+			Movement.PUSH_RIGHT, Movement.LIFT_LEFT, Movement.CLIMB_RIGHT
+		};
+
+		for (final Movement movement : movements) {
+			final Spline spline = movement.getSpline();
+			final Spline table = new SplineTable(spline);
+
+			/* Warm up */
+			for (int i = 0; i < ROUNDS; i++) {
+				evaluate(spline);
+				evaluate(table);
+			}
+
+			System.out.println(movement + " (" + spline.getClass()
+					.getSimpleName() + "): spline " + nanosPerEvaluation(
+					time(spline)) + " ns, table " + nanosPerEvaluation(
+					time(table)) + " ns");
+		}
+	}
+
+	private static long time(Spline spline) {
+		long best = Long.MAX_VALUE;
+		float sink = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			final long start = System.nanoTime();
+			sink += evaluate(spline);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		if (sink == 42) {
+			System.out.println();
+		}
+		return best;
+	}
+
+	private static float evaluate(Spline spline) {
+		float sink = 0;
+		for (int i = 0; i < EVALUATIONS; i++) {
+			final Vector2f position = spline.getPosition(
+					(i & 0x3FF) * (100f / 0x3FF));
+			sink += position.x + position.y;
+		}
+		return sink;
+	}
+
+	private static String nanosPerEvaluation(long nanos) {
+		return String.format("%.2f", (double) nanos / EVALUATIONS);
+	}
+}
@@ -0,0 +1,57 @@
+package edu.chalmers.blockster.core.objects.movement;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import javax.vecmath.Vector2f;
+
+import org.junit.Test;
+
+public class SplineTableTest {
+
+	/* Largest distance from the analytic position allowed, in blocks */
+	private static final float MAX_ERROR = 1e-3f;
+	private static final int STEPS = 10000;
+
+	@Test
+	public void accuracyTest() {
+		for (final Movement movement : Movement.values()) {
+			final Spline spline = movement.getSpline();
+			final Spline table = movement.getBakedSpline();
+			for (int i = -10; i <= STEPS + 10; i++) {
+				final float percent = 100f * i / STEPS;
+				final Vector2f expected = spline.getPosition(percent);
+				final Vector2f actual = table.getPosition(percent);
+				expected.sub(actual);
+				if (expected.length() > MAX_ERROR) {
+					fail(movement + " is off by " + expected.length()
+							+ " at " + percent + " %");
+				}
+			}
+		}
+	}
+
+	@Test
+	public void endPointsTest() {
+		final SplineTable table = new SplineTable(new CompositeSpline(
+				Direction.UP, Direction.LEFT), 8);
+		assertTrue(table.getPosition(0).length() == 0);
+		assertTrue(table.getPosition(-5).length() == 0);
+		assertTrue(table.getPosition(100).equals(new Vector2f(-1, 1)));
+		assertTrue(table.getPosition(150).equals(new Vector2f(-1, 1)));
+		assertTrue(table.getPosition(50).equals(new Vector2f(0, 1)));
+	}
+
+	@Test
+	public void directionTest() {
+		final SplineTable table = new SplineTable(new BezierSpline(
+				Direction.DOWN_RIGHT));
+		assertTrue(table.getDirection() == Direction.DOWN_RIGHT);
+		assertTrue(table.getResolution() == SplineTable.DEFAULT_RESOLUTION);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void nonPositiveResolutionTest() {
+		new SplineTable(new LinearSpline(Direction.LEFT), 0);
+	}
+}
@@ -0,0 +1,110 @@
+package edu.chalmers.blockster.core.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CollisionBitmapTest {
+
+	private CollisionBitmap bitmap;
+
+	@Before
+	public void setUp() {
+		bitmap = new CollisionBitmap(150, 4);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void illegalSizeTest() {
+		new CollisionBitmap(0, 4);
+	}
+
+	@Test
+	public void setTest() {
+		bitmap.set(70, 2, true);
+		if (!bitmap.get(70, 2) || bitmap.get(70, 1) || bitmap.get(6, 2)) {
+			fail("Only the set cell should be set");
+		}
+
+		bitmap.set(70, 2, false);
+		assertFalse(bitmap.get(70, 2));
+	}
+
+	@Test
+	public void outsideTest() {
+		bitmap.set(-1, 0, true);
+		bitmap.set(150, 0, true);
+		bitmap.set(0, 4, true);
+
+		if (bitmap.get(-1, 0) || bitmap.get(150, 0) || bitmap.get(0, 4)) {
+			fail("Cells outside of the bitmap should never be set");
+		}
+		assertFalse(bitmap.anyInRect(0, 0, 149, 3));
+	}
+
+	@Test
+	public void anyInRowTest() {
+		bitmap.set(100, 1, true);
+
+		if (!bitmap.anyInRow(1, 100, 100) || !bitmap.anyInRow(1, 0, 149)
+				|| !bitmap.anyInRow(1, 64, 127) || !bitmap.anyInRow(1, 10, 120)) {
+			fail("Set cell should be found in the row");
+		}
+		if (bitmap.anyInRow(1, 0, 99) || bitmap.anyInRow(1, 101, 149)
+				|| bitmap.anyInRow(0, 0, 149) || bitmap.anyInRow(1, 120, 10)) {
+			fail("Set cell found outside of the segment");
+		}
+	}
+
+	@Test
+	public void anyInRowWordBoundariesTest() {
+		bitmap.set(63, 0, true);
+		bitmap.set(128, 3, true);
+
+		if (!bitmap.anyInRow(0, 63, 64) || bitmap.anyInRow(0, 64, 149)
+				|| bitmap.anyInRow(0, 0, 62)) {
+			fail("Wrong result at the end of a word");
+		}
+		if (!bitmap.anyInRow(3, -10, 500) || bitmap.anyInRow(3, 129, 500)
+				|| bitmap.anyInRow(3, 0, 127)) {
+			fail("Wrong result at the start of a word");
+		}
+	}
+
+	@Test
+	public void tilesTest() {
+		bitmap = new CollisionBitmap(10000, 10000);
+		if (bitmap.getAllocatedTiles() != 0) {
+			fail("An empty bitmap should not allocate tiles");
+		}
+
+		bitmap.set(5000, 7000, true);
+		bitmap.set(5001, 7001, true);
+		bitmap.set(9999, 9999, true);
+		if (bitmap.getAllocatedTiles() != 2 || !bitmap.anyInRow(7001, 0, 9999)
+				|| !bitmap.anyInRect(4000, 6000, 6000, 8000)) {
+			fail("Set cells should allocate their tiles only");
+		}
+
+		bitmap.set(5000, 7000, false);
+		bitmap.set(5000, 7000, false);
+		bitmap.set(5001, 7001, false);
+		assertTrue(bitmap.getAllocatedTiles() == 1);
+		assertFalse(bitmap.anyInRect(0, 0, 9998, 9998));
+	}
+
+	@Test
+	public void anyInRectTest() {
+		bitmap.set(5, 3, true);
+
+		assertTrue(bitmap.anyInRect(0, 0, 5, 3));
+		assertTrue(bitmap.anyInRect(5, 3, 5, 3));
+		assertTrue(bitmap.anyInRect(-5, -5, 200, 200));
+		if (bitmap.anyInRect(0, 0, 4, 3) || bitmap.anyInRect(0, 0, 149, 2)
+				|| bitmap.anyInRect(6, 3, 149, 3)) {
+			fail("Set cell found outside of the rectangle");
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package edu.chalmers.blockster.core.util;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ZobristTest {
+
+	@Test
+	public void keysAreStableTest() {
+		assertTrue(Zobrist.cellKey(3, 4, 5) == Zobrist.cellKey(3, 4, 5));
+		assertTrue(Zobrist.playerKey(1, 3, 4) == Zobrist.playerKey(1, 3, 4));
+	}
+
+	@Test
+	public void keysAreDistinctTest() {
+		final Set<Long> keys = new HashSet<Long>();
+		for (int x = 0; x < 32; x++) {
+			for (int y = 0; y < 32; y++) {
+				keys.add(Zobrist.cellKey(x, y, 0));
+				keys.add(Zobrist.cellKey(x, y, 1));
+				keys.add(Zobrist.playerKey(0, x, y));
+				keys.add(Zobrist.playerKey(1, x, y));
+			}
+		}
+		if (keys.size() != 32 * 32 * 4) {
+			fail("Keys of different cells, properties or players collide");
+		}
+		assertTrue(Zobrist.cellKey(1, 2, 0) != Zobrist.cellKey(2, 1, 0));
+	}
+}
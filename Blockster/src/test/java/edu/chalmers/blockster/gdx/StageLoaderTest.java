@@ -0,0 +1,265 @@
+package edu.chalmers.blockster.gdx;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.SynchronousAssetLoader;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.utils.Array;
+
+import edu.chalmers.blockster.core.Model;
+import edu.chalmers.blockster.core.TestFactory;
+import edu.chalmers.blockster.gdx.view.AnimationFactory;
+import edu.chalmers.blockster.gdx.view.GdxView;
+
+public class StageLoaderTest {
+
+	/* How long a test may wait for the loading, in milliseconds */
+	private static final long TIMEOUT = 10000;
+
+	private static final FileHandleResolver RESOLVER = new FileHandleResolver() {
+		@Override
+		public FileHandle resolve(String fileName) {
+			return new FileHandle(fileName);
+		}
+	};
+
+	private AssetManager assets;
+
+	/* The names of the stages in the order their views were initialized */
+	private List<String> handedOver;
+	private Thread renderThread;
+	private volatile boolean builtOnRenderThread;
+
+	/**
+	 * Loads empty maps without reading any files.
+	 */
+	private static class MapLoader extends
+			SynchronousAssetLoader<TiledMap, AssetLoaderParameters<TiledMap>> {
+
+		public MapLoader() {
+			super(RESOLVER);
+		}
+
+		@Override
+		public TiledMap load(AssetManager manager, String fileName,
+				FileHandle file, AssetLoaderParameters<TiledMap> parameter) {
+			return new TiledMap();
+		}
+
+		@Override
+		public Array<AssetDescriptor> getDependencies(String fileName,
+				FileHandle file, AssetLoaderParameters<TiledMap> parameter) {
+			return null;
+		}
+	}
+
+	/**
+	 * An asset, like the music, that is loaded after the maps.
+	 */
+	private static class Track {
+	}
+
+	/**
+	 * Loads a track once the latch is released.
+	 */
+	private static class TrackLoader extends
+			AsynchronousAssetLoader<Track, AssetLoaderParameters<Track>> {
+
+		private final CountDownLatch latch;
+
+		public TrackLoader(CountDownLatch latch) {
+			super(RESOLVER);
+			this.latch = latch;
+		}
+
+		@Override
+		public void loadAsync(AssetManager manager, String fileName,
+				FileHandle file, AssetLoaderParameters<Track> parameter) {
+			try {
+				latch.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		@Override
+		public Track loadSync(AssetManager manager, String fileName,
+				FileHandle file, AssetLoaderParameters<Track> parameter) {
+			return new Track();
+		}
+
+		@Override
+		public Array<AssetDescriptor> getDependencies(String fileName,
+				FileHandle file, AssetLoaderParameters<Track> parameter) {
+			return null;
+		}
+	}
+
+	/**
+	 * A view that only records when it is handed over.
+	 */
+	private class StageView extends GdxView {
+
+		public StageView(Model model) {
+			super(model, null);
+		}
+
+		@Override
+		public void init() {
+			if (Thread.currentThread() != renderThread) {
+				fail("Views should only be initialized on the render thread");
+			}
+			handedOver.add(getModel().getName());
+		}
+
+		@Override
+		public void dispose() {
+			//Nothing was initialized.
+		}
+	}
+
+	@Before
+	public void setUp() {
+		assets = new AssetManager();
+		handedOver = Collections.synchronizedList(new ArrayList<String>());
+		renderThread = Thread.currentThread();
+		builtOnRenderThread = false;
+	}
+
+	@After
+	public void tearDown() {
+		assets.dispose();
+	}
+
+	private StageLoader createLoader(String... mapPaths) {
+		final StageLoader loader = new StageLoader(assets, mapPaths) {
+			@Override
+			AnimationFactory createAnimations() {
+				return null;
+			}
+
+			@Override
+			GdxView build(TiledMap map, String name,
+					AnimationFactory animFactory) {
+				if (Thread.currentThread() == renderThread) {
+					builtOnRenderThread = true;
+				}
+				final List<Point> startPos = new ArrayList<Point>();
+				startPos.add(new Point(1, 1));
+				return new StageView(new Model(new TestFactory(10, 10, 1, 1,
+						startPos), name));
+			}
+		};
+		assets.setLoader(TiledMap.class, new MapLoader());
+		return loader;
+	}
+
+	/**
+	 * Update the loader until it is done, checking that the progress never
+	 * falls.
+	 */
+	private static void loadAll(StageLoader loader) {
+		final long deadline = System.currentTimeMillis() + TIMEOUT;
+		float progress = loader.getProgress();
+		while (!loader.update(StageLoader.DEFAULT_SLICE)) {
+			final float next = loader.getProgress();
+			if (next < progress || next > 1) {
+				fail("The progress should grow towards 1");
+			}
+			progress = next;
+			if (System.currentTimeMillis() > deadline) {
+				fail("The stages should be loaded");
+			}
+			Thread.yield();
+		}
+	}
+
+	@Test
+	public void queuedTest() {
+		final StageLoader loader = new StageLoader(assets, "maps/a.tmx",
+				"maps/b.tmx");
+		if (loader.isDone() || loader.getProgress() != 0) {
+			fail("Nothing should be loaded before the first update");
+		}
+		assertTrue(assets.getQueuedAssets() == 2);
+		assertTrue(assets.getLoader(TiledMap.class) != null);
+		assertTrue(loader.getStages().isEmpty());
+		loader.dispose();
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void noStagesTest() {
+		new StageLoader(assets);
+	}
+
+	@Test
+	public void progressTest() {
+		final StageLoader loader = createLoader("maps/a.tmx", "maps/b.tmx",
+				"maps/c.tmx");
+		loadAll(loader);
+		assertTrue(loader.isDone());
+		assertTrue(loader.getProgress() == 1);
+		assertTrue(loader.getStages().size() == 3);
+		assertTrue(loader.update(StageLoader.DEFAULT_SLICE));
+		loader.dispose();
+	}
+
+	@Test
+	public void handoverOrderTest() {
+		final StageLoader loader = createLoader("maps/c.tmx", "maps/a.tmx",
+				"maps/b.tmx");
+		loadAll(loader);
+		if (builtOnRenderThread) {
+			fail("The stages should be built on the pool");
+		}
+		assertTrue(handedOver.equals(Arrays.asList("c.tmx", "a.tmx", "b.tmx")));
+		assertTrue(loader.getStages().firstKey().getName().equals("a.tmx"));
+		loader.dispose();
+	}
+
+	@Test
+	public void buildBeforeAssetsTest() {
+		final CountDownLatch latch = new CountDownLatch(1);
+		final StageLoader loader = createLoader("maps/a.tmx", "maps/b.tmx");
+		assets.setLoader(Track.class, new TrackLoader(latch));
+		assets.load("music/track", Track.class);
+
+		/* The stages are handed over while the track is still loading */
+		final long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (handedOver.size() < 2) {
+			if (loader.update(StageLoader.DEFAULT_SLICE)
+					|| System.currentTimeMillis() > deadline) {
+				latch.countDown();
+				fail("The stages should be built before the track is loaded");
+			}
+			Thread.yield();
+		}
+		assertTrue(!assets.isLoaded("music/track", Track.class));
+		assertTrue(!loader.isDone());
+		assertTrue(loader.getProgress() < 1);
+
+		latch.countDown();
+		loadAll(loader);
+		assertTrue(assets.isLoaded("music/track", Track.class));
+		assertTrue(handedOver.size() == 2);
+		loader.dispose();
+	}
+}
@@ -0,0 +1,75 @@
+package edu.chalmers.blockster.gdx.view;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.utils.Disposable;
+
+public class AssetCacheTest {
+
+	private static class Asset implements Disposable {
+		private boolean disposed;
+
+		@Override
+		public void dispose() {
+			disposed = true;
+		}
+	}
+
+	private int loads;
+	private AssetCache<Asset> cache;
+
+	@Before
+	public void setUp() {
+		loads = 0;
+		cache = new AssetCache<Asset>(new AssetCache.Loader<Asset>() {
+			@Override
+			public Asset load(String path) {
+				loads++;
+				return new Asset();
+			}
+		});
+	}
+
+	@Test
+	public void sharedTest() {
+		final Asset first = cache.acquire("a.png");
+		final Asset second = cache.acquire("a.png");
+		if (first != second || loads != 1) {
+			fail("An asset should only be loaded once");
+		}
+		assertTrue(cache.getReferenceCount("a.png") == 2);
+
+		cache.acquire("b.png");
+		assertTrue(loads == 2);
+		assertTrue(cache.size() == 2);
+	}
+
+	@Test
+	public void releaseTest() {
+		final Asset asset = cache.acquire("a.png");
+		cache.acquire("a.png");
+
+		cache.release("a.png");
+		if (asset.disposed) {
+			fail("An asset should not be disposed while it is used");
+		}
+
+		cache.release("a.png");
+		assertTrue(asset.disposed);
+		assertTrue(cache.getReferenceCount("a.png") == 0);
+		assertTrue(cache.size() == 0);
+
+		/* It is loaded again when it is needed again */
+		assertTrue(cache.acquire("a.png") != asset);
+		assertTrue(loads == 2);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void releaseNotAcquiredTest() {
+		cache.release("a.png");
+	}
+}
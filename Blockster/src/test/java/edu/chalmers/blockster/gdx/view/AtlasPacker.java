@@ -0,0 +1,216 @@
+package edu.chalmers.blockster.gdx.view;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Packs the pictures of a directory into a single texture atlas, so that
+ * everything drawn from them shares one texture. The atlas is written in the
+ * format read by TextureAtlas, with one region named after each picture.
+ *
+ * This is a build tool, so it lives with the test sources and is not part of
+ * the game jar. The animation atlas is made by the atlas profile of the build:
+ * mvn -P atlas process-test-classes
+ */
+public final class AtlasPacker {
+
+	/**
+	 * Empty pixels between the regions, so that filtering never reads from
+	 * a neighbouring picture.
+	 */
+	public static final int PADDING = 2;
+
+	/**
+	 * The largest atlas texture that is made.
+	 */
+	public static final int MAX_SIZE = 2048;
+
+	private static final int MIN_SIZE = 64;
+	private static final String PICTURE_SUFFIX = ".png";
+
+	private AtlasPacker() {
+		//This prevents instantiation via reflection.
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Pack the animation pictures, or the directory of the first argument
+	 * into the atlas of the second argument.
+	 */
+	public static void main(String[] args) throws IOException {
+		final String input = args.length > 0 ? args[0] : "assets/Animations";
+		final String output = args.length > 1 ? args[1]
+				: "assets/" + AnimationFactory.ATLAS_PATH;
+		pack(new File(input), new File(output));
+	}
+
+	/**
+	 * Pack the pictures of a directory into an atlas. The texture of the
+	 * atlas is written next to it, with the same name and a png suffix.
+	 *
+	 * @param directory
+	 *            The directory of the pictures
+	 * @param atlasFile
+	 *            The atlas to write
+	 */
+	public static void pack(File directory, File atlasFile) throws IOException {
+		final File[] files = directory.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.endsWith(PICTURE_SUFFIX);
+			}
+		});
+		if (files == null || files.length == 0) {
+			throw new IllegalArgumentException("There are no pictures in "
+					+ directory + ".");
+		}
+
+		final String[] names = new String[files.length];
+		final BufferedImage[] pictures = new BufferedImage[files.length];
+		for (int i = 0; i < files.length; i++) {
+			final String name = files[i].getName();
+			names[i] = name.substring(0, name.length() - PICTURE_SUFFIX.length());
+			pictures[i] = ImageIO.read(files[i]);
+			if (pictures[i] == null) {
+				throw new IOException("Could not read " + files[i] + ".");
+			}
+		}
+
+		final Integer[] order = order(names, pictures);
+		final int[] size = findSize(order, pictures);
+		final int[] xs = new int[pictures.length];
+		final int[] ys = new int[pictures.length];
+		place(order, pictures, size[0], xs, ys);
+
+		final BufferedImage page = new BufferedImage(size[0], size[1],
+				BufferedImage.TYPE_INT_ARGB);
+		final Graphics2D graphics = page.createGraphics();
+		graphics.setComposite(AlphaComposite.Src);
+		for (int i = 0; i < pictures.length; i++) {
+			graphics.drawImage(pictures[i], xs[i], ys[i], null);
+		}
+		graphics.dispose();
+
+		final String atlasName = atlasFile.getName();
+		final int dot = atlasName.lastIndexOf('.');
+		final String pageName = (dot < 0 ? atlasName
+				: atlasName.substring(0, dot)) + PICTURE_SUFFIX;
+		final File parent = atlasFile.getAbsoluteFile().getParentFile();
+		if (!parent.isDirectory() && !parent.mkdirs()) {
+			throw new IOException("Could not create " + parent + ".");
+		}
+		ImageIO.write(page, "png", new File(parent, pageName));
+
+		final Writer writer = new OutputStreamWriter(new FileOutputStream(
+				atlasFile), "UTF-8");
+		try {
+			writer.write("\n" + pageName + "\n");
+			writer.write("format: RGBA8888\n");
+			writer.write("filter: Nearest,Nearest\n");
+			writer.write("repeat: none\n");
+			for (final int i : order) {
+				final int width = pictures[i].getWidth();
+				final int height = pictures[i].getHeight();
+				writer.write(names[i] + "\n");
+				writer.write("  rotate: false\n");
+				writer.write("  xy: " + xs[i] + ", " + ys[i] + "\n");
+				writer.write("  size: " + width + ", " + height + "\n");
+				writer.write("  orig: " + width + ", " + height + "\n");
+				writer.write("  offset: 0, 0\n");
+				writer.write("  index: -1\n");
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Order the pictures by falling height, and by name among equally high
+	 * pictures, so the same pictures are always packed the same way.
+	 */
+	private static Integer[] order(final String[] names,
+			final BufferedImage[] pictures) {
+		final Integer[] order = new Integer[pictures.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				final int height = pictures[b].getHeight()
+						- pictures[a].getHeight();
+				return height == 0 ? names[a].compareTo(names[b]) : height;
+			}
+		});
+		return order;
+	}
+
+	/**
+	 * Find the power of two page with the least area that fits the pictures.
+	 */
+	private static int[] findSize(Integer[] order, BufferedImage[] pictures) {
+		int[] best = null;
+		for (int width = MIN_SIZE; width <= MAX_SIZE; width *= 2) {
+			final int height = place(order, pictures, width, null, null);
+			if (height < 0) {
+				continue;
+			}
+			int pageHeight = MIN_SIZE;
+			while (pageHeight < height) {
+				pageHeight *= 2;
+			}
+			if (pageHeight <= MAX_SIZE && (best == null
+					|| width * pageHeight < best[0] * best[1])) {
+				best = new int[] { width, pageHeight };
+			}
+		}
+
+		if (best == null) {
+			throw new IllegalArgumentException("The pictures do not fit in "
+					+ "an atlas of " + MAX_SIZE + "x" + MAX_SIZE + ".");
+		}
+		return best;
+	}
+
+	/**
+	 * Place the pictures in rows from the top left of a page of the given
+	 * width.
+	 *
+	 * @return The height used, or -1 if a picture is wider than the page
+	 */
+	private static int place(Integer[] order, BufferedImage[] pictures,
+			int width, int[] xs, int[] ys) {
+		int x = 0;
+		int y = 0;
+		int rowHeight = 0;
+		for (final int i : order) {
+			final int pictureWidth = pictures[i].getWidth();
+			if (pictureWidth > width) {
+				return -1;
+			}
+			if (x + pictureWidth > width) {
+				x = 0;
+				y += rowHeight + PADDING;
+				rowHeight = 0;
+			}
+			if (xs != null) {
+				xs[i] = x;
+				ys[i] = y;
+			}
+			x += pictureWidth + PADDING;
+			rowHeight = Math.max(rowHeight, pictures[i].getHeight());
+		}
+		return y + rowHeight;
+	}
+}
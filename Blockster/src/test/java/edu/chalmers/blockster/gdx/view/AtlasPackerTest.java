@@ -0,0 +1,132 @@
+package edu.chalmers.blockster.gdx.view;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Page;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Region;
+
+public class AtlasPackerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static BufferedImage picture(int width, int height, int rgb) {
+		final BufferedImage picture = new BufferedImage(width, height,
+				BufferedImage.TYPE_INT_ARGB);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				picture.setRGB(x, y, rgb + x * y);
+			}
+		}
+		return picture;
+	}
+
+	private static boolean isPowerOfTwo(int size) {
+		return size > 0 && (size & (size - 1)) == 0;
+	}
+
+	/**
+	 * Check that every picture of the directory is a region of the atlas,
+	 * with the same pixels, and that no regions overlap.
+	 */
+	private static void checkAtlas(File directory, File atlasFile)
+			throws IOException {
+		final TextureAtlasData data = new TextureAtlasData(new FileHandle(
+				atlasFile), new FileHandle(atlasFile.getParentFile()), false);
+		if (data.getPages().size != 1) {
+			fail("All pictures should be packed into one page");
+		}
+		final Page page = data.getPages().first();
+		final BufferedImage pageImage = ImageIO.read(page.textureFile.file());
+		assertTrue(isPowerOfTwo(pageImage.getWidth()));
+		assertTrue(isPowerOfTwo(pageImage.getHeight()));
+
+		final Map<String, Region> regions = new HashMap<String, Region>();
+		for (final Region region : data.getRegions()) {
+			regions.put(region.name, region);
+		}
+
+		final File[] files = directory.listFiles();
+		int pictures = 0;
+		for (final File file : files) {
+			final String name = file.getName();
+			if (!name.endsWith(".png")) {
+				continue;
+			}
+			pictures++;
+			final Region region = regions.get(name.substring(0, name.length() - 4));
+			final BufferedImage picture = ImageIO.read(file);
+			if (region == null || region.width != picture.getWidth()
+					|| region.height != picture.getHeight() || region.rotate) {
+				fail("The atlas should have a region for " + name);
+			}
+			for (int x = 0; x < region.width; x++) {
+				for (int y = 0; y < region.height; y++) {
+					if (picture.getRGB(x, y) != pageImage.getRGB(
+							region.left + x, region.top + y)) {
+						fail("The region of " + name + " should be the picture");
+					}
+				}
+			}
+		}
+		assertTrue(pictures == regions.size());
+
+		for (final Region a : regions.values()) {
+			for (final Region b : regions.values()) {
+				if (a != b && a.left < b.left + b.width && b.left < a.left + a.width
+						&& a.top < b.top + b.height && b.top < a.top + a.height) {
+					fail(a.name + " and " + b.name + " should not overlap");
+				}
+			}
+		}
+	}
+
+	@Test
+	public void packTest() throws IOException {
+		final File pictures = folder.newFolder("pictures");
+		ImageIO.write(picture(30, 40, 0xff102030), "png", new File(pictures, "first.png"));
+		ImageIO.write(picture(50, 20, 0x80405060), "png", new File(pictures, "second.png"));
+		ImageIO.write(picture(60, 40, 0xff708090), "png", new File(pictures, "third.png"));
+
+		final File atlas = new File(folder.getRoot(), "out/test.atlas");
+		AtlasPacker.pack(pictures, atlas);
+		assertTrue(new File(atlas.getParentFile(), "test.png").isFile());
+		checkAtlas(pictures, atlas);
+	}
+
+	@Test
+	public void animationAtlasTest() throws IOException {
+		/* The packed atlas must be made again when the pictures change */
+		checkAtlas(new File("assets/Animations"), new File("assets/"
+				+ AnimationFactory.ATLAS_PATH));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void noPicturesTest() throws IOException {
+		AtlasPacker.pack(folder.newFolder("empty"), new File(folder.getRoot(),
+				"empty.atlas"));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void tooLargeTest() throws IOException {
+		final File pictures = folder.newFolder("large");
+		ImageIO.write(new BufferedImage(AtlasPacker.MAX_SIZE + 1, 1,
+				BufferedImage.TYPE_INT_ARGB), "png", new File(pictures, "wide.png"));
+		AtlasPacker.pack(pictures, new File(folder.getRoot(), "large.atlas"));
+	}
+}
@@ -0,0 +1,127 @@
+package edu.chalmers.blockster.gdx.view;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.chalmers.blockster.core.objects.Block;
+import edu.chalmers.blockster.core.objects.BlocksterMap;
+import edu.chalmers.blockster.core.objects.Player;
+import edu.chalmers.blockster.core.objects.World;
+
+public class MiniMapTest {
+
+	private BlocksterMap blockMap;
+	private MiniMap miniMap;
+
+	@Before
+	public void setUp() {
+		final List<Point> startPos = new ArrayList<Point>();
+		startPos.add(new Point(0, 0));
+		blockMap = new BlocksterMap(6, 4, 1, 1, startPos);
+		miniMap = new MiniMap(6, 4, new Player(0, 0, blockMap, World.DAY));
+		blockMap.addListener(miniMap);
+		blockMap.addActiveBlockListener(miniMap);
+	}
+
+	@Test
+	public void cellColorTest() {
+		final Block solid = new Block(2, 1, blockMap);
+		solid.setProperty("solid");
+		blockMap.insertBlock(solid);
+		final Block liftable = new Block(3, 1, blockMap);
+		liftable.setProperty("liftable");
+		blockMap.insertBlock(liftable);
+
+		if (miniMap.getCellColor(2, 1) != MiniMap.SOLID_BLOCK
+				|| miniMap.getCellColor(3, 1) != MiniMap.LIFTABLE_BLOCK) {
+			fail("Inserted blocks should be on the map");
+		}
+		assertTrue(miniMap.getCellColor(4, 1) == MiniMap.NO_BLOCK);
+
+		blockMap.removeBlock(solid);
+		assertTrue(miniMap.getCellColor(2, 1) == MiniMap.NO_BLOCK);
+	}
+
+	@Test
+	public void replacedCellTest() {
+		final Block first = new Block(1, 2, blockMap);
+		blockMap.insertBlock(first);
+		final Block second = new Block(1, 2, blockMap);
+		second.setProperty("solid");
+		blockMap.insertBlock(second);
+
+		/* The block that was replaced is removed after the new one is in */
+		miniMap.blockRemoved(first);
+		if (miniMap.getCellColor(1, 2) != MiniMap.SOLID_BLOCK) {
+			fail("Removing a replaced block should leave the new one");
+		}
+	}
+
+	@Test
+	public void croppedTest() {
+		if (miniMap.isCropped()) {
+			fail("A map smaller than the window should not be cropped");
+		}
+
+		final List<Point> startPos = new ArrayList<Point>();
+		startPos.add(new Point(0, 0));
+		final BlocksterMap large = new BlocksterMap(200, 200, 1, 1, startPos);
+		final MiniMap largeMiniMap = new MiniMap(200, 200, new Player(0, 0,
+				large, World.DAY));
+		assertTrue(largeMiniMap.isCropped());
+
+		largeMiniMap.setCropped(false);
+		assertTrue(!largeMiniMap.isCropped());
+	}
+
+	@Test
+	public void chunkedCellsTest() {
+		final List<Point> startPos = new ArrayList<Point>();
+		startPos.add(new Point(0, 0));
+		final BlocksterMap large = new BlocksterMap(1000, 1000, 1, 1, startPos);
+		final MiniMap largeMiniMap = new MiniMap(1000, 1000, new Player(0, 0,
+				large, World.DAY));
+		large.addListener(largeMiniMap);
+		assertTrue(largeMiniMap.getAllocatedChunks() == 0);
+
+		final Block block = new Block(900, 900, large);
+		block.setProperty("solid");
+		large.insertBlock(block);
+		if (largeMiniMap.getAllocatedChunks() != 1
+				|| largeMiniMap.getCellColor(900, 900) != MiniMap.SOLID_BLOCK) {
+			fail("Only the chunk of the block should be allocated");
+		}
+
+		large.removeBlock(block);
+		assertTrue(largeMiniMap.getAllocatedChunks() == 0);
+		assertTrue(largeMiniMap.getCellColor(900, 900) == MiniMap.NO_BLOCK);
+	}
+
+	@Test
+	public void windowHysteresisTest() {
+		final List<Point> startPos = new ArrayList<Point>();
+		startPos.add(new Point(0, 0));
+		final BlocksterMap large = new BlocksterMap(200, 200, 1, 1, startPos);
+		final MiniMap largeMiniMap = new MiniMap(200, 200, new Player(0, 0,
+				large, World.DAY));
+
+		if (!largeMiniMap.placeWindow(100, 100, 133, 133)) {
+			fail("The window should be placed the first time");
+		}
+		for (int step = 1; step <= 7; step++) {
+			if (largeMiniMap.placeWindow(100 + step, 100 - step, 133 + step,
+					133 - step)) {
+				fail("The window should not move while it covers the region");
+			}
+		}
+		assertTrue(largeMiniMap.placeWindow(108, 100, 141, 133));
+		assertTrue(!largeMiniMap.placeWindow(108, 100, 141, 133));
+	}
+}
@@ -0,0 +1,111 @@
+package edu.chalmers.blockster.headless;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Point;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.chalmers.blockster.core.objects.Block;
+import edu.chalmers.blockster.core.objects.BlockMap;
+
+public class HeadlessFactoryTest {
+
+	private static final String CSV_MAP = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+			+ "<map width=\"3\" height=\"2\" tilewidth=\"48\" tileheight=\"32\">"
+			+ "<properties>"
+			+ "<property name=\"nbrOfPlayers\" value=\"1\"/>"
+			+ "<property name=\"playerStart1\" value=\"1:1\"/>"
+			+ "</properties>"
+			+ "<tileset firstgid=\"1\" name=\"Blockset\" tilewidth=\"48\" tileheight=\"32\">"
+			+ "<tile id=\"1\"><properties>"
+			+ "<property name=\"solid\" value=\"\"/>"
+			+ "<property name=\"liftable\" value=\"\"/>"
+			+ "</properties></tile>"
+			+ "</tileset>"
+			+ "<layer name=\"Tile Layer 1\" width=\"3\" height=\"2\">"
+			+ "<data encoding=\"csv\">0,0,1,\n2,2147483650,0</data>"
+			+ "</layer>"
+			+ "</map>";
+
+	private static InputStream stream(String text) {
+		return new ByteArrayInputStream(text.getBytes(Charset.forName("UTF-8")));
+	}
+
+	@Test
+	public void csvMapTest() throws IOException {
+		final HeadlessFactory factory = new HeadlessFactory(stream(CSV_MAP));
+		factory.createMap();
+		final BlockMap map = factory.getMap();
+
+		if (map.getWidth() != 3 || map.getHeight() != 2
+				|| map.getBlockWidth() != 48 || map.getBlockHeight() != 32) {
+			fail("Wrong map dimensions");
+		}
+
+		/* The first row in the file is the top of the map */
+		if (!map.hasBlock(2, 1) || map.hasBlock(0, 1) || map.hasBlock(2, 0)) {
+			fail("Blocks in the wrong cells");
+		}
+
+		final Block block = map.getBlock(1, 0);
+		if (!block.isSolid() || !block.isLiftable() || map.getBlock(2, 1).isSolid()) {
+			fail("Tile properties should become block properties");
+		}
+
+		final List<Point> starts = map.getPlayerStartingPositions();
+		assertTrue(starts.size() == 1 && starts.get(0).equals(new Point(1, 1)));
+	}
+
+	@Test
+	public void base64MapTest() throws IOException {
+		final InputStream in = getClass().getResourceAsStream("/maps/stage1.tmx");
+		if (in == null) {
+			fail("stage1.tmx is missing from the classpath");
+		}
+		final HeadlessFactory factory = new HeadlessFactory(in);
+		factory.createMap();
+		final BlockMap map = factory.getMap();
+
+		if (map.getWidth() != 28 || map.getHeight() != 20) {
+			fail("Wrong map dimensions");
+		}
+		for (int x = 0; x < map.getWidth(); x++) {
+			if (!map.hasBlock(x, 19) || !map.getBlock(x, 19).isSolid()) {
+				fail("The top row of stage 1 should be solid");
+			}
+		}
+
+		final List<Point> starts = map.getPlayerStartingPositions();
+		assertTrue(starts.size() == 2 && starts.get(1).equals(new Point(21, 12)));
+	}
+
+	@Test
+	public void createMapTwiceTest() throws IOException {
+		final HeadlessFactory factory = new HeadlessFactory(stream(CSV_MAP));
+		factory.createMap();
+		final BlockMap first = factory.getMap();
+		first.removeBlock(first.getBlock(2, 1));
+
+		factory.createMap();
+		if (factory.getMap() == first || !factory.getMap().hasBlock(2, 1)) {
+			fail("Every map should be created from the file");
+		}
+	}
+
+	@Test(expected=IOException.class)
+	public void missingPlayersTest() throws IOException {
+		new HeadlessFactory(stream(CSV_MAP.replace("nbrOfPlayers", "players")));
+	}
+
+	@Test(expected=IOException.class)
+	public void wrongTileCountTest() throws IOException {
+		new HeadlessFactory(stream(CSV_MAP.replace("0,0,1,", "0,0,")));
+	}
+}
@@ -0,0 +1,101 @@
+package edu.chalmers.blockster.headless;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.chalmers.blockster.core.Factory;
+import edu.chalmers.blockster.core.InputKey;
+import edu.chalmers.blockster.core.InputState;
+import edu.chalmers.blockster.core.Model;
+import edu.chalmers.blockster.core.objects.Block;
+import edu.chalmers.blockster.core.objects.BlockMap;
+import edu.chalmers.blockster.core.objects.BlocksterMap;
+import edu.chalmers.blockster.core.objects.Player;
+import edu.chalmers.blockster.core.objects.World;
+
+public class HeadlessRunnerTest {
+
+	private Model model;
+	private ScriptedInput script;
+	private HeadlessRunner runner;
+
+	private static class FloorFactory implements Factory {
+		private BlocksterMap map;
+
+		@Override
+		public void createMap() {
+			final List<Point> startPos = new ArrayList<Point>();
+			startPos.add(new Point(2, 1));
+			map = new BlocksterMap(20, 5, 10, 10, startPos);
+			for (int x = 0; x < 20; x++) {
+				final Block block = new Block(x, 0, map);
+				block.setProperty("solid");
+				map.insertBlock(block);
+			}
+		}
+
+		@Override
+		public BlockMap getMap() {
+			return map;
+		}
+
+		@Override
+		public Player createPlayer(float startX, float startY, BlockMap blockLayer,
+				World world) {
+			return new Player(startX, startY, blockLayer, world);
+		}
+	}
+
+	@Before
+	public void setUp() {
+		model = new Model(new FloorFactory(), "floor");
+		script = new ScriptedInput();
+		runner = new HeadlessRunner(model, script);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void illegalStepTimeTest() {
+		new HeadlessRunner(model, script, 0);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void unorderedScriptTest() {
+		script.keyDown(10, InputKey.LEFT);
+		script.keyDown(5, InputKey.LEFT);
+	}
+
+	@Test
+	public void runTest() {
+		if (runner.run(100) != 100 || runner.getTick() != 100) {
+			fail("Runner should run the given number of ticks");
+		}
+	}
+
+	@Test
+	public void scriptedInputTest() {
+		script.hold(10, InputKey.RIGHT, 60);
+
+		runner.run(10);
+		final float startX = model.getActivePlayer().getX();
+		if ((runner.getInputState().getKeyFlags()
+				& InputState.RIGHT_BUTTON_DOWN_FLAG) != 0) {
+			fail("Key should not be pressed before its tick");
+		}
+
+		runner.run(60);
+		if (model.getActivePlayer().getX() <= startX) {
+			fail("Player should have moved right");
+		}
+
+		runner.run(1);
+		assertTrue((runner.getInputState().getKeyFlags()
+				& InputState.RIGHT_BUTTON_DOWN_FLAG) == 0);
+	}
+}
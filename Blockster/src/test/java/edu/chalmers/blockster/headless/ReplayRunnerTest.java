@@ -0,0 +1,106 @@
+package edu.chalmers.blockster.headless;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.chalmers.blockster.core.InputKey;
+import edu.chalmers.blockster.core.InputLog;
+import edu.chalmers.blockster.core.InputRecorder;
+import edu.chalmers.blockster.core.Model;
+import edu.chalmers.blockster.core.StateHash;
+import edu.chalmers.blockster.core.objects.BlockMap;
+
+public class ReplayRunnerTest {
+
+	private HeadlessFactory stage;
+	private InputLog log;
+
+	@Before
+	public void setUp() throws IOException {
+		stage = new HeadlessFactory(getClass().getResourceAsStream("/maps/stage1.tmx"));
+
+		final ScriptedInput script = new ScriptedInput();
+		script.hold(10, InputKey.LEFT, 45);
+		script.keyDown(70, InputKey.CLIMB);
+		script.keyDown(80, InputKey.GRAB);
+		script.hold(90, InputKey.RIGHT, 40);
+		script.keyUp(140, InputKey.GRAB);
+		script.keyUp(150, InputKey.SWITCH_CHARACTER);
+		script.hold(160, InputKey.RIGHT, 30);
+
+		final Model model = new Model(new HeadlessFactory(stage), "stage1");
+		final HeadlessRunner runner = new HeadlessRunner(model, script);
+		final InputRecorder recorder = new InputRecorder("stage1",
+				runner.getStepTime(), 20);
+		runner.setRecorder(recorder);
+		runner.run(250);
+		log = recorder.finish(model);
+	}
+
+	@Test
+	public void sameHashForNewModelsTest() {
+		final Model first = new Model(new HeadlessFactory(stage), "stage1");
+		final Model second = new Model(new HeadlessFactory(stage), "stage1");
+		assertTrue(StateHash.of(first) == StateHash.of(second));
+
+		first.update(0.5f);
+		assertTrue(StateHash.of(first) != StateHash.of(second));
+	}
+
+	@Test
+	public void sameHashWithBlockObjectsTest() {
+		final Model packed = new Model(new HeadlessFactory(stage), "stage1");
+		final Model objects = new Model(new HeadlessFactory(stage), "stage1");
+
+		/* Like a map of the game, which has a Block object for every block */
+		final BlockMap map = objects.getMap();
+		for (int y = 0; y < map.getHeight(); y++) {
+			for (int x = 0; x < map.getWidth(); x++) {
+				map.getBlock(x, y);
+			}
+		}
+		assertTrue(StateHash.of(packed) == StateHash.of(objects));
+
+		final ReplayResult result = new ReplayRunner(objects, log).run();
+		if (result.isDiverged()) {
+			fail("Block objects should not change the hash: " + result);
+		}
+	}
+
+	@Test
+	public void replayTest() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		log.write(out);
+		final InputLog read = InputLog.read(new ByteArrayInputStream(out.toByteArray()));
+
+		final ReplayResult result = new ReplayRunner(
+				new Model(new HeadlessFactory(stage), "stage1"), read).run();
+		if (result.isDiverged() || result.getTicks() != 250
+				|| result.getCheckpointsPassed() != log.getCheckpoints().size()) {
+			fail("Replay should match the recording: " + result);
+		}
+	}
+
+	@Test
+	public void divergenceTest() {
+		/* Start the replay from a different state */
+		final Model model = new Model(new HeadlessFactory(stage), "stage1");
+		model.getActivePlayer().setX(model.getActivePlayer().getX() + 1);
+
+		final ReplayResult result = new ReplayRunner(model, log).run();
+		final Map.Entry<Long, Long> first = log.getCheckpoints().entrySet()
+				.iterator().next();
+		if (!result.isDiverged() || result.getDivergedAt() != first.getKey()) {
+			fail("Replay should diverge at the first checkpoint: " + result);
+		}
+		assertTrue(result.getExpectedHash() == first.getValue());
+	}
+}
@@ -0,0 +1,122 @@
+package edu.chalmers.blockster.headless;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.chalmers.blockster.core.Factory;
+import edu.chalmers.blockster.core.InputKey;
+import edu.chalmers.blockster.core.objects.BlockMap;
+import edu.chalmers.blockster.core.objects.Player;
+import edu.chalmers.blockster.core.objects.World;
+
+public class StageExecutorTest {
+
+	private static final float STEP_TIME = 1f / 60;
+
+	private HeadlessFactory stage;
+	private StageExecutor executor;
+
+	@Before
+	public void setUp() throws IOException {
+		final InputStream in = getClass().getResourceAsStream("/maps/stage1.tmx");
+		stage = new HeadlessFactory(in);
+		executor = new StageExecutor(4, STEP_TIME);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	private ScriptedInput script(int variant) {
+		final ScriptedInput script = new ScriptedInput();
+		script.hold(5, variant % 2 == 0 ? InputKey.LEFT : InputKey.RIGHT, 40 + variant);
+		script.keyDown(60, InputKey.GRAB);
+		script.hold(70, InputKey.RIGHT, 30);
+		script.keyUp(110, InputKey.GRAB);
+		script.keyUp(130, InputKey.SWITCH_CHARACTER);
+		script.hold(140, InputKey.LEFT, 20);
+		return script;
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void illegalThreadsTest() {
+		new StageExecutor(0, STEP_TIME);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void illegalBudgetTest() {
+		new Simulation("stage1", stage, new ScriptedInput(), 0);
+	}
+
+	@Test
+	public void sameResultAsSequentialTest() throws InterruptedException {
+		final List<Simulation> simulations = new ArrayList<Simulation>();
+		final List<SimulationResult> expected = new ArrayList<SimulationResult>();
+		for (int i = 0; i < 16; i++) {
+			simulations.add(new Simulation("stage1-" + i, new HeadlessFactory(stage),
+					script(i), 300));
+			expected.add(new Simulation("stage1-" + i, new HeadlessFactory(stage),
+					script(i), 300).run(STEP_TIME));
+		}
+
+		final SimulationReport report = executor.runAll(simulations);
+		if (report.getResults().size() != 16 || report.getFailed() != 0) {
+			fail("All simulations should have run: " + report);
+		}
+
+		for (int i = 0; i < 16; i++) {
+			final SimulationResult result = report.getResults().get(i);
+			final Player player = result.getModel().getActivePlayer();
+			final Player expectedPlayer = expected.get(i).getModel().getActivePlayer();
+			if (result.getTicks() != expected.get(i).getTicks()
+					|| player.getX() != expectedPlayer.getX()
+					|| player.getY() != expectedPlayer.getY()) {
+				fail(result.getName() + " differs from a sequential run");
+			}
+		}
+		assertTrue(report.getTotalTicks() == 16 * 300);
+	}
+
+	@Test
+	public void failingSimulationTest() throws InterruptedException {
+		final Factory broken = new Factory() {
+			@Override
+			public void createMap() {
+				throw new IllegalStateException("broken map");
+			}
+
+			@Override
+			public BlockMap getMap() {
+				return null;
+			}
+
+			@Override
+			public Player createPlayer(float startX, float startY,
+					BlockMap blockLayer, World world) {
+				return null;
+			}
+		};
+
+		final List<Simulation> simulations = new ArrayList<Simulation>();
+		simulations.add(new Simulation("broken", broken, new ScriptedInput(), 10));
+		simulations.add(new Simulation("stage1", new HeadlessFactory(stage),
+				new ScriptedInput(), 10));
+
+		final SimulationReport report = executor.runAll(simulations);
+		if (report.getFailed() != 1 || !report.getResults().get(0).isFailed()
+				|| report.getResults().get(1).isFailed()) {
+			fail("Only the broken simulation should fail");
+		}
+		assertTrue(report.getResults().get(1).getTicks() == 10);
+	}
+}
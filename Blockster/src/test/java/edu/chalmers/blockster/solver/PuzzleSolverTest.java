@@ -0,0 +1,212 @@
+package edu.chalmers.blockster.solver;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.chalmers.blockster.core.objects.Block;
+import edu.chalmers.blockster.core.objects.BlockMap;
+import edu.chalmers.blockster.core.objects.BlocksterMap;
+import edu.chalmers.blockster.core.objects.movement.Direction;
+import edu.chalmers.blockster.headless.HeadlessFactory;
+
+public class PuzzleSolverTest {
+
+	private static final int MAX_STATES = 100000;
+
+	private PuzzleSolver solver;
+
+	@Before
+	public void setUp() {
+		solver = new PuzzleSolver(4, MAX_STATES);
+	}
+
+	@After
+	public void tearDown() {
+		solver.shutdown();
+	}
+
+	private BlocksterMap createFloor(Point... players) {
+		final List<Point> startPos = new ArrayList<Point>();
+		for (final Point p : players) {
+			startPos.add(p);
+		}
+		final BlocksterMap map = new BlocksterMap(10, 6, 1, 1, startPos);
+		for (int x = 0; x < 10; x++) {
+			addBlock(map, x, 0, "solid");
+		}
+		return map;
+	}
+
+	private void addBlock(BlocksterMap map, int x, int y, String... properties) {
+		final Block block = new Block(x, y, map);
+		for (final String property : properties) {
+			block.setProperty(property);
+		}
+		map.insertBlock(block);
+	}
+
+	private void addLooseBlock(BlocksterMap map, int x, int y) {
+		addBlock(map, x, y, "solid", "weight", "movable", "liftable");
+	}
+
+	@Test
+	public void walkToTeleporterTest() {
+		final BlocksterMap map = createFloor(new Point(1, 1));
+		addBlock(map, 5, 1, "solid", "teleporter");
+
+		final SolverResult result = solver.solve(map);
+		if (!result.isSolved()) {
+			fail("A teleporter on flat ground should be reachable");
+		}
+
+		final List<SolverStep> steps = result.getSteps();
+		assertTrue(steps.size() == 4);
+		for (int i = 0; i < 3; i++) {
+			assertTrue(steps.get(i).getAction() == SolverAction.WALK);
+			assertTrue(steps.get(i).getDirection() == Direction.RIGHT);
+		}
+		assertTrue(steps.get(3).getAction() == SolverAction.ENTER);
+	}
+
+	@Test
+	public void climbTest() {
+		final BlocksterMap map = createFloor(new Point(1, 1));
+		addBlock(map, 3, 1, "solid");
+		addBlock(map, 6, 1, "solid", "teleporter");
+
+		final SolverResult result = solver.solve(map);
+		if (!result.isSolved()) {
+			fail("A single block should be possible to climb over");
+		}
+
+		final List<SolverStep> steps = result.getSteps();
+		assertTrue(steps.size() == 5);
+		assertTrue(steps.get(1).getAction() == SolverAction.CLIMB);
+	}
+
+	@Test
+	public void pushBlockToClimbTest() {
+		final BlocksterMap map = createFloor(new Point(1, 1));
+		addLooseBlock(map, 2, 1);
+		addBlock(map, 4, 1, "solid");
+		addBlock(map, 4, 2, "solid");
+		addBlock(map, 7, 1, "solid", "teleporter");
+
+		final SolverResult result = solver.solve(map);
+		if (!result.isSolved()) {
+			fail("The block should make it possible to climb the wall");
+		}
+
+		final List<SolverStep> steps = result.getSteps();
+		assertTrue(steps.size() == 6);
+		assertTrue(steps.get(0).getAction() == SolverAction.PUSH);
+		assertTrue(steps.get(5).getAction() == SolverAction.ENTER);
+	}
+
+	@Test
+	public void unsolvableTest() {
+		final BlocksterMap map = createFloor(new Point(1, 1));
+		addBlock(map, 2, 1, "solid");
+		addBlock(map, 4, 1, "solid");
+		addBlock(map, 4, 2, "solid");
+		addBlock(map, 7, 1, "solid", "teleporter");
+
+		final SolverResult result = solver.solve(map);
+		if (result.isSolved() || result.isLimitReached()) {
+			fail("The wall is too high to be climbed without a loose block");
+		}
+		assertTrue(result.isUnsolvable());
+	}
+
+	@Test
+	public void separateAreasTest() {
+		final BlocksterMap map = createFloor(new Point(1, 1), new Point(1, 4));
+		for (int x = 0; x < 10; x++) {
+			addBlock(map, x, 3, "solid");
+		}
+		addBlock(map, 3, 1, "solid", "teleporter");
+		addBlock(map, 8, 4, "solid", "teleporter");
+
+		final SolverResult result = solver.solve(map);
+		if (!result.isSolved()) {
+			fail("Both players should reach their teleporters");
+		}
+
+		int entered = 0;
+		for (final SolverStep step : result.getSteps()) {
+			if (step.getAction() == SolverAction.ENTER) {
+				entered++;
+			}
+		}
+		assertTrue(entered == 2);
+		assertTrue(result.getSteps().size() == 9);
+	}
+
+	@Test
+	public void stage1Test() throws IOException {
+		final SolverResult parallel = solver.solve(loadStage1());
+
+		final PuzzleSolver single = new PuzzleSolver(1, MAX_STATES);
+		final SolverResult sequential;
+		try {
+			sequential = single.solve(loadStage1());
+		} finally {
+			single.shutdown();
+		}
+
+		if (!parallel.isSolved() || !sequential.isSolved()) {
+			fail("Stage 1 should be solvable");
+		}
+		/* Any goal at the same depth may win, so only the moves of blocks
+		 * are the same, not the walking in between */
+		assertTrue(countMoves(parallel) == countMoves(sequential));
+	}
+
+	@Test
+	public void limitTest() throws IOException {
+		final PuzzleSolver limited = new PuzzleSolver(2, 10);
+		final SolverResult result;
+		try {
+			result = limited.solve(loadStage1());
+		} finally {
+			limited.shutdown();
+		}
+
+		if (result.isSolved() || result.isUnsolvable()) {
+			fail("The search should have been stopped by the limit");
+		}
+		assertTrue(result.isLimitReached());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void nonPositiveThreadsTest() {
+		new PuzzleSolver(0, MAX_STATES);
+	}
+
+	private int countMoves(SolverResult result) {
+		int moves = 0;
+		for (final SolverStep step : result.getSteps()) {
+			if (step.getAction() != SolverAction.WALK
+					&& step.getAction() != SolverAction.CLIMB) {
+				moves++;
+			}
+		}
+		return moves;
+	}
+
+	private BlockMap loadStage1() throws IOException {
+		final HeadlessFactory factory = new HeadlessFactory(
+				getClass().getResourceAsStream("/maps/stage1.tmx"));
+		factory.createMap();
+		return factory.getMap();
+	}
+}